@@ -0,0 +1,59 @@
+package heimlich_and_co.benchmarks;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.search.BatchSimulator;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.util.GameRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares playing many random games without cards with the BatchSimulator to playing them one after the other with the
+ * RandomPlayout. Both benchmarks play numberOfGames complete games per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class BatchSimulatorBenchmarks {
+
+    @Param({"2", "3", "5", "7"})
+    public int numberOfPlayers;
+
+    @Param({"4096"})
+    public int numberOfGames;
+
+    private BatchSimulator simulator;
+    private RandomPlayout playout;
+    private HeimlichAndCo initialGame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulator = new BatchSimulator(numberOfGames, numberOfPlayers, new GameRandom(42));
+        playout = new RandomPlayout(new GameRandom(7));
+        initialGame = new HeimlichAndCo("0", numberOfPlayers, 42);
+    }
+
+    @Benchmark
+    public int batchSimulator() {
+        simulator.reset();
+        return simulator.play(BatchSimulator.RANDOM_POLICY, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int randomPlayouts() {
+        int safePositions = 0;
+        for (int i = 0; i < numberOfGames; i++) {
+            safePositions += playout.playout(initialGame).getBoard().getSafePosition();
+        }
+        return safePositions;
+    }
+}
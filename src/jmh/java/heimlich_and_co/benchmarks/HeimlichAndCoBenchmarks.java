@@ -0,0 +1,146 @@
+package heimlich_and_co.benchmarks;
+
+import at.ac.tuwien.ifs.sge.game.Game;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.util.GameRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the main operations of the game engine, for 2 to 7 players with and without cards.
+ * <p>
+ * The operations on single states are measured on a fixed sample of states taken from random games (covering all
+ * phases and different lengths of the action records), which are used in turn. All games and generators are seeded,
+ * so every run measures the same states and games. Run with ./gradlew jmh, the gc profiler reports the allocation rate
+ * (gc.alloc.rate.norm is the number of bytes allocated per operation).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class HeimlichAndCoBenchmarks {
+
+    /**
+     * Number of sampled states (must be a power of two).
+     */
+    private static final int NUMBER_OF_STATES = 256;
+
+    @Param({"2", "3", "4", "5", "6", "7"})
+    public int numberOfPlayers;
+
+    @Param({"false", "true"})
+    public boolean withCards;
+
+    private HeimlichAndCo[] states;
+    /**
+     * A possible action for each of the sampled states.
+     */
+    private HeimlichAndCoAction[] actions;
+    private HeimlichAndCo initialGame;
+    private RandomPlayout playout;
+    private Random random;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new GameRandom(42);
+        RandomPlayout sampler = new RandomPlayout(random);
+        states = new HeimlichAndCo[NUMBER_OF_STATES];
+        actions = new HeimlichAndCoAction[NUMBER_OF_STATES];
+        int sampled = 0;
+        while (sampled < NUMBER_OF_STATES) {
+            HeimlichAndCo game = newGame();
+            while (!game.isGameOver() && sampled < NUMBER_OF_STATES) {
+                if (random.nextInt(4) == 0) { //take every fourth state on average
+                    states[sampled] = new HeimlichAndCo(game);
+                    actions[sampled] = sampler.getRandomAction(game);
+                    sampled++;
+                }
+                sampler.applyRandomAction(game);
+            }
+        }
+        initialGame = newGame();
+        playout = new RandomPlayout(new GameRandom(7));
+    }
+
+    @Benchmark
+    public Set<HeimlichAndCoAction> getPossibleActions() {
+        return states[nextIndex()].getPossibleActions();
+    }
+
+    @Benchmark
+    public boolean isValidAction() {
+        int i = nextIndex();
+        return states[i].isValidAction(actions[i]);
+    }
+
+    @Benchmark
+    public HeimlichAndCo doAction() {
+        int i = nextIndex();
+        return states[i].doAction(actions[i]);
+    }
+
+    @Benchmark
+    public HeimlichAndCo copy() {
+        return new HeimlichAndCo(states[nextIndex()]);
+    }
+
+    @Benchmark
+    public HeimlichAndCo copyStripped() {
+        return new HeimlichAndCo(states[nextIndex()], true);
+    }
+
+    @Benchmark
+    public Game<HeimlichAndCoAction, HeimlichAndCoBoard> getGame() {
+        int i = nextIndex();
+        return states[i].getGame(i % numberOfPlayers);
+    }
+
+    /**
+     * A full random game played with the public interface, i.e. the possible actions are calculated and one of them is
+     * applied with doAction, like a simple agent would.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public HeimlichAndCo randomGame() {
+        HeimlichAndCo game = initialGame;
+        while (!game.isGameOver()) {
+            List<HeimlichAndCoAction> possibleActions = new ArrayList<>(game.getPossibleActions());
+            game = game.doAction(possibleActions.get(random.nextInt(possibleActions.size())));
+        }
+        return game;
+    }
+
+    /**
+     * A full random game played with the RandomPlayout.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public HeimlichAndCo randomPlayout() {
+        return playout.playout(initialGame);
+    }
+
+    private HeimlichAndCo newGame() {
+        return new HeimlichAndCo(withCards ? "1" : "0", numberOfPlayers, random.nextLong());
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (NUMBER_OF_STATES - 1);
+        return index;
+    }
+}
@@ -7,8 +7,10 @@ import heimlich_and_co.cards.HeimlichAndCoCard;
 import heimlich_and_co.enums.Agent;
 import heimlich_and_co.enums.HeimlichAndCoPhase;
 import heimlich_and_co.factories.HeimlichAndCoCardStackFactory;
+import heimlich_and_co.util.ActionHistory;
 import heimlich_and_co.util.CardStack;
-import heimlich_and_co.util.ListHelpers;
+import heimlich_and_co.util.GameRandom;
+import heimlich_and_co.util.Zobrist;
 
 import java.util.*;
 
@@ -34,7 +36,16 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
      * Saves which card belongs to which player (MUST REMAIN SECRET).
      */
     private final Map<Integer, List<HeimlichAndCoCard>> cards;
-    private final LinkedList<ActionRecord<HeimlichAndCoAction>> actionRecords; //Linked list for efficiency reasons
+    /**
+     * The action records, shared with the copies of this game (see ActionHistory), so copying does not depend on the
+     * length of the game.
+     */
+    private final ActionHistory actionRecords;
+    /**
+     * Saves what is needed to undo the actions applied to this instance (the most recent action on top).
+     * Copies of a game start with an empty stack, i.e. only actions applied to this instance can be undone.
+     */
+    private final Deque<UndoRecord> undoRecords = new ArrayDeque<>();
     private final Set<Integer> disqualifiedPlayers = new HashSet<>();
     private int currentPlayer;
     /**
@@ -58,6 +69,38 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
      * Whether custom die rolls are allowed in this game or not. Will be false in a normal game setting.
      */
     private boolean allowCustomDieRolls;
+    /**
+     * Zobrist key of the cards on the hands of the players, updated whenever a card is added to or removed from a hand.
+     */
+    private long handsZobristKey;
+    /**
+     * Saves how many cards each player has on the hand that are not contained in the cards map, because they were
+     * stripped from this copy of the game (indexed by player). The cards of the players are public in number only.
+     */
+    private final int[] numberOfHiddenCards;
+    /**
+     * Saves how many cards of each kind (see HeimlichAndCoCard.getKind()) were played so far, which is public
+     * information.
+     */
+    private final int[] playedCardsOfKind = new int[HeimlichAndCoCard.NUMBER_OF_KINDS];
+    /**
+     * Whether applied actions are added to the action records and can be undone. Can be turned off for copies which
+     * are only used for simulations (e.g. random playouts).
+     */
+    private boolean recordHistory = true;
+    /**
+     * Whether applied actions can be undone (if the history is recorded). Can be turned off for games that are played
+     * in place and never walked back, e.g. the games of a tournament.
+     */
+    private boolean undoEnabled = true;
+    /**
+     * Random number generator of this game, used for rolling the die, shuffling the card stack and assigning the agents
+     * to the players. Copies of the game get a generator split off this one (see GameRandom.split(), which does not
+     * change this generator, so a game can be copied by multiple threads at the same time), copies with
+     * stripped information get a new, unrelated generator (so that they cannot be used to predict the die rolls of
+     * this game).
+     */
+    private final GameRandom random;
 
     /**
      * Creates a new HeimlichAndCo instance with the minimum amount of players needed and without cards.
@@ -84,7 +127,8 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
      * @param stripInformation whether to strip non-public information from the new game
      */
     public HeimlichAndCo(HeimlichAndCo game, boolean stripInformation) {
-        this(game.getCurrentPlayer(), game.numberOfPLayers, game.actionRecords, game.board, null, game.withCards);
+        this(game.getCurrentPlayer(), game.numberOfPLayers, game.actionRecords, game.board, null, game.withCards,
+                stripInformation ? new GameRandom() : game.random.split());
         phase = game.phase;
         currentTurnPlayer = game.currentTurnPlayer;
         playersToAgentsMap.clear();
@@ -98,19 +142,19 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
             playersToAgentsMap.put(game.currentPlayer, game.playersToAgentsMap.get(game.currentPlayer));
             if (withCards) {
                 for(Integer player: game.cards.keySet()) {
-                    cards.put(player, new LinkedList<>());
+                    cards.put(player, new ArrayList<>());
                 }
                 List<HeimlichAndCoCard> playerCards = game.cards.get(game.currentPlayer);
                 if (playerCards!= null) {
                     cards.get(game.getCurrentPlayer()).addAll(playerCards);
                 }
-                cardStack = HeimlichAndCoCardStackFactory.newInstance(game.cardStack.count());
+                cardStack = HeimlichAndCoCardStackFactory.newInstance(game.cardStack.count(), random);
             }
         } else {
             playersToAgentsMap.putAll(game.playersToAgentsMap);
             if (withCards) {
                 for (Integer player : game.cards.keySet()) {
-                    cards.put(player, new LinkedList<>());
+                    cards.put(player, new ArrayList<>());
                     List<HeimlichAndCoCard> playerCards = game.cards.get(player);
                     if (playerCards != null) {
                         cards.get(player).addAll(playerCards);
@@ -126,6 +170,14 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         }
         allowCustomDieRolls = game.allowCustomDieRolls;
         this.disqualifiedPlayers.addAll(game.disqualifiedPlayers);
+        System.arraycopy(game.playedCardsOfKind, 0, playedCardsOfKind, 0, playedCardsOfKind.length);
+        for (int player = 0; player < numberOfPLayers; player++) {
+            numberOfHiddenCards[player] = game.numberOfHiddenCards[player];
+            if (withCards && stripInformation && player != game.currentPlayer && game.cards.get(player) != null) {
+                numberOfHiddenCards[player] += game.cards.get(player).size();
+            }
+        }
+        handsZobristKey = calculateHandsZobristKey();
     }
 
     /**
@@ -141,8 +193,25 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
      * @param numberOfPlayers
      */
     public HeimlichAndCo(String board, int numberOfPlayers) {
+        this(board, numberOfPlayers, new GameRandom());
+    }
+
+    /**
+     * Creates a new game like HeimlichAndCo(board, numberOfPlayers), whose random number generator is created with the
+     * given seed. Therefore, the assignment of the agents, the card stack and the die rolls (given the same actions)
+     * are the same for every game created with the same seed.
+     *
+     * @param board           string indicating whether the game is played with cards
+     * @param numberOfPlayers the number of players
+     * @param seed            seed of the random number generator of the game
+     */
+    public HeimlichAndCo(String board, int numberOfPlayers, long seed) {
+        this(board, numberOfPlayers, new GameRandom(seed));
+    }
+
+    private HeimlichAndCo(String board, int numberOfPlayers, GameRandom random) {
         this(0, numberOfPlayers, null, null, null,
-                board != null && (board.equals("1") || board.equals("cards") || board.equals("Cards")));
+                board != null && (board.equals("1") || board.equals("cards") || board.equals("Cards")), random);
     }
 
     /**
@@ -170,6 +239,28 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
     public HeimlichAndCo(int currentPlayer, int numberOfPlayers,
                          List<ActionRecord<HeimlichAndCoAction>> actionRecords,
                          HeimlichAndCoBoard board, Map<Integer, Agent> playersToAgentsMap, boolean withCards) {
+        this(currentPlayer, numberOfPlayers, actionRecords, board, playersToAgentsMap, withCards, new GameRandom());
+    }
+
+    /**
+     * Creates a new HeimlichAndCo instance with the given parameters and random number generator.
+     *
+     * @param currentPlayer      current player
+     * @param numberOfPlayers    the number of players that are playing
+     * @param actionRecords      the action records (can be null)
+     * @param board              the board (can be null)
+     * @param playersToAgentsMap Map which maps players to agents (can be null)
+     * @param withCards          whether the game should be with or without cards
+     * @param random             random number generator of the game
+     */
+    public HeimlichAndCo(int currentPlayer, int numberOfPlayers,
+                         List<ActionRecord<HeimlichAndCoAction>> actionRecords,
+                         HeimlichAndCoBoard board, Map<Integer, Agent> playersToAgentsMap, boolean withCards,
+                         GameRandom random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Random must not be null.");
+        }
+        this.random = random;
         if (currentPlayer < 0 || currentPlayer >= numberOfPlayers) {
             throw new IllegalArgumentException("Current player must be a valid player." + currentPlayer);
         }
@@ -178,16 +269,18 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
             throw new IllegalArgumentException("Invalid value given for number of players.");
         }
         this.numberOfPLayers = numberOfPlayers;
+        this.numberOfHiddenCards = new int[numberOfPlayers];
         if (actionRecords == null) {
-            this.actionRecords = new LinkedList<>();
+            this.actionRecords = new ActionHistory();
         } else {
-            this.actionRecords = ListHelpers.deepCopyActionRecordList(actionRecords);
+            this.actionRecords = new ActionHistory(actionRecords);
         }
         if (board == null) {
             this.board = new HeimlichAndCoBoard(numberOfPlayers + getNumberOfDummyAgents(numberOfPlayers));
         } else {
             this.board = new HeimlichAndCoBoard(board);
         }
+        this.board.setRandom(random);
         if (playersToAgentsMap == null) {
             this.playersToAgentsMap = createPlayersToAgentsMap(this.numberOfPLayers);
         } else {
@@ -195,10 +288,10 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         }
         this.withCards = withCards;
         if (withCards) {
-            this.cardStack = HeimlichAndCoCardStackFactory.newInstance();
+            this.cardStack = HeimlichAndCoCardStackFactory.newInstance(random);
             this.cards = new HashMap<>();
             for (Integer player : this.playersToAgentsMap.keySet()) { //each player gets two cards at the start of the game
-                List<HeimlichAndCoCard> playerCards = new LinkedList<>();
+                List<HeimlichAndCoCard> playerCards = new ArrayList<>();
                 playerCards.add(cardStack.drawCard());
                 playerCards.add(cardStack.drawCard());
                 this.cards.put(player, playerCards);
@@ -209,25 +302,73 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         }
         this.phase = HeimlichAndCoPhase.DIE_ROLL_PHASE;
         this.allowCustomDieRolls = false;
+        this.handsZobristKey = calculateHandsZobristKey();
     }
 
     /**
      * Applies an action to this game, DOES NOT create a copy of this game (in contrast to doAction).
      * <p>
      * More performant than doAction (as the game does not have to be copied), but changes THIS instance.
+     * The action can be reverted with undoLastAction.
      *
      * @param action action to take
      */
     public void applyAction(HeimlichAndCoAction action) {
-        if (!isValidAction(action)) {
+        applyAction(action, false, true, recordHistory && undoEnabled);
+    }
+
+    /**
+     * Applies a recorded action (see getActionRecords) to this game, like applyAction. In contrast to applyAction, a
+     * resolved random die roll (see HeimlichAndCoActionUniverse.getResolvedDieRoll) sets the recorded result instead of
+     * rolling the die again, i.e. replaying the action records of a game from its initial state reproduces the game.
+     *
+     * @param action recorded action
+     * @throws IllegalArgumentException if the action is not valid
+     */
+    public void replayAction(HeimlichAndCoAction action) {
+        applyAction(action, true, true, recordHistory && undoEnabled);
+    }
+
+    /**
+     * Applies a recorded action like replayAction, but without checking whether the action is valid. Only for action
+     * records that are known to be valid in this state, e.g. records that were replayed with replayAction before (see
+     * GameReplayer): an invalid action leaves the game in an undefined state.
+     * <p>
+     * Together with setRecordHistory(false) (no action records and no copies of the board for undoing the action) this
+     * is the fastest way to replay a game.
+     *
+     * @param action recorded action
+     */
+    public void replayTrustedAction(HeimlichAndCoAction action) {
+        applyAction(action, true, false, recordHistory && undoEnabled);
+    }
+
+    private void applyAction(HeimlichAndCoAction action, boolean replay, boolean validate, boolean undoable) {
+        if (validate && !isValidAction(action)) {
             throw new IllegalArgumentException("Invalid Action given");
         }
 
-        HeimlichAndCoBoard boardBeforeAction = new HeimlichAndCoBoard(this.board);
-        action.applyAction(this.board);
-        this.actionRecords.addLast(new ActionRecord<>(currentPlayer, action));
+        UndoRecord undoRecord = undoable ? new UndoRecord(this) : null;
+        //only needed for drawing cards
+        boolean movesAgentsIntoRuins = withCards && action.getClass().equals(HeimlichAndCoAgentMoveAction.class)
+                && ((HeimlichAndCoAgentMoveAction) action).movesAgentsIntoRuins(this.board);
+        if (replay && action.getClass().equals(HeimlichAndCoDieRollAction.class)
+                && ((HeimlichAndCoDieRollAction) action).isRandomRoll()
+                && ((HeimlichAndCoDieRollAction) action).getDieRoll() != 0) {
+            board.setLastDieRoll(((HeimlichAndCoDieRollAction) action).getDieRoll());
+        } else {
+            action.applyAction(this.board);
+        }
+        if (recordHistory) {
+            HeimlichAndCoAction recordedAction = action;
+            if (action.getClass().equals(HeimlichAndCoDieRollAction.class) && ((HeimlichAndCoDieRollAction) action).isRandomRoll()) {
+                //record the result of the roll, the random roll action itself is shared and therefore not changed
+                recordedAction = HeimlichAndCoActionUniverse.getResolvedDieRoll(board.getLastDieRoll());
+            }
+            this.actionRecords.add(new ActionRecord<>(currentPlayer, recordedAction));
+        }
 
-        handleCardsAfterAction(action, boardBeforeAction);
+        handleCardsAfterAction(action, movesAgentsIntoRuins, undoRecord);
 
         phase = getNextPhase(action, board.scoringTriggered());
         if (phase == HeimlichAndCoPhase.SAFE_MOVE_PHASE) {
@@ -235,7 +376,7 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
             board.awardPoints();
 
             //skip the safe move phase for the disqualified player
-            if (disqualifiedPlayers.contains(currentTurnPlayer)) {
+            if (!disqualifiedPlayers.isEmpty() && disqualifiedPlayers.contains(currentTurnPlayer)) {
                 board.moveSafe(7);
                 phase = HeimlichAndCoPhase.DIE_ROLL_PHASE;
                 turnFinished();
@@ -243,6 +384,309 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         } else if (phase == HeimlichAndCoPhase.DIE_ROLL_PHASE) {
             turnFinished();
         }
+        if (undoable) {
+            undoRecords.push(undoRecord);
+        }
+    }
+
+    /**
+     * Copies the state of the given game into this game, i.e. afterwards this game is in the same state as a copy of
+     * the given game created with the copy constructor, except that the action records are not copied. The action
+     * records and the actions that could be undone of this game are cleared.
+     * <p>
+     * The board, the hands and the card stack of this game are reused (the cards themselves are shared, as they are not
+     * modified), therefore this is much cheaper than creating a copy and allows reusing one game as scratch state, e.g.
+     * for random playouts.
+     *
+     * @param game game whose state should be copied into this game
+     * @throws IllegalArgumentException if the games are played with a different number of players or agents, or one
+     *                                  is played with cards and the other is not
+     */
+    public void copyStateFrom(HeimlichAndCo game) {
+        if (game.numberOfPLayers != numberOfPLayers || game.withCards != withCards) {
+            throw new IllegalArgumentException("Both games must be played with the same number of players and both with or without cards.");
+        }
+        board.copyStateFrom(game.board);
+        if (!playersToAgentsMap.equals(game.playersToAgentsMap)) {
+            playersToAgentsMap.clear();
+            playersToAgentsMap.putAll(game.playersToAgentsMap);
+        }
+        if (withCards) {
+            cards.keySet().retainAll(game.cards.keySet());
+            for (Map.Entry<Integer, List<HeimlichAndCoCard>> entry : game.cards.entrySet()) {
+                List<HeimlichAndCoCard> playerCards = cards.computeIfAbsent(entry.getKey(), player -> new ArrayList<>());
+                copyCards(entry.getValue(), playerCards);
+            }
+            if (cardStack == null) {
+                cardStack = new CardStack<>(game.cardStack.getCards());
+            } else {
+                copyCards(game.cardStack.getCards(), cardStack.getCards());
+            }
+        }
+        if (!disqualifiedPlayers.equals(game.disqualifiedPlayers)) {
+            disqualifiedPlayers.clear();
+            disqualifiedPlayers.addAll(game.disqualifiedPlayers);
+        }
+        actionRecords.clear();
+        undoRecords.clear();
+        phase = game.phase;
+        currentPlayer = game.currentPlayer;
+        currentTurnPlayer = game.currentTurnPlayer;
+        playersSkippedInARowDuringCardPhase = game.playersSkippedInARowDuringCardPhase;
+        allowCustomDieRolls = game.allowCustomDieRolls;
+        System.arraycopy(game.numberOfHiddenCards, 0, numberOfHiddenCards, 0, numberOfHiddenCards.length);
+        System.arraycopy(game.playedCardsOfKind, 0, playedCardsOfKind, 0, playedCardsOfKind.length);
+        handsZobristKey = game.handsZobristKey;
+    }
+
+    /**
+     * Replaces all information that is hidden from the given player with a random sample which is consistent with what
+     * the player knows, i.e. turns the game (usually a copy created with getGame(player)) into one of the states the
+     * actual game could be in from the point of view of the player:
+     * <ul>
+     *     <li>the other players get a random assignment of the agents apart from the agent of the player</li>
+     *     <li>the cards which are neither on the hand of the player nor were played so far are dealt randomly to the
+     *     other players (each gets as many cards as they actually have, see getNumberOfHiddenCards) and the rest forms
+     *     the card stack in random order</li>
+     * </ul>
+     * Each consistent state is equally likely. Changes this instance (no copy is created) and does not change the
+     * action records, the board or the hand of the player. Therefore, determinizing a reused game (see copyStateFrom)
+     * is cheap.
+     *
+     * @param player the player from whose point of view the game is determinized
+     * @param random random number generator used for sampling
+     * @throws IllegalArgumentException if the player does not play in the game or the agent of the player is unknown
+     * @throws IllegalStateException    if the hidden cards do not match the cards of the traditional card stack
+     */
+    public void determinize(int player, Random random) {
+        if (player < 0 || player >= numberOfPLayers || !playersToAgentsMap.containsKey(player)) {
+            throw new IllegalArgumentException("The agent of the given player must be known.");
+        }
+        Agent[] agents = board.getAgents();
+        int ownAgentIndex = Arrays.asList(agents).indexOf(playersToAgentsMap.get(player));
+        agents[ownAgentIndex] = agents[agents.length - 1];
+        shuffle(agents, agents.length - 1, random);
+        int nextAgent = 0;
+        for (int otherPlayer = 0; otherPlayer < numberOfPLayers; otherPlayer++) {
+            if (otherPlayer != player) {
+                playersToAgentsMap.put(otherPlayer, agents[nextAgent++]);
+            }
+        }
+        if (withCards) {
+            determinizeCards(player, random);
+        }
+    }
+
+    /**
+     * Returns how many cards the given player has on the hand that are not contained in getCards(), because they were
+     * stripped from this copy of the game (0 if the game is not a stripped copy or was determinized).
+     *
+     * @param player the player
+     * @return number of hidden cards of the player
+     */
+    public int getNumberOfHiddenCards(int player) {
+        return numberOfHiddenCards[player];
+    }
+
+    /**
+     * Returns how many cards of the given kind (see HeimlichAndCoCard.getKind()) were played so far.
+     *
+     * @param kind kind of the cards
+     * @return number of played cards
+     */
+    public int getNumberOfPlayedCards(int kind) {
+        return playedCardsOfKind[kind];
+    }
+
+    /**
+     * Returns the random number generator of this game (see HeimlichAndCo(String, int, long) for reproducible games).
+     *
+     * @return the random number generator
+     */
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    public boolean isRecordHistory() {
+        return recordHistory;
+    }
+
+    /**
+     * Sets whether applied actions are added to the action records and can be undone (true by default).
+     * Turning this off makes applying actions cheaper, which is useful for copies that are only used for simulations.
+     * Note: Actions applied while this is turned off can never be undone, therefore the actions applied before cannot
+     * be undone either.
+     *
+     * @param value whether to record the history
+     */
+    public void setRecordHistory(boolean value) {
+        if (!value) {
+            undoRecords.clear();
+        }
+        recordHistory = value;
+    }
+
+    public boolean isUndoEnabled() {
+        return undoEnabled;
+    }
+
+    /**
+     * Sets whether applied actions can be undone (true by default, only if the history is recorded). Turning this off
+     * avoids the copy of the board that is kept for undoing each action, while the action records are still added, e.g.
+     * for playing whole games in place. The actions that could be undone so far are discarded.
+     *
+     * @param value whether applied actions can be undone
+     */
+    public void setUndoEnabled(boolean value) {
+        if (!value) {
+            undoRecords.clear();
+        }
+        undoEnabled = value;
+    }
+
+    /**
+     * Reverts the last action that was applied to this instance with applyAction (the action applied by doAction cannot
+     * be undone on the returned game), i.e. restores the board, the phase, the current (turn) player, the cards of the
+     * players, the card stack and the counter of skipping players to the state before the action. The action record of
+     * the action is removed as well.
+     * <p>
+     * Together with applyAction this allows walking a game tree down and back up without copying the game.
+     *
+     * @throws IllegalStateException if there is no action that can be undone on this instance
+     */
+    public void undoLastAction() {
+        if (undoRecords.isEmpty()) {
+            throw new IllegalStateException("There is no action that can be undone.");
+        }
+        UndoRecord undoRecord = undoRecords.pop();
+        actionRecords.removeLast();
+        if (undoRecord.drawnCard != null) {
+            removeCardFromHand(undoRecord.currentPlayer, cards.get(undoRecord.currentPlayer).size() - 1);
+            cardStack.putCardOnTop(undoRecord.drawnCard);
+        }
+        if (undoRecord.playedCard != null) {
+            addCardToHand(undoRecord.currentPlayer, undoRecord.playedCardIndex, undoRecord.playedCard);
+            playedCardsOfKind[undoRecord.playedCard.getKind()]--;
+        }
+        board.copyStateFrom(undoRecord.board);
+        phase = undoRecord.phase;
+        currentPlayer = undoRecord.currentPlayer;
+        currentTurnPlayer = undoRecord.currentTurnPlayer;
+        playersSkippedInARowDuringCardPhase = undoRecord.playersSkippedInARowDuringCardPhase;
+    }
+
+    /**
+     * Writes the ids (see HeimlichAndCoActionUniverse) of all possible actions into the given array, i.e. the ids of
+     * the actions in getPossibleActions(). An array with HeimlichAndCoActionUniverse.size() entries is always large
+     * enough.
+     * Together with applyActionId this allows a search to store actions as ints. Apart from the card play phase, no
+     * objects are allocated.
+     *
+     * @param out array the ids are written to
+     * @return the number of ids written
+     * @throws IllegalStateException if a possible action is not part of the universe (only possible with non-standard
+     *                               cards)
+     */
+    public int getPossibleActionIds(int[] out) {
+        if (isGameOver()) {
+            return 0;
+        }
+        switch (phase) {
+            case DIE_ROLL_PHASE:
+                int count = 0;
+                out[count++] = HeimlichAndCoActionUniverse.RANDOM_DIE_ROLL_ID;
+                if (allowCustomDieRolls) {
+                    for (int face : board.getDieFaces()) {
+                        out[count++] = HeimlichAndCoActionUniverse.encode(HeimlichAndCoActionUniverse.getCustomDieRoll(face));
+                    }
+                }
+                return count;
+            case AGENT_MOVE_PHASE:
+                return HeimlichAndCoAgentMoveAction.getPossibleActionIds(board, withCards, out, 0);
+            case CARD_PLAY_PHASE:
+                List<HeimlichAndCoCard> playerCards = cards.get(currentPlayer);
+                int numberOfIds = 0;
+                for (int i = 0; i < playerCards.size(); i++) {
+                    HeimlichAndCoCard card = playerCards.get(i);
+                    if (playerCards.indexOf(card) == i) { //equal cards have the same actions
+                        numberOfIds += card.getPossibleActionIds(board, out, numberOfIds);
+                    }
+                }
+                out[numberOfIds++] = HeimlichAndCoActionUniverse.SKIP_CARD_ACTION_ID;
+                return numberOfIds;
+            case SAFE_MOVE_PHASE:
+                return HeimlichAndCoSafeMoveAction.getPossibleActionIds(board, out, 0);
+            default:
+                throw new IllegalStateException(ILLEGAL_STATE_MESSAGE);
+        }
+    }
+
+    /**
+     * Applies the action with the given id (see HeimlichAndCoActionUniverse) to this game, like applyAction.
+     *
+     * @param actionId id of the action
+     * @throws IllegalArgumentException if there is no such action or the action is not valid
+     */
+    public void applyActionId(int actionId) {
+        applyAction(HeimlichAndCoActionUniverse.get(actionId));
+    }
+
+    /**
+     * Returns whether there is an action that can be undone with undoLastAction.
+     *
+     * @return whether undoLastAction can be called
+     */
+    public boolean canUndo() {
+        return !undoRecords.isEmpty();
+    }
+
+    /**
+     * Returns the Zobrist key of the current state of the game, covering the board (agent positions, scores, safe
+     * position, last die roll and scoring flags), the phase, the current player, the current turn player, the number of
+     * players that skipped in a row and the cards on the hands of the players.
+     * The parts for the board and the hands are maintained incrementally while actions are applied (and undone), the
+     * remaining parts are single table lookups. Therefore, calling this method is cheap.
+     * <p>
+     * Note: The card stack, the action records and the mapping of players to agents are not part of the key.
+     *
+     * @return 64-bit Zobrist key of the state
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ handsZobristKey ^ Zobrist.phase(phase.ordinal())
+                ^ Zobrist.currentPlayer(currentPlayer) ^ Zobrist.currentTurnPlayer(currentTurnPlayer);
+        if (playersSkippedInARowDuringCardPhase != 0) {
+            key ^= Zobrist.playersSkipped(playersSkippedInARowDuringCardPhase);
+        }
+        return key;
+    }
+
+    /**
+     * Recalculates the part of the Zobrist key belonging to the cards on the hands of the players.
+     * Must be called after the lists returned by getCards() were modified directly (e.g. when filling in the cards of
+     * other players in a copy of the game), as such changes cannot be tracked incrementally.
+     */
+    public void recalculateHandsZobristKey() {
+        handsZobristKey = calculateHandsZobristKey();
+    }
+
+    /**
+     * Restores the parts of the state that cannot be set otherwise, used by HeimlichAndCoCodec. Recalculates the
+     * Zobrist key of the hands.
+     *
+     * @param phase               the phase
+     * @param currentTurnPlayer   the player whose turn it is
+     * @param numberOfHiddenCards the number of hidden cards of each player (see getNumberOfHiddenCards)
+     * @param playedCardsOfKind   the number of played cards of each kind (see getNumberOfPlayedCards)
+     */
+    void restoreState(HeimlichAndCoPhase phase, int currentTurnPlayer, int[] numberOfHiddenCards, int[] playedCardsOfKind) {
+        if (currentTurnPlayer < 0 || currentTurnPlayer >= numberOfPLayers) {
+            throw new IllegalArgumentException("Current turn player must be a valid player.");
+        }
+        this.phase = phase;
+        this.currentTurnPlayer = currentTurnPlayer;
+        System.arraycopy(numberOfHiddenCards, 0, this.numberOfHiddenCards, 0, this.numberOfHiddenCards.length);
+        System.arraycopy(playedCardsOfKind, 0, this.playedCardsOfKind, 0, this.playedCardsOfKind.length);
+        handsZobristKey = calculateHandsZobristKey();
     }
 
     /**
@@ -305,12 +749,13 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
      * Does a given action.
      *
      * @param heimlichAndCoAction - the action to take
-     * @return a new copy of the game with the action applied
+     * @return a new copy of the game with the action applied (which cannot be undone on the copy)
      */
     @Override
     public HeimlichAndCo doAction(HeimlichAndCoAction heimlichAndCoAction) {
         HeimlichAndCo newGame = new HeimlichAndCo(this, false);
-        newGame.applyAction(heimlichAndCoAction);
+        //the copy is new, so keeping a copy of its board to undo the action would only be garbage
+        newGame.applyAction(heimlichAndCoAction, false, true, false);
         return newGame;
     }
 
@@ -360,7 +805,7 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
             return -1;
         }
         if (!this.isGameOver()) {
-            return board.getScores().get(playersToAgentsMap.get(i));
+            return board.getScore(playersToAgentsMap.get(i));
         }
         Map<Agent, Integer> agentsToPlayersMap = new EnumMap<>(Agent.class);
         for(Map.Entry<Integer, Agent> entry : playersToAgentsMap.entrySet()) {
@@ -369,14 +814,14 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
 
         int maxScore = Integer.MIN_VALUE;
         for(Agent a : this.board.getAgents()) {
-            if (this.board.getScores().get(a) > maxScore) {
-                maxScore = this.board.getScores().get(a);
+            if (this.board.getScore(a) > maxScore) {
+                maxScore = this.board.getScore(a);
             }
         }
 
         List<Agent> winningAgents = new LinkedList<>();
         for(Agent a : this.board.getAgents()) {
-            if (this.board.getScores().get(a) == maxScore) {
+            if (this.board.getScore(a) == maxScore) {
                 winningAgents.add(a);
             }
         }
@@ -393,7 +838,7 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         }
 
         if (realNotDisqualifiedPlayerWon) {
-            return board.getScores().get(playersToAgentsMap.get(i));
+            return board.getScore(playersToAgentsMap.get(i));
         } else {
             return 0;
         }
@@ -409,10 +854,30 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
      */
     @Override
     public boolean isValidAction(HeimlichAndCoAction action) {
-        if (action == null) {
+        if (action == null || isGameOver()) {
             return false;
         }
-        return getPossibleActions().contains(action);
+        //same result as getPossibleActions().contains(action), but without calculating the possible actions
+        switch (phase) {
+            case DIE_ROLL_PHASE:
+                return action.getClass().equals(HeimlichAndCoDieRollAction.class)
+                        && ((HeimlichAndCoDieRollAction) action).isPossible(allowCustomDieRolls, board);
+            case AGENT_MOVE_PHASE:
+                return action.getClass().equals(HeimlichAndCoAgentMoveAction.class)
+                        && ((HeimlichAndCoAgentMoveAction) action).isPossible(board, withCards);
+            case CARD_PLAY_PHASE:
+                if (!action.getClass().equals(HeimlichAndCoCardAction.class)) {
+                    return false;
+                }
+                HeimlichAndCoCardAction cardAction = (HeimlichAndCoCardAction) action;
+                return cardAction.isSkipCardAction()
+                        || (cards.get(currentPlayer).contains(cardAction.getCard()) && cardAction.isPossible(board));
+            case SAFE_MOVE_PHASE:
+                return action.getClass().equals(HeimlichAndCoSafeMoveAction.class)
+                        && ((HeimlichAndCoSafeMoveAction) action).isPossible(board);
+            default:
+                throw new IllegalStateException(ILLEGAL_STATE_MESSAGE);
+        }
     }
 
     @Override
@@ -473,6 +938,7 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
      * cards belong to which player) are removed when getting a copy of the game from the engine. So the map may only
      * contain one entry for the current player.
      * However, these entries may be added afterwards to use the copy of the game for MCTS for example.
+     * Note: After modifying the map or the lists directly, recalculateHandsZobristKey() has to be called.
      *
      * @return Map mapping player(s) to cards
      */
@@ -562,6 +1028,7 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
     /**
      * Collects all possible actions for the given game state and returns them as a set.
      * If the game is over an empty set is returned.
+     * Note: The set may be shared (e.g. the precomputed agent move actions), therefore it must not be modified.
      *
      * @return a set of possible actions
      */
@@ -589,6 +1056,65 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         }
     }
 
+    /**
+     * Returns an iterator over the possible actions, i.e. over the same actions as getPossibleActions(), which
+     * calculates the actions only as far as it is advanced. Useful if only a few of the actions are needed (e.g. the
+     * first one or the first one passing a filter).
+     * Apart from the card play phase, the iterator runs over the shared precomputed actions, so only the iterator
+     * itself is allocated. The iterator must not be used after the game was changed and does not support remove().
+     *
+     * @return iterator over the possible actions (empty if the game is over)
+     */
+    public Iterator<HeimlichAndCoAction> getPossibleActionsIterator() {
+        if (isGameOver()) {
+            return Collections.emptyIterator();
+        }
+        switch (phase) {
+            case DIE_ROLL_PHASE:
+                return HeimlichAndCoDieRollAction.getPossibleActions(allowCustomDieRolls, board.getDieFaces()).iterator();
+            case AGENT_MOVE_PHASE:
+                return Collections.<HeimlichAndCoAction>unmodifiableList(
+                        HeimlichAndCoAgentMoveAction.getPossibleActionsList(board, withCards)).iterator();
+            case CARD_PLAY_PHASE:
+                return new PossibleCardActionsIterator(cards.get(currentPlayer), board);
+            case SAFE_MOVE_PHASE:
+                return HeimlichAndCoSafeMoveAction.getPossibleActions(board).iterator();
+            default:
+                throw new IllegalStateException(ILLEGAL_STATE_MESSAGE);
+        }
+    }
+
+    /**
+     * Returns the number of possible actions, i.e. the size of getPossibleActions(), without calculating the actions.
+     *
+     * @return the number of possible actions (0 if the game is over)
+     */
+    public int getNumberOfPossibleActions() {
+        if (isGameOver()) {
+            return 0;
+        }
+        switch (phase) {
+            case DIE_ROLL_PHASE:
+                return HeimlichAndCoDieRollAction.getPossibleActions(allowCustomDieRolls, board.getDieFaces()).size();
+            case AGENT_MOVE_PHASE:
+                return HeimlichAndCoAgentMoveAction.getPossibleActionsList(board, withCards).size();
+            case CARD_PLAY_PHASE:
+                List<HeimlichAndCoCard> playerCards = cards.get(currentPlayer);
+                int count = 1; //the skip action
+                for (int i = 0; i < playerCards.size(); i++) {
+                    HeimlichAndCoCard card = playerCards.get(i);
+                    if (playerCards.indexOf(card) == i) { //equal cards have the same actions
+                        count += card.getNumberOfPossibleActions(board);
+                    }
+                }
+                return count;
+            case SAFE_MOVE_PHASE:
+                return HeimlichAndCoSafeMoveAction.getPossibleActions(board).size();
+            default:
+                throw new IllegalStateException(ILLEGAL_STATE_MESSAGE);
+        }
+    }
+
     /**
      * @return the action record of the last taken action
      */
@@ -654,7 +1180,7 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         //therefore we can just shuffle all agents an assign them to the players
         List<Agent> shuffledAgents = Arrays.asList(this.board.getAgents());
         //there should be a different number of total agents and players (-> fake agents)
-        Collections.shuffle(shuffledAgents);
+        Collections.shuffle(shuffledAgents, random);
         for (int i = 0; i < numberOfPLayers; i++) {
             map.put(i, shuffledAgents.get(i));
         }
@@ -752,22 +1278,42 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
     /**
      * Handles assigning and removing cards after an action.
      *
-     * @param action            action taken
-     * @param boardBeforeAction state of the board before the action was applied
+     * @param action               action taken
+     * @param movesAgentsIntoRuins whether the action moved agents into the ruins (determined before it was applied)
+     * @param undoRecord           record in which drawn and played cards are noted for undoing the action (null if the
+     *                             history is not recorded)
      */
-    private void handleCardsAfterAction(HeimlichAndCoAction action, HeimlichAndCoBoard boardBeforeAction) {
+    private void handleCardsAfterAction(HeimlichAndCoAction action, boolean movesAgentsIntoRuins, UndoRecord undoRecord) {
         if (action.getClass().equals(HeimlichAndCoAgentMoveAction.class)) {
             HeimlichAndCoAgentMoveAction moveAction = (HeimlichAndCoAgentMoveAction) action;
             boolean playerCanReceiveCard = withCards && cards.get(currentPlayer).size() < 4 && !cardStack.isEmpty();
-            if (moveAction.movesAgentsIntoRuins(boardBeforeAction) && playerCanReceiveCard) { //check whether action moves agent into ruins and should therefore be awarded a card
-                cards.get(currentPlayer).add(cardStack.drawCard());
+            HeimlichAndCoCard drawnCard = null;
+            if (movesAgentsIntoRuins && playerCanReceiveCard) { //check whether action moves agent into ruins and should therefore be awarded a card
+                drawnCard = cardStack.drawCard();
+                addCardToHand(currentPlayer, cards.get(currentPlayer).size(), drawnCard);
             }
             if (moveAction.isNoMoveAction() && playerCanReceiveCard) { //special case where the player chose to draw a card instead of moving agents
-                cards.get(currentPlayer).add(cardStack.drawCard());
+                drawnCard = cardStack.drawCard();
+                addCardToHand(currentPlayer, cards.get(currentPlayer).size(), drawnCard);
+            }
+            if (undoRecord != null) {
+                undoRecord.drawnCard = drawnCard;
             }
         }
         if (action.getClass().equals(HeimlichAndCoCardAction.class)) { //need to remove card if one was played
-            ((HeimlichAndCoCardAction) action).removePlayedCardFromList(cards.get(currentPlayer));
+            HeimlichAndCoCard playedCard = ((HeimlichAndCoCardAction) action).getCard();
+            if (playedCard != null) {
+                List<HeimlichAndCoCard> playerCards = cards.get(currentPlayer);
+                int index = playerCards.indexOf(playedCard);
+                if (index >= 0) {
+                    HeimlichAndCoCard removedCard = removeCardFromHand(currentPlayer, index);
+                    playedCardsOfKind[removedCard.getKind()]++;
+                    if (undoRecord != null) {
+                        undoRecord.playedCard = removedCard;
+                        undoRecord.playedCardIndex = index;
+                    }
+                }
+            }
             if (((HeimlichAndCoCardAction) action).isSkipCardAction()) {
                 playersSkippedInARowDuringCardPhase++;
                 nextPlayer();
@@ -777,13 +1323,167 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         }
     }
 
+    /**
+     * Deals the cards that are unknown to the given player randomly to the other players and the card stack (see
+     * determinize).
+     *
+     * @param player the player from whose point of view the game is determinized
+     * @param random random number generator used for sampling
+     */
+    private void determinizeCards(int player, Random random) {
+        int[] unknownCardsOfKind = new int[HeimlichAndCoCard.NUMBER_OF_KINDS];
+        for (int kind = 0; kind < unknownCardsOfKind.length; kind++) {
+            unknownCardsOfKind[kind] = HeimlichAndCoCardStackFactory.getNumberOfCardsOfKind(kind) - playedCardsOfKind[kind];
+        }
+        List<HeimlichAndCoCard> ownCards = cards.computeIfAbsent(player, p -> new ArrayList<>());
+        for (HeimlichAndCoCard card : ownCards) {
+            unknownCardsOfKind[card.getKind()]--;
+        }
+        int numberOfUnknownCards = 0;
+        for (int count : unknownCardsOfKind) {
+            if (count < 0) {
+                throw new IllegalStateException("The cards of the game do not match the traditional card stack.");
+            }
+            numberOfUnknownCards += count;
+        }
+        int[] handSizes = new int[numberOfPLayers];
+        int numberOfSlots = cardStack == null ? 0 : cardStack.count();
+        for (int otherPlayer = 0; otherPlayer < numberOfPLayers; otherPlayer++) {
+            List<HeimlichAndCoCard> playerCards = cards.get(otherPlayer);
+            handSizes[otherPlayer] = numberOfHiddenCards[otherPlayer];
+            if (otherPlayer != player && playerCards != null) {
+                handSizes[otherPlayer] += playerCards.size();
+            }
+            numberOfSlots += handSizes[otherPlayer];
+        }
+        if (numberOfSlots != numberOfUnknownCards) {
+            throw new IllegalStateException("The number of hidden cards does not match the cards that were not played yet.");
+        }
+
+        HeimlichAndCoCard[] unknownCards = new HeimlichAndCoCard[numberOfUnknownCards];
+        int next = 0;
+        for (int kind = 0; kind < unknownCardsOfKind.length; kind++) {
+            for (int i = 0; i < unknownCardsOfKind[kind]; i++) {
+                unknownCards[next++] = HeimlichAndCoActionUniverse.getStandardCard(kind);
+            }
+        }
+        shuffle(unknownCards, unknownCards.length, random);
+        next = 0;
+        for (int otherPlayer = 0; otherPlayer < numberOfPLayers; otherPlayer++) {
+            List<HeimlichAndCoCard> playerCards = cards.computeIfAbsent(otherPlayer, p -> new ArrayList<>());
+            if (otherPlayer != player) {
+                playerCards.clear();
+            }
+            for (int i = 0; i < handSizes[otherPlayer]; i++) {
+                playerCards.add(unknownCards[next++]);
+            }
+            numberOfHiddenCards[otherPlayer] = 0;
+        }
+        List<HeimlichAndCoCard> stackCards = new ArrayList<>(unknownCards.length - next);
+        while (next < unknownCards.length) {
+            stackCards.add(unknownCards[next++]);
+        }
+        if (cardStack == null) {
+            cardStack = new CardStack<>(stackCards);
+        } else {
+            copyCards(stackCards, cardStack.getCards());
+        }
+        handsZobristKey = calculateHandsZobristKey();
+    }
+
+    /**
+     * Shuffles the first elements of the given array (Fisher-Yates).
+     *
+     * @param array  the array
+     * @param length number of elements at the start of the array that are shuffled
+     * @param random random number generator
+     */
+    private static <T> void shuffle(T[] array, int length, Random random) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    /**
+     * Adds a card to the hand of a player and updates the Zobrist key of the hands.
+     *
+     * @param player player receiving the card
+     * @param index  position in the hand where the card is inserted
+     * @param card   the card
+     */
+    private void addCardToHand(int player, int index, HeimlichAndCoCard card) {
+        List<HeimlichAndCoCard> playerCards = cards.get(player);
+        handsZobristKey ^= Zobrist.card(player, card.getKind(), countCardsOfKind(playerCards, card.getKind()));
+        playerCards.add(index, card);
+    }
+
+    /**
+     * Removes a card from the hand of a player and updates the Zobrist key of the hands.
+     *
+     * @param player player losing the card
+     * @param index  position of the card in the hand
+     * @return the removed card
+     */
+    private HeimlichAndCoCard removeCardFromHand(int player, int index) {
+        List<HeimlichAndCoCard> playerCards = cards.get(player);
+        HeimlichAndCoCard card = playerCards.remove(index);
+        handsZobristKey ^= Zobrist.card(player, card.getKind(), countCardsOfKind(playerCards, card.getKind()));
+        return card;
+    }
+
+    /**
+     * Calculates the Zobrist key of the cards on the hands of all players from scratch.
+     *
+     * @return Zobrist key of the hands (0 if played without cards)
+     */
+    private long calculateHandsZobristKey() {
+        long key = 0;
+        if (cards == null) {
+            return key;
+        }
+        for (Map.Entry<Integer, List<HeimlichAndCoCard>> entry : cards.entrySet()) {
+            int[] occurrences = new int[HeimlichAndCoCard.NUMBER_OF_KINDS];
+            for (HeimlichAndCoCard card : entry.getValue()) {
+                key ^= Zobrist.card(entry.getKey(), card.getKind(), occurrences[card.getKind()]++);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Replaces the cards of the target list with the cards of the source list, without allocating for array lists with
+     * enough capacity.
+     *
+     * @param source cards to copy
+     * @param target list the cards are copied into
+     */
+    private static void copyCards(List<HeimlichAndCoCard> source, List<HeimlichAndCoCard> target) {
+        target.clear();
+        for (HeimlichAndCoCard card : source) {
+            target.add(card);
+        }
+    }
+
+    private static int countCardsOfKind(List<HeimlichAndCoCard> playerCards, int kind) {
+        int count = 0;
+        for (HeimlichAndCoCard card : playerCards) {
+            if (card.getKind() == kind) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Sets the currentPlayer to the next player.
      * Extra method for this to be able to easier control the changing of it.
      */
     private void nextPlayer() {
         currentPlayer = (currentPlayer + 1) % this.numberOfPLayers;
-        if (disqualifiedPlayers.contains(currentPlayer)) {
+        if (!disqualifiedPlayers.isEmpty() && disqualifiedPlayers.contains(currentPlayer)) {
             nextPlayer();
         }
     }
@@ -797,4 +1497,77 @@ public class HeimlichAndCo implements Game<HeimlichAndCoAction, HeimlichAndCoBoa
         currentTurnPlayer = currentPlayer;
         playersSkippedInARowDuringCardPhase = 0;
     }
+
+    /**
+     * Iterates over the possible actions in the card play phase: the actions of each card on the hand (equal cards
+     * only once), followed by the skip action. The actions of a card are only calculated when the iterator reaches it.
+     */
+    private static final class PossibleCardActionsIterator implements Iterator<HeimlichAndCoAction> {
+        private final List<HeimlichAndCoCard> playerCards;
+        private final HeimlichAndCoBoard board;
+        /**
+         * Index of the next card whose actions are iterated.
+         */
+        private int nextCardIndex;
+        private Iterator<HeimlichAndCoCardAction> cardActions = Collections.emptyIterator();
+        private boolean skipActionReturned;
+
+        private PossibleCardActionsIterator(List<HeimlichAndCoCard> playerCards, HeimlichAndCoBoard board) {
+            this.playerCards = playerCards;
+            this.board = board;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!cardActions.hasNext() && nextCardIndex < playerCards.size()) {
+                HeimlichAndCoCard card = playerCards.get(nextCardIndex);
+                if (playerCards.indexOf(card) == nextCardIndex) { //equal cards have the same actions
+                    cardActions = card.getPossibleActionsIterator(board);
+                }
+                nextCardIndex++;
+            }
+            return cardActions.hasNext() || !skipActionReturned;
+        }
+
+        @Override
+        public HeimlichAndCoAction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (cardActions.hasNext()) {
+                return cardActions.next();
+            }
+            skipActionReturned = true;
+            return HeimlichAndCoCardAction.getSkipCardAction();
+        }
+    }
+
+    /**
+     * Compact record of the state of a game before an action was applied, used to undo the action.
+     * Cards are not copied, only the card that was drawn and the card that was played (if any) are noted.
+     */
+    private static final class UndoRecord {
+        private final HeimlichAndCoBoard board;
+        private final HeimlichAndCoPhase phase;
+        private final int currentPlayer;
+        private final int currentTurnPlayer;
+        private final int playersSkippedInARowDuringCardPhase;
+        /**
+         * The card the current player drew from the card stack because of the action (null if none was drawn).
+         */
+        private HeimlichAndCoCard drawnCard;
+        /**
+         * The card the current player played with the action (null if none was played) and where it was in the hand.
+         */
+        private HeimlichAndCoCard playedCard;
+        private int playedCardIndex;
+
+        private UndoRecord(HeimlichAndCo game) {
+            this.board = new HeimlichAndCoBoard(game.board);
+            this.phase = game.phase;
+            this.currentPlayer = game.currentPlayer;
+            this.currentTurnPlayer = game.currentTurnPlayer;
+            this.playersSkippedInARowDuringCardPhase = game.playersSkippedInARowDuringCardPhase;
+        }
+    }
 }
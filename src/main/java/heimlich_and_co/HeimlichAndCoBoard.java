@@ -2,9 +2,21 @@ package heimlich_and_co;
 
 import heimlich_and_co.enums.Agent;
 import heimlich_and_co.util.Die;
+import heimlich_and_co.util.Zobrist;
 
 import java.util.*;
 
+/**
+ * The board of a Heimlich and Co game.
+ * <p>
+ * Internally, the state of the board is kept in primitives only: the positions of all agents are packed into a single
+ * long (4 bits per agent, indexed by the ordinal of the agent), the scores are kept in an int array (indexed by the
+ * ordinal of the agent) and the flags whether scoring was triggered for an agent are kept in a bitmask. Therefore,
+ * copying a board and moving agents does not allocate or unbox. The Map-returning getters are views on this state.
+ * <p>
+ * Additionally, a Zobrist key of the state is maintained incrementally by every method that changes the state (see
+ * getZobristKey()).
+ */
 public class HeimlichAndCoBoard {
 
     /**
@@ -17,29 +29,65 @@ public class HeimlichAndCoBoard {
      */
     private static final int RUINS_FIELD = 11;
 
+    /**
+     * All agents that exist (independent of whether they are playing or not), cached to avoid copying Agent.values().
+     */
+    private static final Agent[] ALL_AGENTS = Agent.values();
+
+    /**
+     * The number of bits used to store the position of a single agent in the packed positions.
+     */
+    private static final int BITS_PER_POSITION = 4;
+
+    private static final long POSITION_MASK = (1L << BITS_PER_POSITION) - 1;
+    /**
+     * Number of bits of the bitmask of the agents on a field in the occupancy words (one per agent, padded to a byte).
+     */
+    private static final int BITS_PER_FIELD = 8;
+    private static final int FIELDS_PER_LONG = Long.SIZE / BITS_PER_FIELD;
+
     /**
      * saves which agents are in play.
      */
     private final Agent[] agents;
+    /**
+     * Bitmask of the agents that are in play, bit i is set if the agent with ordinal i is playing.
+     */
+    private final int agentsMask;
     private final Die die;
     /**
-     * saves the positions of each agent.
+     * Random number generator used for rolling the die (if null, the die uses the generator of the current thread).
+     * Usually the generator of the game the board belongs to.
+     */
+    private Random random;
+    /**
+     * saves the positions of each agent, packed into 4 bits per agent (indexed by the ordinal of the agent).
      */
-    private Map<Agent, Integer> agentsPositions; //must have an entry for all playing agents
+    private long packedPositions;
     /**
-     * saves the current points of each agent.
+     * Bitmasks of the agents on each field (bit i for the agent with ordinal i), 8 bits per field: fields 0 to 7 in
+     * occupancyLow, fields 8 to 11 in occupancyHigh. Updated together with packedPositions.
      */
-    private Map<Agent, Integer> scores; //must have an entry for all playing agents
+    private long occupancyLow;
+    private int occupancyHigh;
+    /**
+     * saves the current points of each agent (indexed by the ordinal of the agent, non-playing agents stay at 0).
+     */
+    private final int[] scores;
     private int safePosition;
     /**
      * saves the last result of a die roll.
      */
     private int lastDieRoll;
     /**
-     * Saves at any point in time whether scoring was triggered for an agent or not.
+     * Saves at any point in time whether scoring was triggered for an agent or not (bit i for the agent with ordinal i).
      * will become true for an agent when it is moved onto the safe and will become false for an agent when it is moved off the safe or the safe is moved
      */
-    private Map<Agent, Boolean> scoringTriggeredForAgent;
+    private int scoringTriggeredMask;
+    /**
+     * Zobrist key of the state of the board, updated whenever the state changes.
+     */
+    private long zobristKey;
 
     //region constructors
 
@@ -69,11 +117,12 @@ public class HeimlichAndCoBoard {
             throw new IllegalArgumentException("Invalid amount of playing agents, must be between 5 and 7");
         }
         this.agents = Arrays.copyOf(agents, agents.length);
-        this.agentsPositions = getAgentMapWithZeros(agents);
-        this.scores = getAgentMapWithZeros(agents);
+        this.agentsMask = getAgentsMask(this.agents);
+        this.scores = new int[ALL_AGENTS.length];
+        this.occupancyLow = agentsMask; //all agents start on field 0
         this.safePosition = 7; //the default starting position for the safe
         this.die = new Die();
-        scoringTriggeredForAgent = getNewScoringTriggeredForAgentMap();
+        this.zobristKey = calculateZobristKey();
     }
 
     /**
@@ -90,35 +139,153 @@ public class HeimlichAndCoBoard {
             throw new IllegalArgumentException("Invalid amount of playing agents, must be between 5 and 7");
         }
         this.agents = agentsPositions.keySet().toArray(new Agent[0]);
-        this.agentsPositions = new EnumMap<>(agentsPositions);
+        this.agentsMask = getAgentsMask(this.agents);
+        this.scores = new int[ALL_AGENTS.length];
+        this.occupancyLow = agentsMask;
+        for (Map.Entry<Agent, Integer> entry : agentsPositions.entrySet()) {
+            if (entry.getValue() < 0 || entry.getValue() >= NUMBER_OF_FIELDS) {
+                throw new IllegalArgumentException("Invalid position for agent " + entry.getKey() + ": " + entry.getValue());
+            }
+            setPosition(entry.getKey().ordinal(), entry.getValue());
+        }
         if (scores != null && scores.size() != 0) {
             if (!agentsPositions.keySet().equals(scores.keySet())) {
                 throw new IllegalArgumentException("Scores and agentsPositions must have the same key set");
             }
-            this.scores = new EnumMap<>(scores);
+            for (Map.Entry<Agent, Integer> entry : scores.entrySet()) {
+                this.scores[entry.getKey().ordinal()] = entry.getValue();
+            }
         }
         this.safePosition = 7;
         this.die = new Die();
-        scoringTriggeredForAgent = getNewScoringTriggeredForAgentMap();
+        this.zobristKey = calculateZobristKey();
     }
 
     /**
      * Creates a deep copy of the board.
+     * As all state is kept in primitives, this only copies a few words (and the small scores array).
      *
      * @param board board to copy
      */
     public HeimlichAndCoBoard(HeimlichAndCoBoard board) {
-        this(board.agents);
+        this.agents = board.agents; //never modified after construction, therefore it can be shared
+        this.agentsMask = board.agentsMask;
+        this.die = board.die; //the die does not hold any state of the board
+        this.random = board.random;
         this.lastDieRoll = board.lastDieRoll;
         this.safePosition = board.safePosition;
-        this.agentsPositions = new EnumMap<>(board.agentsPositions);
-        this.scores = new EnumMap<>(board.scores);
-        System.arraycopy(board.agents, 0, this.agents, 0, board.agents.length);
-        this.scoringTriggeredForAgent = new EnumMap<>(board.scoringTriggeredForAgent);
+        this.packedPositions = board.packedPositions;
+        this.occupancyLow = board.occupancyLow;
+        this.occupancyHigh = board.occupancyHigh;
+        this.scores = Arrays.copyOf(board.scores, board.scores.length);
+        this.scoringTriggeredMask = board.scoringTriggeredMask;
+        this.zobristKey = board.zobristKey;
     }
 
     //endregion
 
+    /**
+     * Overwrites the state of this board (positions, scores, safe, die roll and scoring flags) with the state of the
+     * given board. Does not allocate. Both boards must be played with the same agents.
+     *
+     * @param board board whose state should be copied into this board
+     */
+    public void copyStateFrom(HeimlichAndCoBoard board) {
+        if (board.agentsMask != this.agentsMask) {
+            throw new IllegalArgumentException("Both boards must be played with the same agents.");
+        }
+        this.lastDieRoll = board.lastDieRoll;
+        this.safePosition = board.safePosition;
+        this.packedPositions = board.packedPositions;
+        this.occupancyLow = board.occupancyLow;
+        this.occupancyHigh = board.occupancyHigh;
+        System.arraycopy(board.scores, 0, this.scores, 0, this.scores.length);
+        this.scoringTriggeredMask = board.scoringTriggeredMask;
+        this.zobristKey = board.zobristKey;
+    }
+
+    /**
+     * Returns the positions of all agents packed into 4 bits per agent (indexed by the ordinal of the agent), used by
+     * HeimlichAndCoCodec.
+     */
+    long getPackedPositions() {
+        return packedPositions;
+    }
+
+    /**
+     * Returns the bitmask of the agents for which scoring was triggered, used by HeimlichAndCoCodec.
+     */
+    int getScoringTriggeredMask() {
+        return scoringTriggeredMask;
+    }
+
+    /**
+     * Overwrites the positions, the safe, the die roll and the scoring flags of this board, used by HeimlichAndCoCodec.
+     * The scores are set with setScore.
+     *
+     * @param packedPositions      positions packed like getPackedPositions (only the positions of playing agents)
+     * @param safePosition         position of the safe
+     * @param lastDieRoll          result of the last die roll
+     * @param scoringTriggeredMask bitmask of the (playing) agents for which scoring was triggered
+     * @throws IllegalArgumentException if a position is not a field of the board or an agent is not playing
+     */
+    void setState(long packedPositions, int safePosition, int lastDieRoll, int scoringTriggeredMask) {
+        long agentsPositionsMask = 0;
+        for (int ordinal = 0; ordinal < ALL_AGENTS.length; ordinal++) {
+            long position = (packedPositions >>> (ordinal * BITS_PER_POSITION)) & POSITION_MASK;
+            if ((agentsMask & (1 << ordinal)) != 0) {
+                agentsPositionsMask |= POSITION_MASK << (ordinal * BITS_PER_POSITION);
+                if (position >= NUMBER_OF_FIELDS) {
+                    throw new IllegalArgumentException("Invalid position of an agent: " + position);
+                }
+            }
+        }
+        if ((packedPositions & ~agentsPositionsMask) != 0 || (scoringTriggeredMask & ~agentsMask) != 0) {
+            throw new IllegalArgumentException("Only playing agents can have a position or trigger scoring.");
+        }
+        if (safePosition < 0 || safePosition >= NUMBER_OF_FIELDS) {
+            throw new IllegalArgumentException("Invalid buildingId.");
+        }
+        this.packedPositions = packedPositions;
+        this.occupancyLow = 0;
+        this.occupancyHigh = 0;
+        for (Agent a : agents) {
+            toggleOccupancy(getPosition(a.ordinal()), a.ordinal());
+        }
+        this.safePosition = safePosition;
+        this.lastDieRoll = lastDieRoll;
+        this.scoringTriggeredMask = scoringTriggeredMask;
+        this.zobristKey = calculateZobristKey();
+    }
+
+    /**
+     * Returns the Zobrist key of the current state of the board (positions, scores, safe, last die roll and scoring
+     * flags). The key is maintained incrementally, i.e. calling this method is cheap.
+     *
+     * @return 64-bit Zobrist key of the board
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Calculates the Zobrist key of the current state of the board from scratch. Always equals getZobristKey(), mainly
+     * useful for checking the incrementally maintained key.
+     *
+     * @return 64-bit Zobrist key of the board
+     */
+    public long calculateZobristKey() {
+        long key = Zobrist.safe(safePosition) ^ Zobrist.dieRoll(lastDieRoll);
+        for (Agent a : agents) {
+            int ordinal = a.ordinal();
+            key ^= Zobrist.position(ordinal, getPosition(ordinal)) ^ Zobrist.score(ordinal, scores[ordinal]);
+            if ((scoringTriggeredMask & (1 << ordinal)) != 0) {
+                key ^= Zobrist.scoringTriggered(ordinal);
+            }
+        }
+        return key;
+    }
+
     public static int getRuinsField() {
         return RUINS_FIELD;
     }
@@ -131,28 +298,52 @@ public class HeimlichAndCoBoard {
     public Map<Integer, Agent[]> agentsOnFields() {
         Map<Integer, Agent[]> agentsMap = new HashMap<>();
         for (int i = 0; i < NUMBER_OF_FIELDS; i++) {
-            List<Agent> agentsOnField = new LinkedList<>();
-            for (Agent a : this.agents) {
-                if (agentsPositions.get(a) == i) {
-                    agentsOnField.add(a);
-                }
+            Agent[] agentsOnField = new Agent[getNumberOfAgentsOnField(i)];
+            int count = 0;
+            for (int remaining = getAgentsOnFieldMask(i); remaining != 0; remaining &= remaining - 1) {
+                agentsOnField[count++] = ALL_AGENTS[Integer.numberOfTrailingZeros(remaining)];
             }
-            agentsMap.put(i, agentsOnField.toArray(new Agent[0]));
+            agentsMap.put(i, agentsOnField);
         }
         return agentsMap;
     }
 
+    /**
+     * Returns the agents on the given field as a bitmask, bit i is set if the agent with ordinal i is on the field.
+     * The bitmask is maintained incrementally, i.e. calling this method is cheap and does not allocate.
+     *
+     * @param fieldId the field
+     * @return bitmask of the agents on the field
+     */
+    public int getAgentsOnFieldMask(int fieldId) {
+        if (fieldId < 0 || fieldId >= NUMBER_OF_FIELDS) {
+            throw new IllegalArgumentException("Illegal fieldId, either too large or too small: FieldId is " + fieldId);
+        }
+        if (fieldId < FIELDS_PER_LONG) {
+            return (int) (occupancyLow >>> (fieldId * BITS_PER_FIELD)) & 0xFF;
+        }
+        return (occupancyHigh >>> ((fieldId - FIELDS_PER_LONG) * BITS_PER_FIELD)) & 0xFF;
+    }
+
+    /**
+     * Returns the number of agents on the given field.
+     *
+     * @param fieldId the field
+     * @return number of agents on the field
+     */
+    public int getNumberOfAgentsOnField(int fieldId) {
+        return Integer.bitCount(getAgentsOnFieldMask(fieldId));
+    }
+
     /**
      * Awards all playings agents points according to their position on the board.
      */
     public void awardPoints() {
         for (Agent a : this.agents) {
-            int fieldId = agentsPositions.get(a);
-            int awardedPoints = getPointsForField(fieldId);
-            int oldPoints = scores.get(a);
-            scores.replace(a, awardedPoints + oldPoints);
+            int ordinal = a.ordinal();
+            setScoreValue(ordinal, scores[ordinal] + getPointsForField(getPosition(ordinal)));
         }
-        scoringTriggeredForAgent = getNewScoringTriggeredForAgentMap();
+        clearScoringTriggered();
     }
 
     /**
@@ -179,13 +370,14 @@ public class HeimlichAndCoBoard {
      * @param numberOfFields Number of fields the agent should be moved
      */
     public void moveAgent(Agent a, int numberOfFields) {
-        if (agentsPositions.get(a) == safePosition && numberOfFields % HeimlichAndCoBoard.NUMBER_OF_FIELDS != 0) {
-            scoringTriggeredForAgent.put(a, false);
+        int ordinal = playingOrdinal(a);
+        if (getPosition(ordinal) == safePosition && numberOfFields % HeimlichAndCoBoard.NUMBER_OF_FIELDS != 0) {
+            setScoringTriggered(ordinal, false);
         }
 
-        agentsPositions.replace(a, (agentsPositions.get(a) + numberOfFields + HeimlichAndCoBoard.NUMBER_OF_FIELDS) % HeimlichAndCoBoard.NUMBER_OF_FIELDS); // +NUMBER_OF_FIELDS to deal with cases where the new position would be negative
-        if (agentsPositions.get(a) == safePosition && numberOfFields % HeimlichAndCoBoard.NUMBER_OF_FIELDS != 0) {
-            scoringTriggeredForAgent.put(a, true);
+        setPosition(ordinal, (getPosition(ordinal) + numberOfFields + HeimlichAndCoBoard.NUMBER_OF_FIELDS) % HeimlichAndCoBoard.NUMBER_OF_FIELDS); // +NUMBER_OF_FIELDS to deal with cases where the new position would be negative
+        if (getPosition(ordinal) == safePosition && numberOfFields % HeimlichAndCoBoard.NUMBER_OF_FIELDS != 0) {
+            setScoringTriggered(ordinal, true);
         }
     }
 
@@ -199,12 +391,13 @@ public class HeimlichAndCoBoard {
         if (buildingId < 0 || buildingId >= NUMBER_OF_FIELDS) {
             throw new IllegalArgumentException("Invalid buildingId.");
         }
-        if (agentsPositions.get(a) == safePosition && buildingId != agentsPositions.get(a)) {
-            scoringTriggeredForAgent.put(a, false);
+        int ordinal = playingOrdinal(a);
+        if (getPosition(ordinal) == safePosition && buildingId != getPosition(ordinal)) {
+            setScoringTriggered(ordinal, false);
         }
-        agentsPositions.replace(a, buildingId);
-        if (agentsPositions.get(a) == safePosition && buildingId != agentsPositions.get(a)) {
-            scoringTriggeredForAgent.put(a, true);
+        setPosition(ordinal, buildingId);
+        if (getPosition(ordinal) == safePosition && buildingId != getPosition(ordinal)) {
+            setScoringTriggered(ordinal, true);
         }
     }
 
@@ -228,7 +421,8 @@ public class HeimlichAndCoBoard {
         if (buildingId < 0 || buildingId >= NUMBER_OF_FIELDS) {
             throw new IllegalArgumentException("Invalid buildingId.");
         }
-        scoringTriggeredForAgent = getNewScoringTriggeredForAgentMap(); //this will always be reset when the safe is moved
+        clearScoringTriggered(); //this will always be reset when the safe is moved
+        zobristKey ^= Zobrist.safe(safePosition) ^ Zobrist.safe(buildingId);
         safePosition = buildingId;
     }
 
@@ -236,7 +430,21 @@ public class HeimlichAndCoBoard {
      * Rolls the die and therefore sets the result of the last die roll.
      */
     public void rollDie() {
-        this.lastDieRoll = die.roll();
+        setLastDieRoll(random == null ? die.roll() : die.roll(random));
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the random number generator used for rolling the die. Copies of the board share the generator until another
+     * one is set (HeimlichAndCo sets the generator of the game on its board).
+     *
+     * @param random random number generator, or null to use the generator of the current thread
+     */
+    public void setRandom(Random random) {
+        this.random = random;
     }
 
     /**
@@ -245,12 +453,7 @@ public class HeimlichAndCoBoard {
      * @return whether scoring was triggered
      */
     public boolean scoringTriggered() {
-        for (Map.Entry<Agent, Boolean> entry : scoringTriggeredForAgent.entrySet()) {
-            if (Boolean.TRUE.equals(entry.getValue())) {
-                return true;
-            }
-        }
-        return false;
+        return scoringTriggeredMask != 0;
     }
 
     @Override
@@ -402,7 +605,7 @@ public class HeimlichAndCoBoard {
         //printing the points for each agent
         stringBuilder.append("Points:\n");
         for (Agent a : agents) {
-            stringBuilder.append(a.toString()).append(": ").append(scores.get(a)).append("\n");
+            stringBuilder.append(a.toString()).append(": ").append(scores[a.ordinal()]).append("\n");
         }
         if (lastDieRoll != 0) {
             stringBuilder.append("Last die roll: ").append(lastDieRoll).append("\n");
@@ -417,13 +620,53 @@ public class HeimlichAndCoBoard {
         return Arrays.copyOf(agents, agents.length);
     }
 
+    /**
+     * Returns the number of agents playing on the board. Unlike getAgents() this does not copy anything.
+     */
+    public int getNumberOfAgents() {
+        return agents.length;
+    }
+
+    /**
+     * Returns the bitmask of the agents playing on the board, bit i is set if the agent with ordinal i is playing.
+     */
+    public int getAgentsMask() {
+        return agentsMask;
+    }
+
+    /**
+     * Returns whether the given agent is playing on this board.
+     *
+     * @param a agent in question
+     * @return whether a is one of the playing agents
+     */
+    public boolean isPlaying(Agent a) {
+        return a != null && (agentsMask & (1 << a.ordinal())) != 0;
+    }
+
     /**
      * Returns a map containing the position for each agent. Unmodifiable as agents should only be moved with the given board methods.
+     * The map is a view, i.e. it reflects later changes of the board.
      *
      * @return unmodifiableMap of the agents positions
      */
     public Map<Agent, Integer> getAgentsPositions() {
-        return Collections.unmodifiableMap(agentsPositions);
+        return new AgentMapView<Integer>() {
+            @Override
+            Integer valueOf(int ordinal) {
+                return getPosition(ordinal);
+            }
+        };
+    }
+
+    /**
+     * Returns the position of a single agent without creating a view of all positions.
+     *
+     * @param a playing agent
+     * @return the field/building the agent is currently on
+     */
+    public int getAgentPosition(Agent a) {
+        return getPosition(playingOrdinal(a));
     }
 
     /**
@@ -448,22 +691,10 @@ public class HeimlichAndCoBoard {
      * @param lastDieRoll the desired simulated outcome of the die roll
      */
     public void setLastDieRoll(int lastDieRoll) {
+        zobristKey ^= Zobrist.dieRoll(this.lastDieRoll) ^ Zobrist.dieRoll(lastDieRoll);
         this.lastDieRoll = lastDieRoll;
     }
 
-    /**
-     * Helper method to get a new Map<Agent, Boolean> with false entries for each playing agent
-     *
-     * @return method with an entry for each playing agent with value false
-     */
-    private Map<Agent, Boolean> getNewScoringTriggeredForAgentMap() {
-        Map<Agent, Boolean> map = new EnumMap<>(Agent.class);
-        for (Agent a : agents) {
-            map.put(a, false);
-        }
-        return map;
-    }
-
     /**
      * Returns the number of fields/buildings on the board.
      */
@@ -476,23 +707,63 @@ public class HeimlichAndCoBoard {
     }
 
     /**
-     * Returns a Map depicting the scores of the playing agents
+     * Returns a Map depicting the scores of the playing agents.
+     * The map is a view which writes through to the board, i.e. changing the score of an agent in the map changes the
+     * score on the board. Agents that are not playing cannot be added.
      *
      * @return Map containing the current scores for each agent
      */
     public Map<Agent, Integer> getScores() {
-        return scores;
+        return new AgentMapView<Integer>() {
+            @Override
+            Integer valueOf(int ordinal) {
+                return scores[ordinal];
+            }
+
+            @Override
+            Integer update(int ordinal, Integer value) {
+                int oldScore = scores[ordinal];
+                setScoreValue(ordinal, value);
+                return oldScore;
+            }
+        };
+    }
+
+    /**
+     * Returns the score of a single agent without creating a view of all scores.
+     *
+     * @param a playing agent
+     * @return the current score of the agent
+     */
+    public int getScore(Agent a) {
+        return scores[playingOrdinal(a)];
+    }
+
+    /**
+     * Sets the score of a single agent.
+     *
+     * @param a     playing agent
+     * @param score the new score of the agent
+     */
+    public void setScore(Agent a, int score) {
+        setScoreValue(playingOrdinal(a), score);
     }
 
     /**
      * Returns a map which indicates if scoring was triggered in the current round for a player. This can be
      * interpreted that if after moving an agent or after the top-secret round there is a true value for ANY agent,
      * then scoring is triggered.
+     * The map is an unmodifiable view, i.e. it reflects later changes of the board.
      *
      * @return Map with an entry for each agent.
      */
     public Map<Agent, Boolean> getScoringTriggeredForAgent() {
-        return scoringTriggeredForAgent;
+        return new AgentMapView<Boolean>() {
+            @Override
+            Boolean valueOf(int ordinal) {
+                return (scoringTriggeredMask & (1 << ordinal)) != 0;
+            }
+        };
     }
 
     /**
@@ -501,8 +772,8 @@ public class HeimlichAndCoBoard {
      * @return whether game is over
      */
     public boolean isGameOver() {
-        for (Agent a : agents) {
-            if (scores.get(a) >= 42) {
+        for (int score : scores) { //non-playing agents always have a score of 0
+            if (score >= 42) {
                 return true;
             }
         }
@@ -510,17 +781,106 @@ public class HeimlichAndCoBoard {
     }
 
     /**
-     * Creates a map with the given agents with entries of value 0.
+     * Returns the position stored for the agent with the given ordinal.
+     *
+     * @param ordinal ordinal of the agent
+     * @return position of the agent
+     */
+    private int getPosition(int ordinal) {
+        return (int) ((packedPositions >>> (ordinal * BITS_PER_POSITION)) & POSITION_MASK);
+    }
+
+    /**
+     * Stores the position for the agent with the given ordinal.
+     *
+     * @param ordinal  ordinal of the agent
+     * @param position new position of the agent (must fit into 4 bits)
+     */
+    private void setPosition(int ordinal, int position) {
+        int shift = ordinal * BITS_PER_POSITION;
+        int oldPosition = getPosition(ordinal);
+        zobristKey ^= Zobrist.position(ordinal, oldPosition) ^ Zobrist.position(ordinal, position);
+        packedPositions = (packedPositions & ~(POSITION_MASK << shift)) | ((long) position << shift);
+        toggleOccupancy(oldPosition, ordinal);
+        toggleOccupancy(position, ordinal);
+    }
+
+    /**
+     * Flips the bit of the agent with the given ordinal in the bitmask of the agents on the given field.
+     *
+     * @param fieldId the field
+     * @param ordinal ordinal of the agent
+     */
+    private void toggleOccupancy(int fieldId, int ordinal) {
+        if (fieldId < FIELDS_PER_LONG) {
+            occupancyLow ^= 1L << (fieldId * BITS_PER_FIELD + ordinal);
+        } else {
+            occupancyHigh ^= 1 << ((fieldId - FIELDS_PER_LONG) * BITS_PER_FIELD + ordinal);
+        }
+    }
+
+    /**
+     * Stores the score for the agent with the given ordinal.
+     *
+     * @param ordinal ordinal of the agent
+     * @param score   new score of the agent
+     */
+    private void setScoreValue(int ordinal, int score) {
+        zobristKey ^= Zobrist.score(ordinal, scores[ordinal]) ^ Zobrist.score(ordinal, score);
+        scores[ordinal] = score;
+    }
+
+    /**
+     * Sets whether scoring was triggered for the agent with the given ordinal.
+     *
+     * @param ordinal   ordinal of the agent
+     * @param triggered whether scoring was triggered
+     */
+    private void setScoringTriggered(int ordinal, boolean triggered) {
+        int bit = 1 << ordinal;
+        if (((scoringTriggeredMask & bit) != 0) != triggered) {
+            zobristKey ^= Zobrist.scoringTriggered(ordinal);
+            scoringTriggeredMask ^= bit;
+        }
+    }
+
+    /**
+     * Resets the scoring flags of all agents.
+     */
+    private void clearScoringTriggered() {
+        while (scoringTriggeredMask != 0) {
+            int ordinal = Integer.numberOfTrailingZeros(scoringTriggeredMask);
+            zobristKey ^= Zobrist.scoringTriggered(ordinal);
+            scoringTriggeredMask &= scoringTriggeredMask - 1;
+        }
+    }
+
+    /**
+     * Returns the ordinal of the given agent and checks that it is playing on this board.
+     *
+     * @param a agent
+     * @return the ordinal of the agent
+     * @throws IllegalArgumentException if the agent is not playing
+     */
+    private int playingOrdinal(Agent a) {
+        if (!isPlaying(a)) {
+            throw new IllegalArgumentException("The given agent is not playing: " + a);
+        }
+        return a.ordinal();
+    }
+
+    /**
+     * Creates the bitmask of the given agents.
      *
      * @param agents array of agents
-     * @return Map with an entry of 0 for each agent
+     * @return bitmask with bit i set for the agent with ordinal i
      */
-    private Map<Agent, Integer> getAgentMapWithZeros(Agent[] agents) {
-        Map<Agent, Integer> map = new EnumMap<>(Agent.class);
+    private static int getAgentsMask(Agent[] agents) {
+        int mask = 0;
         for (Agent a : agents) {
-            map.put(a, 0);
+            mask |= 1 << a.ordinal();
         }
-        return map;
+        return mask;
     }
 
     /**
@@ -538,5 +898,123 @@ public class HeimlichAndCoBoard {
         System.arraycopy(totalAgents, 0, participatingAgents, 0, number);
         return participatingAgents;
     }
-}
 
+    /**
+     * A Map view on a per-agent value of this board. Contains an entry for each playing agent (in the order of the
+     * ordinals, just like an EnumMap). Unmodifiable unless update is overridden.
+     *
+     * @param <V> type of the values
+     */
+    private abstract class AgentMapView<V> extends AbstractMap<Agent, V> {
+
+        /**
+         * Returns the current value for the agent with the given ordinal.
+         */
+        abstract V valueOf(int ordinal);
+
+        /**
+         * Sets the value for the agent with the given ordinal and returns the old value.
+         */
+        V update(int ordinal, V value) {
+            throw new UnsupportedOperationException("This map cannot be modified.");
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Agent && isPlaying((Agent) key);
+        }
+
+        @Override
+        public V get(Object key) {
+            if (!containsKey(key)) {
+                return null;
+            }
+            return valueOf(((Agent) key).ordinal());
+        }
+
+        @Override
+        public V put(Agent key, V value) {
+            if (!containsKey(key)) {
+                throw new IllegalArgumentException("Only playing agents can be contained in this map.");
+            }
+            return update(key.ordinal(), value);
+        }
+
+        @Override
+        public int size() {
+            return agents.length;
+        }
+
+        @Override
+        public Set<Entry<Agent, V>> entrySet() {
+            return new AbstractSet<Entry<Agent, V>>() {
+                @Override
+                public Iterator<Entry<Agent, V>> iterator() {
+                    return new Iterator<Entry<Agent, V>>() {
+                        private int remaining = agentsMask;
+
+                        @Override
+                        public boolean hasNext() {
+                            return remaining != 0;
+                        }
+
+                        @Override
+                        public Entry<Agent, V> next() {
+                            if (remaining == 0) {
+                                throw new NoSuchElementException();
+                            }
+                            int ordinal = Integer.numberOfTrailingZeros(remaining);
+                            remaining &= remaining - 1;
+                            return new AgentEntry(ALL_AGENTS[ordinal]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return agents.length;
+                }
+            };
+        }
+
+        /**
+         * Entry of the view that reads and writes through to the board.
+         */
+        private class AgentEntry implements Entry<Agent, V> {
+            private final Agent agent;
+
+            AgentEntry(Agent agent) {
+                this.agent = agent;
+            }
+
+            @Override
+            public Agent getKey() {
+                return agent;
+            }
+
+            @Override
+            public V getValue() {
+                return valueOf(agent.ordinal());
+            }
+
+            @Override
+            public V setValue(V value) {
+                return update(agent.ordinal(), value);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof Entry)) {
+                    return false;
+                }
+                Entry<?, ?> e = (Entry<?, ?>) o;
+                return agent.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+            }
+
+            @Override
+            public int hashCode() {
+                return agent.hashCode() ^ Objects.hashCode(getValue());
+            }
+        }
+    }
+}
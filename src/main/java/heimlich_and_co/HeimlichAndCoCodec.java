@@ -0,0 +1,332 @@
+package heimlich_and_co;
+
+import at.ac.tuwien.ifs.sge.game.ActionRecord;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+import heimlich_and_co.cards.HeimlichAndCoCard;
+import heimlich_and_co.enums.Agent;
+import heimlich_and_co.enums.HeimlichAndCoPhase;
+import heimlich_and_co.util.CardStack;
+import heimlich_and_co.util.GameRandom;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, versioned binary format for the state of a HeimlichAndCo game, e.g. for checkpointing positions or sending
+ * them between processes. A state without action records takes about 20 bytes without cards and about 50 bytes with
+ * cards; the action records (optional) take 2 bytes per record.
+ * <p>
+ * The state is written to and read from a ByteBuffer at its position (which is advanced), without intermediate arrays,
+ * so many states can be written into or read from one buffer (e.g. a memory-mapped file). Format of version 1 (nibbles
+ * are written high nibble first, varints are LEB128, signed values are zigzag-encoded):
+ * <pre>
+ * byte     version (1)
+ * byte     flags: 1 with cards, 2 custom die rolls allowed, 4 history recorded, 8 action records included
+ * byte     number of players, current player (nibbles)
+ * byte     current turn player, phase (nibbles)
+ * byte     bitmask of the playing agents (bit i for the agent with ordinal i)
+ * byte     safe position, last die roll (nibbles)
+ * byte     bitmask of the agents for which scoring was triggered
+ * int      positions of the agents, 4 bits per agent (see HeimlichAndCoBoard)
+ * varint   score of each playing agent (signed, in the order of the ordinals)
+ * nibbles  agent (ordinal) of each player, 15 if unknown
+ * byte     bitmask of the disqualified players
+ * with cards:
+ *   byte     number of players that skipped in a row
+ *   nibbles  number of played cards of each kind
+ *   for each player: byte with the number of known cards (15 if the player has no entry) and the number of hidden
+ *   cards (nibbles), followed by the kinds of the known cards (nibbles)
+ *   byte     number of cards on the card stack, followed by their kinds from the bottom to the top (nibbles)
+ * with action records:
+ *   varint   number of records, followed by a varint per record: id of the action * 8 + player
+ * </pre>
+ * Only the cards of the traditional card stack are supported (they are decoded as the standard cards of their kind, see
+ * HeimlichAndCoActionUniverse.getStandardCard). The random number generator and the actions that could be undone are
+ * not part of the state: a decoded game gets a new generator and cannot undo actions.
+ */
+public final class HeimlichAndCoCodec {
+
+    /**
+     * The version of the format written by encode.
+     */
+    public static final int VERSION = 1;
+
+    private static final int WITH_CARDS = 1;
+    private static final int ALLOW_CUSTOM_DIE_ROLLS = 2;
+    private static final int RECORD_HISTORY = 4;
+    private static final int WITH_ACTION_RECORDS = 8;
+    private static final int UNKNOWN = 0xF;
+    private static final int BITS_PER_PLAYER = 3;
+    private static final Agent[] ALL_AGENTS = Agent.values();
+    private static final HeimlichAndCoPhase[] PHASES = HeimlichAndCoPhase.values();
+
+    private HeimlichAndCoCodec() {
+    }
+
+    /**
+     * Encodes the state of the given game into a new array.
+     *
+     * @param game              the game
+     * @param withActionRecords whether the action records are included
+     * @return the encoded state
+     */
+    public static byte[] encode(HeimlichAndCo game, boolean withActionRecords) {
+        int capacity = 128 + (withActionRecords ? 5 + 3 * game.getActionRecords().size() : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        encode(game, withActionRecords, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Encodes the state of the given game into the given buffer, starting at its position.
+     *
+     * @param game              the game
+     * @param withActionRecords whether the action records are included
+     * @param buffer            the buffer (its position is advanced by the size of the encoded state)
+     * @throws java.nio.BufferOverflowException if the state does not fit into the buffer
+     * @throws IllegalArgumentException         if a card or an action of the game cannot be encoded
+     */
+    public static void encode(HeimlichAndCo game, boolean withActionRecords, ByteBuffer buffer) {
+        HeimlichAndCoBoard board = game.getBoard();
+        int numberOfPlayers = game.getNumberOfPlayers();
+        int flags = (game.isWithCards() ? WITH_CARDS : 0) | (game.isAllowCustomDieRolls() ? ALLOW_CUSTOM_DIE_ROLLS : 0)
+                | (game.isRecordHistory() ? RECORD_HISTORY : 0) | (withActionRecords ? WITH_ACTION_RECORDS : 0);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) flags);
+        buffer.put((byte) (numberOfPlayers << 4 | game.getCurrentPlayer()));
+        buffer.put((byte) (game.getCurrentTurnPlayer() << 4 | game.getCurrentPhase().ordinal()));
+        buffer.put((byte) board.getAgentsMask());
+        buffer.put((byte) (board.getSafePosition() << 4 | board.getLastDieRoll()));
+        buffer.put((byte) board.getScoringTriggeredMask());
+        buffer.putInt((int) board.getPackedPositions());
+        for (Agent agent : board.getAgents()) {
+            putSignedVarint(buffer, board.getScore(agent));
+        }
+        Map<Integer, Agent> playersToAgents = game.getPlayersToAgentsMap();
+        for (int player = 0; player < numberOfPlayers; player += 2) {
+            int high = agentNibble(playersToAgents.get(player));
+            int low = player + 1 < numberOfPlayers ? agentNibble(playersToAgents.get(player + 1)) : 0;
+            buffer.put((byte) (high << 4 | low));
+        }
+        int disqualified = 0;
+        for (int player : game.getDisqualifiedPlayers()) {
+            disqualified |= 1 << player;
+        }
+        buffer.put((byte) disqualified);
+
+        if (game.isWithCards()) {
+            buffer.put((byte) game.getPlayersSkippedInARowDuringCardPhase());
+            for (int kind = 0; kind < HeimlichAndCoCard.NUMBER_OF_KINDS; kind += 2) {
+                buffer.put((byte) (game.getNumberOfPlayedCards(kind) << 4 | game.getNumberOfPlayedCards(kind + 1)));
+            }
+            for (int player = 0; player < numberOfPlayers; player++) {
+                List<HeimlichAndCoCard> hand = game.getCards().get(player);
+                buffer.put((byte) ((hand == null ? UNKNOWN : hand.size()) << 4 | game.getNumberOfHiddenCards(player)));
+                if (hand != null) {
+                    putKinds(buffer, hand);
+                }
+            }
+            List<HeimlichAndCoCard> stack = game.getCardStack().getCards();
+            buffer.put((byte) stack.size());
+            putKinds(buffer, stack);
+        }
+
+        if (withActionRecords) {
+            List<ActionRecord<HeimlichAndCoAction>> records = game.getActionRecords();
+            putVarint(buffer, records.size());
+            for (ActionRecord<HeimlichAndCoAction> record : records) {
+                int id = HeimlichAndCoActionUniverse.encode(record.getAction());
+                putVarint(buffer, id << BITS_PER_PLAYER | record.getPlayer());
+            }
+        }
+    }
+
+    /**
+     * Decodes a state from the given array.
+     *
+     * @param bytes the encoded state
+     * @return a new game in the encoded state
+     */
+    public static HeimlichAndCo decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes a state from the given buffer, starting at its position.
+     *
+     * @param buffer the buffer (its position is advanced by the size of the encoded state)
+     * @return a new game in the encoded state
+     * @throws java.nio.BufferUnderflowException if the buffer ends before the end of the state
+     * @throws IllegalArgumentException          if the version is not supported or the state is invalid
+     */
+    public static HeimlichAndCo decode(ByteBuffer buffer) {
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported version of the encoded state: " + version);
+        }
+        int flags = buffer.get();
+        boolean withCards = (flags & WITH_CARDS) != 0;
+        int players = buffer.get() & 0xFF;
+        int numberOfPlayers = players >>> 4;
+        int currentPlayer = players & 0xF;
+        int turn = buffer.get() & 0xFF;
+        int currentTurnPlayer = turn >>> 4;
+        int phase = turn & 0xF;
+        if (phase >= PHASES.length) {
+            throw new IllegalArgumentException("Invalid phase: " + phase);
+        }
+        int agentsMask = buffer.get() & 0xFF;
+        int safe = buffer.get() & 0xFF;
+        int scoringTriggeredMask = buffer.get() & 0xFF;
+        long packedPositions = buffer.getInt() & 0xFFFFFFFFL;
+
+        Agent[] agents = new Agent[Integer.bitCount(agentsMask)];
+        for (int i = 0, remaining = agentsMask; remaining != 0; i++, remaining &= remaining - 1) {
+            agents[i] = agent(Integer.numberOfTrailingZeros(remaining));
+        }
+        HeimlichAndCoBoard board = new HeimlichAndCoBoard(agents);
+        board.setState(packedPositions, safe >>> 4, safe & 0xF, scoringTriggeredMask);
+        for (Agent agent : agents) {
+            board.setScore(agent, getSignedVarint(buffer));
+        }
+        Map<Integer, Agent> playersToAgents = new HashMap<>();
+        for (int player = 0; player < numberOfPlayers; player += 2) {
+            int nibbles = buffer.get() & 0xFF;
+            putAgent(playersToAgents, player, nibbles >>> 4, board);
+            if (player + 1 < numberOfPlayers) {
+                putAgent(playersToAgents, player + 1, nibbles & 0xF, board);
+            }
+        }
+        int disqualified = buffer.get() & 0xFF;
+
+        HeimlichAndCo game = new HeimlichAndCo(currentPlayer, numberOfPlayers, null, board, playersToAgents, withCards,
+                new GameRandom());
+        for (int player = 0; player < numberOfPlayers; player++) {
+            if ((disqualified & (1 << player)) != 0) {
+                game.getDisqualifiedPlayers().add(player);
+            }
+        }
+        int[] numberOfHiddenCards = new int[numberOfPlayers];
+        int[] playedCardsOfKind = new int[HeimlichAndCoCard.NUMBER_OF_KINDS];
+        if (withCards) {
+            game.setPlayersSkippedInARowDuringCardPhase(buffer.get() & 0xFF);
+            for (int kind = 0; kind < HeimlichAndCoCard.NUMBER_OF_KINDS; kind += 2) {
+                int nibbles = buffer.get() & 0xFF;
+                playedCardsOfKind[kind] = nibbles >>> 4;
+                playedCardsOfKind[kind + 1] = nibbles & 0xF;
+            }
+            game.getCards().clear();
+            for (int player = 0; player < numberOfPlayers; player++) {
+                int counts = buffer.get() & 0xFF;
+                numberOfHiddenCards[player] = counts & 0xF;
+                if (counts >>> 4 != UNKNOWN) {
+                    game.getCards().put(player, getKinds(buffer, counts >>> 4));
+                }
+            }
+            game.setCardStack(new CardStack<>(getKinds(buffer, buffer.get() & 0xFF)));
+        }
+        game.restoreState(PHASES[phase], currentTurnPlayer, numberOfHiddenCards, playedCardsOfKind);
+        game.setAllowCustomDieRolls((flags & ALLOW_CUSTOM_DIE_ROLLS) != 0);
+        game.setRecordHistory((flags & RECORD_HISTORY) != 0);
+
+        if ((flags & WITH_ACTION_RECORDS) != 0) {
+            List<ActionRecord<HeimlichAndCoAction>> records = game.getActionRecords();
+            int numberOfRecords = getVarint(buffer);
+            for (int i = 0; i < numberOfRecords; i++) {
+                int record = getVarint(buffer);
+                records.add(new ActionRecord<>(record & ((1 << BITS_PER_PLAYER) - 1),
+                        HeimlichAndCoActionUniverse.get(record >>> BITS_PER_PLAYER)));
+            }
+        }
+        return game;
+    }
+
+    private static int agentNibble(Agent agent) {
+        return agent == null ? UNKNOWN : agent.ordinal();
+    }
+
+    private static Agent agent(int ordinal) {
+        if (ordinal >= ALL_AGENTS.length) {
+            throw new IllegalArgumentException("Invalid agent: " + ordinal);
+        }
+        return ALL_AGENTS[ordinal];
+    }
+
+    private static void putAgent(Map<Integer, Agent> playersToAgents, int player, int nibble, HeimlichAndCoBoard board) {
+        if (nibble != UNKNOWN) {
+            Agent agent = agent(nibble);
+            if (!board.isPlaying(agent)) {
+                throw new IllegalArgumentException("The agent of a player is not playing: " + agent);
+            }
+            playersToAgents.put(player, agent);
+        }
+    }
+
+    /**
+     * Writes the kinds of the given cards, two per byte.
+     */
+    private static void putKinds(ByteBuffer buffer, List<HeimlichAndCoCard> cards) {
+        int size = cards.size();
+        for (int i = 0; i < size; i += 2) {
+            int high = cards.get(i).getKind();
+            int low = i + 1 < size ? cards.get(i + 1).getKind() : 0;
+            buffer.put((byte) (high << 4 | low));
+        }
+    }
+
+    /**
+     * Reads the given number of kinds of cards written by putKinds.
+     */
+    private static List<HeimlichAndCoCard> getKinds(ByteBuffer buffer, int count) {
+        List<HeimlichAndCoCard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 2) {
+            int nibbles = buffer.get() & 0xFF;
+            cards.add(card(nibbles >>> 4));
+            if (i + 1 < count) {
+                cards.add(card(nibbles & 0xF));
+            }
+        }
+        return cards;
+    }
+
+    private static HeimlichAndCoCard card(int kind) {
+        if (kind >= HeimlichAndCoCard.NUMBER_OF_KINDS) {
+            throw new IllegalArgumentException("Invalid kind of card: " + kind);
+        }
+        return HeimlichAndCoActionUniverse.getStandardCard(kind);
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid varint.");
+    }
+
+    private static void putSignedVarint(ByteBuffer buffer, int value) {
+        putVarint(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    private static int getSignedVarint(ByteBuffer buffer) {
+        int value = getVarint(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
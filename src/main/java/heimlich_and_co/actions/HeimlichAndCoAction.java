@@ -18,6 +18,18 @@ public interface HeimlichAndCoAction {
      */
     HeimlichAndCoAction deepCopy();
 
+    /**
+     * Returns the dense id of this action in the HeimlichAndCoActionUniverse, or -1 if the action is not part of the
+     * universe (e.g. an action with a card that has a non-standard specification).
+     * Copies of an action have the same id. Actions that are not defined in this package are not part of the universe,
+     * therefore the default implementation returns -1.
+     *
+     * @return the id of this action or -1
+     */
+    default int getId() {
+        return -1;
+    }
+
     /**
      * Checks whether the given object is equal to this action. Must take semantics into account where some actions
      * should be considered equal in terms of the outcome when applying them to a board. (E.g. when the order of some
@@ -0,0 +1,675 @@
+package heimlich_and_co.actions;
+
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.cards.HeimlichAndCoCard;
+import heimlich_and_co.enums.Agent;
+import heimlich_and_co.factories.HeimlichAndCoCardStackFactory;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The canonical set of all actions that can occur in a traditional game of Heimlich and Co. Every action of the
+ * universe is a single shared (immutable) instance with a dense id, i.e. the ids are 0 to size() - 1.
+ * <p>
+ * The methods which calculate possible actions return these shared instances, therefore generating actions does not
+ * allocate new actions and comparing actions of the universe is a comparison of their ids.
+ * Actions which are not part of the universe (e.g. actions with cards that have a non-standard specification) can still
+ * be created, they have the id -1.
+ * <p>
+ * The ids are grouped in contiguous ranges:
+ * <ul>
+ *     <li>die roll actions: the random roll, custom rolls with the results 1 to 13 and random rolls with a known result
+ *     (1 to 13), which are recorded by the game after a random roll</li>
+ *     <li>safe move actions: one for each field</li>
+ *     <li>agent move actions: the no move action and every way to move the agents by 1 to 6 fields in total</li>
+ *     <li>card actions: the skip action and every way to play each standard card with any of the agents</li>
+ * </ul>
+ * The ids do not change between runs.
+ */
+public final class HeimlichAndCoActionUniverse {
+
+    /**
+     * The largest result of a die roll (13 encodes the 1-3 face of the die).
+     */
+    public static final int MAX_DIE_ROLL = 13;
+
+    public static final int RANDOM_DIE_ROLL_ID = 0;
+    public static final int FIRST_CUSTOM_DIE_ROLL_ID = RANDOM_DIE_ROLL_ID + 1;
+    public static final int FIRST_RESOLVED_DIE_ROLL_ID = FIRST_CUSTOM_DIE_ROLL_ID + MAX_DIE_ROLL;
+    public static final int NUMBER_OF_DIE_ROLL_ACTIONS = 1 + 2 * MAX_DIE_ROLL;
+
+    public static final int FIRST_SAFE_MOVE_ID = RANDOM_DIE_ROLL_ID + NUMBER_OF_DIE_ROLL_ACTIONS;
+    public static final int NUMBER_OF_SAFE_MOVES = 12;
+
+    /**
+     * The largest number of fields agents are moved in total by an agent move action.
+     */
+    public static final int MAX_AGENT_MOVE_SUM = 6;
+    public static final int NO_MOVE_ID = FIRST_SAFE_MOVE_ID + NUMBER_OF_SAFE_MOVES;
+    public static final int FIRST_AGENT_MOVE_ID = NO_MOVE_ID;
+    /**
+     * The no move action and all ways to distribute 1 to 6 fields among the 7 agents (sum of binomial(n + 6, 6)).
+     */
+    public static final int NUMBER_OF_AGENT_MOVES = 1716;
+
+    public static final int SKIP_CARD_ACTION_ID = FIRST_AGENT_MOVE_ID + NUMBER_OF_AGENT_MOVES;
+    public static final int FIRST_CARD_ACTION_ID = SKIP_CARD_ACTION_ID;
+    public static final int NUMBER_OF_CARD_ACTIONS = 245;
+
+    private static final int SIZE = FIRST_CARD_ACTION_ID + NUMBER_OF_CARD_ACTIONS;
+
+    private static final Agent[] ALL_AGENTS = Agent.values();
+    private static final int BITS_PER_MOVE = 4;
+    /**
+     * Used in the card action table for actions that are played with less than two agents.
+     */
+    private static final int NO_AGENT = ALL_AGENTS.length;
+    private static final int MIN_CARD_NUMBER = -2;
+    private static final int CARD_NUMBER_RANGE = 16;
+
+    private static final HeimlichAndCoAction[] ACTIONS = new HeimlichAndCoAction[SIZE];
+    /**
+     * The standard card of each kind, the cards of the card actions of the universe.
+     */
+    private static final HeimlichAndCoCard[] CARDS = new HeimlichAndCoCard[HeimlichAndCoCard.NUMBER_OF_KINDS];
+    /**
+     * The moves of the agent move actions packed into a long (4 bits per agent ordinal), sorted, and the ids of the
+     * corresponding actions.
+     */
+    private static final long[] AGENT_MOVE_KEYS = new long[NUMBER_OF_AGENT_MOVES];
+    private static final int[] AGENT_MOVE_IDS = new int[NUMBER_OF_AGENT_MOVES];
+    /**
+     * Ids of the card actions, indexed by cardActionIndex (-1 if there is no such action).
+     */
+    private static final int[] CARD_ACTION_IDS =
+            new int[HeimlichAndCoCard.NUMBER_OF_KINDS * (NO_AGENT + 1) * (NO_AGENT + 1) * CARD_NUMBER_RANGE];
+    /**
+     * The card actions of each kind have contiguous ids, from FIRST_CARD_ACTION_ID_OF_KIND[kind] (inclusive) to
+     * FIRST_CARD_ACTION_ID_OF_KIND[kind + 1] (exclusive).
+     */
+    private static final int[] FIRST_CARD_ACTION_ID_OF_KIND = new int[HeimlichAndCoCard.NUMBER_OF_KINDS + 1];
+
+    private static int nextId;
+
+    static {
+        ACTIONS[RANDOM_DIE_ROLL_ID] = new HeimlichAndCoDieRollAction(0, true, RANDOM_DIE_ROLL_ID);
+        for (int dieRoll = 1; dieRoll <= MAX_DIE_ROLL; dieRoll++) {
+            int customId = FIRST_CUSTOM_DIE_ROLL_ID + dieRoll - 1;
+            ACTIONS[customId] = new HeimlichAndCoDieRollAction(dieRoll, false, customId);
+            int resolvedId = FIRST_RESOLVED_DIE_ROLL_ID + dieRoll - 1;
+            ACTIONS[resolvedId] = new HeimlichAndCoDieRollAction(dieRoll, true, resolvedId);
+        }
+        for (int field = 0; field < NUMBER_OF_SAFE_MOVES; field++) {
+            ACTIONS[FIRST_SAFE_MOVE_ID + field] = new HeimlichAndCoSafeMoveAction(field, FIRST_SAFE_MOVE_ID + field);
+        }
+
+        nextId = FIRST_AGENT_MOVE_ID;
+        int[] moves = new int[ALL_AGENTS.length];
+        addAgentMove(moves);
+        for (int sum = 1; sum <= MAX_AGENT_MOVE_SUM; sum++) {
+            addAllAgentMoves(0, sum, moves);
+        }
+        sortAgentMoveKeys();
+
+        Arrays.fill(CARD_ACTION_IDS, -1);
+        nextId = FIRST_CARD_ACTION_ID;
+        ACTIONS[nextId] = new HeimlichAndCoCardAction(null, null, 0, nextId);
+        nextId++;
+        for (int kind = 0; kind < HeimlichAndCoCard.NUMBER_OF_KINDS; kind++) {
+            CARDS[kind] = HeimlichAndCoCardStackFactory.newStandardCard(kind);
+            FIRST_CARD_ACTION_ID_OF_KIND[kind] = nextId;
+            addAllCardActions(kind);
+        }
+        FIRST_CARD_ACTION_ID_OF_KIND[HeimlichAndCoCard.NUMBER_OF_KINDS] = nextId;
+        if (nextId != SIZE) {
+            throw new IllegalStateException("The universe of actions does not have the expected size.");
+        }
+    }
+
+    private HeimlichAndCoActionUniverse() {
+    }
+
+    /**
+     * Returns the number of actions in the universe, i.e. the ids are between 0 and size() - 1.
+     */
+    public static int size() {
+        return SIZE;
+    }
+
+    /**
+     * Returns the action with the given id.
+     *
+     * @param id id of the action
+     * @return the shared instance of the action
+     */
+    public static HeimlichAndCoAction get(int id) {
+        if (id < 0 || id >= SIZE) {
+            throw new IllegalArgumentException("Invalid action id: " + id);
+        }
+        return ACTIONS[id];
+    }
+
+    /**
+     * Returns the shared instance of the universe which is equal to the given action, or the action itself if it is not
+     * part of the universe.
+     *
+     * @param action an action
+     * @return the canonical instance of the action
+     */
+    public static HeimlichAndCoAction intern(HeimlichAndCoAction action) {
+        if (action == null || action.getId() < 0) {
+            return action;
+        }
+        return ACTIONS[action.getId()];
+    }
+
+    /**
+     * Encodes the given action as an int, i.e. returns the id of the action. Equal actions have the same id and
+     * decode(encode(action)) is equal to action.
+     *
+     * @param action action to encode
+     * @return the id of the action
+     * @throws IllegalArgumentException if the action is null or not part of the universe
+     */
+    public static int encode(HeimlichAndCoAction action) {
+        if (action == null || action.getId() < 0) {
+            throw new IllegalArgumentException("The action cannot be encoded: " + action);
+        }
+        return action.getId();
+    }
+
+    /**
+     * Decodes an id into the (shared) action, same as get(id).
+     *
+     * @param id id of the action
+     * @return the shared instance of the action
+     */
+    public static HeimlichAndCoAction decode(int id) {
+        return get(id);
+    }
+
+    /**
+     * @return whether the id belongs to a die roll action
+     */
+    public static boolean isDieRollId(int id) {
+        return id >= RANDOM_DIE_ROLL_ID && id < RANDOM_DIE_ROLL_ID + NUMBER_OF_DIE_ROLL_ACTIONS;
+    }
+
+    /**
+     * @return whether the id belongs to a random die roll whose result is known (only recorded by the game)
+     */
+    public static boolean isResolvedDieRollId(int id) {
+        return id >= FIRST_RESOLVED_DIE_ROLL_ID && id < FIRST_RESOLVED_DIE_ROLL_ID + MAX_DIE_ROLL;
+    }
+
+    /**
+     * @return whether the id belongs to a safe move action
+     */
+    public static boolean isSafeMoveId(int id) {
+        return id >= FIRST_SAFE_MOVE_ID && id < FIRST_SAFE_MOVE_ID + NUMBER_OF_SAFE_MOVES;
+    }
+
+    /**
+     * @return whether the id belongs to an agent move action
+     */
+    public static boolean isAgentMoveId(int id) {
+        return id >= FIRST_AGENT_MOVE_ID && id < FIRST_AGENT_MOVE_ID + NUMBER_OF_AGENT_MOVES;
+    }
+
+    /**
+     * @return whether the id belongs to a card action
+     */
+    public static boolean isCardActionId(int id) {
+        return id >= FIRST_CARD_ACTION_ID && id < FIRST_CARD_ACTION_ID + NUMBER_OF_CARD_ACTIONS;
+    }
+
+    /**
+     * Returns the standard card of the given kind which is used by the card actions of the universe.
+     *
+     * @param kind kind of the card
+     * @return the shared card (must not be modified)
+     */
+    public static HeimlichAndCoCard getStandardCard(int kind) {
+        return CARDS[kind];
+    }
+
+    //region die roll actions
+
+    public static HeimlichAndCoDieRollAction getRandomDieRoll() {
+        return (HeimlichAndCoDieRollAction) ACTIONS[RANDOM_DIE_ROLL_ID];
+    }
+
+    /**
+     * Returns the custom die roll action with the given result.
+     *
+     * @param dieRoll the result of the roll
+     * @return the shared instance, or a new action if the result is not between 1 and 13
+     */
+    public static HeimlichAndCoDieRollAction getCustomDieRoll(int dieRoll) {
+        int id = getCustomDieRollId(dieRoll);
+        if (id < 0) {
+            return new HeimlichAndCoDieRollAction(dieRoll, false, id);
+        }
+        return (HeimlichAndCoDieRollAction) ACTIONS[id];
+    }
+
+    /**
+     * Returns the random die roll action whose result is already known. The game records these actions after a
+     * random roll, they cannot be taken by a player.
+     *
+     * @param dieRoll the result of the roll
+     * @return the shared instance, or a new action if the result is not between 1 and 13
+     */
+    public static HeimlichAndCoDieRollAction getResolvedDieRoll(int dieRoll) {
+        if (dieRoll < 1 || dieRoll > MAX_DIE_ROLL) {
+            return new HeimlichAndCoDieRollAction(dieRoll, true, -1);
+        }
+        return (HeimlichAndCoDieRollAction) ACTIONS[FIRST_RESOLVED_DIE_ROLL_ID + dieRoll - 1];
+    }
+
+    static int getCustomDieRollId(int dieRoll) {
+        if (dieRoll < 1 || dieRoll > MAX_DIE_ROLL) {
+            return -1;
+        }
+        return FIRST_CUSTOM_DIE_ROLL_ID + dieRoll - 1;
+    }
+
+    //endregion
+
+    //region safe move actions
+
+    /**
+     * Returns the safe move action to the given field.
+     *
+     * @param field the field the safe is moved to
+     * @return the shared instance, or a new action if the field does not exist
+     */
+    public static HeimlichAndCoSafeMoveAction getSafeMove(int field) {
+        int id = getSafeMoveId(field);
+        if (id < 0) {
+            return new HeimlichAndCoSafeMoveAction(field, id);
+        }
+        return (HeimlichAndCoSafeMoveAction) ACTIONS[id];
+    }
+
+    static int getSafeMoveId(int field) {
+        if (field < 0 || field >= NUMBER_OF_SAFE_MOVES) {
+            return -1;
+        }
+        return FIRST_SAFE_MOVE_ID + field;
+    }
+
+    //endregion
+
+    //region agent move actions
+
+    public static HeimlichAndCoAgentMoveAction getNoMoveAction() {
+        return (HeimlichAndCoAgentMoveAction) ACTIONS[NO_MOVE_ID];
+    }
+
+    /**
+     * Returns the agent move action which moves the given agents by the given number of fields.
+     *
+     * @param agents agents (without duplicates)
+     * @param moves  number of fields the agent at the same index is moved (values below 1 are ignored)
+     * @return the shared instance, or a new action if the agents are moved by more than 6 fields in total
+     */
+    public static HeimlichAndCoAgentMoveAction getAgentMove(Agent[] agents, int[] moves) {
+        if (agents.length != moves.length) {
+            throw new IllegalArgumentException("There must be the same amount of agents and numbers given.");
+        }
+        long key = 0;
+        int sum = 0;
+        for (int i = 0; i < agents.length; i++) {
+            if (moves[i] > 0) {
+                sum += moves[i];
+                key |= (long) moves[i] << (agents[i].ordinal() * BITS_PER_MOVE);
+            }
+        }
+        int id = sum <= MAX_AGENT_MOVE_SUM ? findAgentMoveId(key) : -1;
+        if (id < 0) {
+            int[] movesByOrdinal = new int[ALL_AGENTS.length];
+            for (int i = 0; i < agents.length; i++) {
+                movesByOrdinal[agents[i].ordinal()] = moves[i];
+            }
+            return new HeimlichAndCoAgentMoveAction(movesByOrdinal, -1);
+        }
+        return (HeimlichAndCoAgentMoveAction) ACTIONS[id];
+    }
+
+    /**
+     * Returns the id of the agent move action with the given moves.
+     *
+     * @param movesByOrdinal number of fields each agent is moved, indexed by the ordinal of the agent
+     * @return the id or -1 if the action is not part of the universe
+     */
+    static int getAgentMoveId(int[] movesByOrdinal) {
+        long key = 0;
+        int sum = 0;
+        for (int i = 0; i < movesByOrdinal.length; i++) {
+            if (movesByOrdinal[i] > 0) {
+                sum += movesByOrdinal[i];
+                if (sum > MAX_AGENT_MOVE_SUM) {
+                    return -1;
+                }
+                key |= (long) movesByOrdinal[i] << (i * BITS_PER_MOVE);
+            }
+        }
+        return findAgentMoveId(key);
+    }
+
+    private static int findAgentMoveId(long key) {
+        int index = Arrays.binarySearch(AGENT_MOVE_KEYS, key);
+        return index >= 0 ? AGENT_MOVE_IDS[index] : -1;
+    }
+
+    /**
+     * Adds the agent move actions for every way to distribute the remaining number of fields among the agents from the
+     * given ordinal onward (in the same order as the possible actions are calculated).
+     */
+    private static void addAllAgentMoves(int ordinal, int remaining, int[] moves) {
+        if (ordinal == moves.length - 1) {
+            moves[ordinal] = remaining;
+            addAgentMove(moves);
+            return;
+        }
+        for (int amount = remaining; amount >= 0; amount--) {
+            moves[ordinal] = amount;
+            addAllAgentMoves(ordinal + 1, remaining - amount, moves);
+        }
+    }
+
+    private static void addAgentMove(int[] moves) {
+        long key = 0;
+        for (int i = 0; i < moves.length; i++) {
+            key |= (long) moves[i] << (i * BITS_PER_MOVE);
+        }
+        AGENT_MOVE_KEYS[nextId - FIRST_AGENT_MOVE_ID] = key;
+        AGENT_MOVE_IDS[nextId - FIRST_AGENT_MOVE_ID] = nextId;
+        ACTIONS[nextId] = new HeimlichAndCoAgentMoveAction(moves, nextId);
+        nextId++;
+    }
+
+    /**
+     * Sorts the keys of the agent moves (and the ids accordingly) for the binary search.
+     */
+    private static void sortAgentMoveKeys() {
+        Integer[] order = new Integer[NUMBER_OF_AGENT_MOVES];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(AGENT_MOVE_KEYS[a], AGENT_MOVE_KEYS[b]));
+        long[] keys = new long[NUMBER_OF_AGENT_MOVES];
+        int[] ids = new int[NUMBER_OF_AGENT_MOVES];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = AGENT_MOVE_KEYS[order[i]];
+            ids[i] = AGENT_MOVE_IDS[order[i]];
+        }
+        System.arraycopy(keys, 0, AGENT_MOVE_KEYS, 0, keys.length);
+        System.arraycopy(ids, 0, AGENT_MOVE_IDS, 0, ids.length);
+    }
+
+    //endregion
+
+    //region card actions
+
+    public static HeimlichAndCoCardAction getSkipCardAction() {
+        return (HeimlichAndCoCardAction) ACTIONS[SKIP_CARD_ACTION_ID];
+    }
+
+    /**
+     * Returns the card action which plays the given card with the given agents and number.
+     *
+     * @param card   the card (must not be null)
+     * @param first  first agent (null if the card is played without agents)
+     * @param second second agent (null if the card is played with less than two agents)
+     * @param number the number
+     * @return the shared instance, or a new action if the action is not part of the universe
+     */
+    public static HeimlichAndCoCardAction getCardAction(HeimlichAndCoCard card, Agent first, Agent second, int number) {
+        int id = findCardActionId(card, first == null ? NO_AGENT : first.ordinal(),
+                second == null ? NO_AGENT : second.ordinal(), number);
+        if (id < 0) {
+            Agent[] agents;
+            if (first == null) {
+                agents = null;
+            } else if (second == null) {
+                agents = new Agent[]{first};
+            } else {
+                agents = new Agent[]{first, second};
+            }
+            return new HeimlichAndCoCardAction(card, agents, number);
+        }
+        return (HeimlichAndCoCardAction) ACTIONS[id];
+    }
+
+    /**
+     * Writes the ids of the possible actions of the given card on the given board into the given array, by checking the
+     * card actions of the universe for the kind of the card (see HeimlichAndCoCardAction.isPossible). Does not allocate.
+     *
+     * @param card   the card
+     * @param board  current board
+     * @param out    array the ids are written to
+     * @param offset index of out where the first id is written
+     * @return the number of ids written, or -1 if the card is not a standard card (i.e. its actions are not part of the
+     * universe)
+     */
+    public static int getPossibleCardActionIds(HeimlichAndCoCard card, HeimlichAndCoBoard board, int[] out, int offset) {
+        if (!isStandardCard(card)) {
+            return -1;
+        }
+        int kind = card.getKind();
+        int count = 0;
+        for (int id = FIRST_CARD_ACTION_ID_OF_KIND[kind]; id < FIRST_CARD_ACTION_ID_OF_KIND[kind + 1]; id++) {
+            if (((HeimlichAndCoCardAction) ACTIONS[id]).isPossible(board)) {
+                out[offset + count++] = id;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns an iterator over the possible actions of the given card on the given board, which checks the card actions
+     * of the universe for the kind of the card one after the other (see HeimlichAndCoCardAction.isPossible), i.e. only
+     * as far as the iterator is advanced. The iterator must not be used after the board was changed.
+     *
+     * @param card  the card
+     * @param board current board
+     * @return the iterator, or null if the card is not a standard card
+     */
+    public static Iterator<HeimlichAndCoCardAction> getPossibleCardActionsIterator(HeimlichAndCoCard card, HeimlichAndCoBoard board) {
+        if (!isStandardCard(card)) {
+            return null;
+        }
+        return new PossibleCardActionsIterator(board, FIRST_CARD_ACTION_ID_OF_KIND[card.getKind()],
+                FIRST_CARD_ACTION_ID_OF_KIND[card.getKind() + 1]);
+    }
+
+    /**
+     * Returns the number of possible actions of the given card on the given board, without allocating.
+     *
+     * @param card  the card
+     * @param board current board
+     * @return the number of possible actions, or -1 if the card is not a standard card
+     */
+    public static int getNumberOfPossibleCardActions(HeimlichAndCoCard card, HeimlichAndCoBoard board) {
+        if (!isStandardCard(card)) {
+            return -1;
+        }
+        int count = 0;
+        for (int id = FIRST_CARD_ACTION_ID_OF_KIND[card.getKind()]; id < FIRST_CARD_ACTION_ID_OF_KIND[card.getKind() + 1]; id++) {
+            if (((HeimlichAndCoCardAction) ACTIONS[id]).isPossible(board)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isStandardCard(HeimlichAndCoCard card) {
+        int kind = card.getKind();
+        return kind >= 0 && kind < CARDS.length && CARDS[kind].equals(card);
+    }
+
+    /**
+     * Returns the id of the card action with the given values.
+     *
+     * @param card   the card (null for the skip action)
+     * @param agents the agents (may be null)
+     * @param number the number
+     * @return the id or -1 if the action is not part of the universe
+     */
+    static int getCardActionId(HeimlichAndCoCard card, Agent[] agents, int number) {
+        if (card == null) {
+            return SKIP_CARD_ACTION_ID;
+        }
+        int length = agents == null ? 0 : agents.length;
+        if (length > 2 || (length > 0 && agents[0] == null) || (length > 1 && agents[1] == null)) {
+            return -1;
+        }
+        return findCardActionId(card, length > 0 ? agents[0].ordinal() : NO_AGENT,
+                length > 1 ? agents[1].ordinal() : NO_AGENT, number);
+    }
+
+    private static int findCardActionId(HeimlichAndCoCard card, int first, int second, int number) {
+        int kind = card.getKind();
+        if (kind < 0 || kind >= CARDS.length || !CARDS[kind].equals(card)
+                || number < MIN_CARD_NUMBER || number >= MIN_CARD_NUMBER + CARD_NUMBER_RANGE) {
+            return -1;
+        }
+        return CARD_ACTION_IDS[cardActionIndex(kind, first, second, number)];
+    }
+
+    private static int cardActionIndex(int kind, int first, int second, int number) {
+        return ((kind * (NO_AGENT + 1) + first) * (NO_AGENT + 1) + second) * CARD_NUMBER_RANGE + number - MIN_CARD_NUMBER;
+    }
+
+    /**
+     * Adds all card actions for the standard card of the given kind, for any of the agents.
+     */
+    private static void addAllCardActions(int kind) {
+        int numberOfAgents = ALL_AGENTS.length;
+        switch (kind) {
+            case 0: //move safe
+                for (int field = 0; field < NUMBER_OF_SAFE_MOVES; field++) {
+                    addCardAction(kind, NO_AGENT, NO_AGENT, field);
+                }
+                break;
+            case 1: //add score points
+            case 4: //type 2
+            case 5: //type 3
+            case 9: //type 7
+                addCardActionsForPairs(kind);
+                break;
+            case 2: //type 0
+                addCardActionsForSingleAgents(kind, -1, -2);
+                break;
+            case 3: //type 1
+            case 6: //type 4
+                addCardActionsForSingleAgents(kind, -1, 1);
+                break;
+            case 7: //type 5
+            case 13: //type 11
+                addCardActionsForSingleAgents(kind, 0);
+                break;
+            case 8: //type 6
+                addCardAction(kind, NO_AGENT, NO_AGENT, 0);
+                break;
+            case 10: //type 8, the order of the agents matters
+                for (int i = 0; i < numberOfAgents; i++) {
+                    for (int j = 0; j < numberOfAgents; j++) {
+                        if (i != j) {
+                            addCardAction(kind, i, j, 0);
+                        }
+                    }
+                }
+                break;
+            case 11: //type 9
+                addCardActionsForSingleAgents(kind, 0);
+                addCardActionsForPairs(kind);
+                break;
+            case 12: //type 10
+                addCardActionsForSingleAgents(kind, 1, 2, 3);
+                break;
+            default:
+                throw new IllegalStateException("Invalid kind of card: " + kind);
+        }
+    }
+
+    private static void addCardActionsForSingleAgents(int kind, int... numbers) {
+        for (int i = 0; i < ALL_AGENTS.length; i++) {
+            for (int number : numbers) {
+                addCardAction(kind, i, NO_AGENT, number);
+            }
+        }
+    }
+
+    /**
+     * Adds the card actions for all (unordered) pairs of agents, both orders share the same action.
+     */
+    private static void addCardActionsForPairs(int kind) {
+        for (int i = 0; i < ALL_AGENTS.length - 1; i++) {
+            for (int j = i + 1; j < ALL_AGENTS.length; j++) {
+                CARD_ACTION_IDS[cardActionIndex(kind, j, i, 0)] = nextId;
+                addCardAction(kind, i, j, 0);
+            }
+        }
+    }
+
+    private static void addCardAction(int kind, int first, int second, int number) {
+        Agent[] agents;
+        if (first == NO_AGENT) {
+            agents = null;
+        } else if (second == NO_AGENT) {
+            agents = new Agent[]{ALL_AGENTS[first]};
+        } else {
+            agents = new Agent[]{ALL_AGENTS[first], ALL_AGENTS[second]};
+        }
+        CARD_ACTION_IDS[cardActionIndex(kind, first, second, number)] = nextId;
+        ACTIONS[nextId] = new HeimlichAndCoCardAction(CARDS[kind], agents, number, nextId);
+        nextId++;
+    }
+
+    /**
+     * Iterates over the possible card actions with ids in a given range, finding the next possible action on demand.
+     */
+    private static final class PossibleCardActionsIterator implements Iterator<HeimlichAndCoCardAction> {
+        private final HeimlichAndCoBoard board;
+        private final int endId;
+        /**
+         * Id of the next possible action (endId if there is none).
+         */
+        private int nextId;
+
+        private PossibleCardActionsIterator(HeimlichAndCoBoard board, int firstId, int endId) {
+            this.board = board;
+            this.endId = endId;
+            this.nextId = findPossible(firstId);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextId < endId;
+        }
+
+        @Override
+        public HeimlichAndCoCardAction next() {
+            if (nextId >= endId) {
+                throw new NoSuchElementException();
+            }
+            HeimlichAndCoCardAction action = (HeimlichAndCoCardAction) ACTIONS[nextId];
+            nextId = findPossible(nextId + 1);
+            return action;
+        }
+
+        private int findPossible(int id) {
+            while (id < endId && !((HeimlichAndCoCardAction) ACTIONS[id]).isPossible(board)) {
+                id++;
+            }
+            return id;
+        }
+    }
+
+    //endregion
+}
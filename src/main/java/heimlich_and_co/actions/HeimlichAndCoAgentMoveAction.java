@@ -7,10 +7,27 @@ import java.util.*;
 
 public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
 
-    private final EnumMap<Agent, Integer> agentsMoves;
+    private static final Agent[] ALL_AGENTS = Agent.values();
+
+    /**
+     * The number of fields each agent is moved, indexed by the ordinal of the agent (0 for agents that are not moved).
+     */
+    private final int[] agentsMoves;
+    /**
+     * Bitmask of the agents that are moved, bit i is set if the agent with ordinal i is moved.
+     */
+    private final int movedAgentsMask;
+    /**
+     * The number of fields all agents are moved in total.
+     */
+    private final int totalMove;
+    /**
+     * Id of this action in the HeimlichAndCoActionUniverse (-1 if none).
+     */
+    private final int id;
 
     public HeimlichAndCoAgentMoveAction() {
-        this.agentsMoves = new EnumMap<>(Agent.class);
+        this(new int[ALL_AGENTS.length], HeimlichAndCoActionUniverse.NO_MOVE_ID);
     }
 
     /**
@@ -19,16 +36,7 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
      * @param agentsMoves Map determining the amount of fields agents should be moved
      */
     public HeimlichAndCoAgentMoveAction(Map<Agent, Integer> agentsMoves) {
-        if (agentsMoves != null && !agentsMoves.isEmpty()) {
-            this.agentsMoves = new EnumMap<>(Agent.class);
-            for (Map.Entry<Agent, Integer> entry : agentsMoves.entrySet()) {
-                if (entry.getValue().compareTo(0) > 0) {
-                    this.agentsMoves.put(entry.getKey(), entry.getValue());
-                }
-            }
-        } else {
-            this.agentsMoves = new EnumMap<>(Agent.class);
-        }
+        this(toMovesArray(agentsMoves));
     }
 
     /**
@@ -37,7 +45,31 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
      * @param action action to copy
      */
     public HeimlichAndCoAgentMoveAction(HeimlichAndCoAgentMoveAction action) {
-        this(action.agentsMoves);
+        this(action.agentsMoves, action.id);
+    }
+
+    private HeimlichAndCoAgentMoveAction(int[] agentsMoves) {
+        this(agentsMoves, HeimlichAndCoActionUniverse.getAgentMoveId(agentsMoves));
+    }
+
+    /**
+     * Creates a new instance with the given moves (indexed by the ordinals of the agents, only positive values are
+     * kept) and id, used by the HeimlichAndCoActionUniverse.
+     */
+    HeimlichAndCoAgentMoveAction(int[] agentsMoves, int id) {
+        this.agentsMoves = new int[ALL_AGENTS.length];
+        int mask = 0;
+        int total = 0;
+        for (int i = 0; i < this.agentsMoves.length; i++) {
+            if (agentsMoves[i] > 0) {
+                this.agentsMoves[i] = agentsMoves[i];
+                mask |= 1 << i;
+                total += agentsMoves[i];
+            }
+        }
+        this.movedAgentsMask = mask;
+        this.totalMove = total;
+        this.id = id;
     }
 
     /**
@@ -47,74 +79,143 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
      * @return AgentMoveAction that is the No Move Action
      */
     public static HeimlichAndCoAgentMoveAction getNoMoveAction() {
-        return new HeimlichAndCoAgentMoveAction();
+        return HeimlichAndCoActionUniverse.getNoMoveAction();
     }
 
     /**
      * Calculates all possible actions depending on a board state and whether the game is played with or without cards.
+     * <p>
+     * The possible actions only depend on the die result, the playing agents and whether the game is played with
+     * cards. For the standard sets of agents (the first 5, 6 or 7 agents) and the die results that can occur, the sets
+     * are precomputed once and the same (unmodifiable) set is returned on every call, therefore the returned set must
+     * not be modified.
      *
      * @param board     the current board
      * @param withCards whether the game is with or without cards
      * @return a Set of HeimlichAndCoActions which are possible actions in the current state
      */
     public static Set<HeimlichAndCoAction> getPossibleActions(HeimlichAndCoBoard board, boolean withCards) {
+        Set<HeimlichAndCoAction> precomputed = CompositionTables.getSet(board, withCards);
+        if (precomputed != null) {
+            return precomputed;
+        }
+        return new HashSet<>(calculatePossibleActions(board.getAgents(), board.getLastDieRoll(), withCards));
+    }
+
+    /**
+     * Returns the possible actions like getPossibleActions, but as a list which allows to access the actions by index
+     * (e.g. for choosing a random action). For the standard sets of agents the list is precomputed and must not be
+     * modified.
+     *
+     * @param board     the current board
+     * @param withCards whether the game is with or without cards
+     * @return a List of the possible HeimlichAndCoAgentMoveActions in the current state
+     */
+    public static List<HeimlichAndCoAgentMoveAction> getPossibleActionsList(HeimlichAndCoBoard board, boolean withCards) {
+        List<HeimlichAndCoAgentMoveAction> precomputed = CompositionTables.getList(board, withCards);
+        if (precomputed != null) {
+            return precomputed;
+        }
+        return calculatePossibleActions(board.getAgents(), board.getLastDieRoll(), withCards);
+    }
+
+    /**
+     * Checks whether this action is contained in getPossibleActions(board, withCards), without calculating the possible
+     * actions. I.e. checks that only playing agents are moved and that they are moved by the result of the die in total
+     * (1, 2 or 3 if 13 was rolled, or not at all if the game is played with cards).
+     *
+     * @param board     the current board
+     * @param withCards whether the game is with or without cards
+     * @return whether the action is possible
+     */
+    public boolean isPossible(HeimlichAndCoBoard board, boolean withCards) {
+        if ((movedAgentsMask & ~board.getAgentsMask()) != 0) {
+            return false;
+        }
         int dieResult = board.getLastDieRoll();
-        List<Integer> possibleAmountOfMoves = new LinkedList<>();
-        Set<HeimlichAndCoAction> retSet = new HashSet<>();
         if (dieResult == 13) {
-            possibleAmountOfMoves.add(1);
-            possibleAmountOfMoves.add(2);
-            possibleAmountOfMoves.add(3);
+            return (totalMove >= 1 && totalMove <= 3) || (totalMove == 0 && withCards);
+        }
+        return totalMove == dieResult;
+    }
+
+    /**
+     * Writes the ids (see HeimlichAndCoActionUniverse) of the possible actions into the given array, in the same order
+     * as getPossibleActionsList. Does not allocate for the standard sets of agents.
+     *
+     * @param board     the current board
+     * @param withCards whether the game is with or without cards
+     * @param out       array the ids are written to
+     * @param offset    index of out where the first id is written
+     * @return the number of ids written
+     * @throws IllegalStateException if one of the possible actions is not part of the universe
+     */
+    public static int getPossibleActionIds(HeimlichAndCoBoard board, boolean withCards, int[] out, int offset) {
+        int[] precomputed = CompositionTables.getIds(board, withCards);
+        if (precomputed != null) {
+            System.arraycopy(precomputed, 0, out, offset, precomputed.length);
+            return precomputed.length;
+        }
+        List<HeimlichAndCoAgentMoveAction> actions = calculatePossibleActions(board.getAgents(), board.getLastDieRoll(), withCards);
+        for (int i = 0; i < actions.size(); i++) {
+            int id = actions.get(i).getId();
+            if (id < 0) {
+                throw new IllegalStateException("The possible actions cannot be encoded as ids.");
+            }
+            out[offset + i] = id;
+        }
+        return actions.size();
+    }
+
+    /**
+     * Calculates all possible actions for the given agents and die result, i.e. all ways to distribute the die result
+     * (or 1, 2 or 3 if 13 was rolled) among the agents.
+     *
+     * @param playingAgents the agents that are playing
+     * @param dieResult     the result of the die roll
+     * @param withCards     whether the game is with or without cards
+     * @return a List of all possible actions (without duplicates)
+     */
+    private static List<HeimlichAndCoAgentMoveAction> calculatePossibleActions(Agent[] playingAgents, int dieResult, boolean withCards) {
+        List<HeimlichAndCoAgentMoveAction> actions = new ArrayList<>();
+        if (dieResult == 13) {
             if (withCards) {
-                retSet.add(getNoMoveAction());
+                actions.add(getNoMoveAction());
             }
+            addAllCompositions(playingAgents, 0, 1, new int[playingAgents.length], actions);
+            addAllCompositions(playingAgents, 0, 2, new int[playingAgents.length], actions);
+            addAllCompositions(playingAgents, 0, 3, new int[playingAgents.length], actions);
         } else {
-            possibleAmountOfMoves.add(dieResult);
-        }
-
-        Agent[] playingAgents = board.getAgents();
-        for (Integer dieRoll : possibleAmountOfMoves) {
-            for (int agent0 = dieRoll; agent0 >= 0; agent0--) {
-                int rem = dieRoll - agent0;
-                for (int agent1 = rem; agent1 >= 0; agent1--) {
-                    rem = dieRoll - agent0 - agent1;
-                    for (int agent2 = rem; agent2 >= 0; agent2--) {
-                        rem = dieRoll - agent0 - agent1 - agent2;
-                        for (int agent3 = rem; agent3 >= 0; agent3--) {
-                            rem = dieRoll - agent0 - agent1 - agent2 - agent3;
-                            if (playingAgents.length > 5) {
-                                for (int agent4 = rem; agent4 >= 0; agent4--) {
-                                    rem = dieRoll - agent0 - agent1 - agent2 - agent3 - agent4;
-                                    if (playingAgents.length > 6) {
-                                        for (int agent5 = rem; agent5 >= 0; agent5--) {
-                                            rem = dieRoll - agent0 - agent1 - agent2 - agent3 - agent4 - agent5;
-                                            Map<Agent, Integer> agentsMoves =
-                                                    agentsMoveHelper(playingAgents, agent0, agent1, agent2, agent3, agent4, agent5, rem);
-                                            retSet.add(new HeimlichAndCoAgentMoveAction
-                                                    (agentsMoves));
-                                        }
-                                    } else {
-                                        //this means all remaining points have to be given to the remaining agent
-                                        Map<Agent, Integer> agentsMoves =
-                                                agentsMoveHelper(playingAgents, agent0, agent1, agent2, agent3, agent4, rem);
-                                        retSet.add(new HeimlichAndCoAgentMoveAction
-                                                (agentsMoves));
-                                    }
-                                }
-                            } else {
-                                //this means all remaining points have to be given to the remaining agent
-                                Map<Agent, Integer> agentsMoves =
-                                        agentsMoveHelper(playingAgents, agent0, agent1, agent2, agent3, rem);
-                                retSet.add(new HeimlichAndCoAgentMoveAction
-                                        (agentsMoves));
-                            }
+            addAllCompositions(playingAgents, 0, dieResult, new int[playingAgents.length], actions);
+        }
+        return actions;
+    }
 
-                        }
-                    }
-                }
-            }
+    /**
+     * Adds an action for every way to distribute the remaining number of fields among the agents from the given
+     * index onward (the agents before the index are already assigned in moves).
+     *
+     * @param playingAgents the agents that are playing
+     * @param index         index of the next agent that gets assigned a number of fields
+     * @param remaining     the number of fields that still have to be distributed
+     * @param moves         the number of fields assigned to each agent so far
+     * @param actions       list to which the actions are added
+     */
+    private static void addAllCompositions(Agent[] playingAgents, int index, int remaining, int[] moves,
+                                           List<HeimlichAndCoAgentMoveAction> actions) {
+        if (remaining < 0) {
+            return;
+        }
+        if (index == playingAgents.length - 1) {
+            //this means all remaining points have to be given to the remaining agent
+            moves[index] = remaining;
+            actions.add(HeimlichAndCoActionUniverse.getAgentMove(playingAgents, moves));
+            return;
+        }
+        for (int amount = remaining; amount >= 0; amount--) {
+            moves[index] = amount;
+            addAllCompositions(playingAgents, index + 1, remaining - amount, moves, actions);
         }
-        return retSet;
     }
 
     /**
@@ -124,7 +225,10 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
      */
     @Override
     public void applyAction(HeimlichAndCoBoard board) {
-        board.moveAgents(agentsMoves);
+        for (int remaining = movedAgentsMask; remaining != 0; remaining &= remaining - 1) {
+            int ordinal = Integer.numberOfTrailingZeros(remaining);
+            board.moveAgent(ALL_AGENTS[ordinal], agentsMoves[ordinal]);
+        }
     }
 
     @Override
@@ -132,6 +236,29 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
         return new HeimlichAndCoAgentMoveAction(this);
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the number of fields the given agent is moved by this action.
+     *
+     * @param a agent in question
+     * @return number of fields (0 if the agent is not moved)
+     */
+    public int getMove(Agent a) {
+        return agentsMoves[a.ordinal()];
+    }
+
+    /**
+     * Returns the bitmask of the agents that are moved by this action, bit i is set if the agent with ordinal i is
+     * moved.
+     */
+    public int getMovedAgentsMask() {
+        return movedAgentsMask;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null) {
@@ -142,22 +269,19 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
         }
         if (obj.getClass().equals(HeimlichAndCoAgentMoveAction.class)) {
             HeimlichAndCoAgentMoveAction toComp = (HeimlichAndCoAgentMoveAction) obj;
-            //compare manually, as a Map with no entry for an agent should be equal to a Map with an entry of value 0 for the same agent
-            //even though there should be no 0 entries for agents
-            for (Agent a : toComp.agentsMoves.keySet()) {
-                if (!(this.agentsMoves.containsKey(a) && this.agentsMoves.get(a).equals(toComp.agentsMoves.get(a)))) {
-                    return false;
-                }
+            if (this.id >= 0 && toComp.id >= 0) {
+                return this.id == toComp.id;
             }
+            return Arrays.equals(this.agentsMoves, toComp.agentsMoves);
         }
-        return true;
+        return false;
     }
 
     @Override
     public int hashCode() {
         int hashCode = 0;
-        for (Map.Entry<Agent, Integer> entry : agentsMoves.entrySet()) {
-            hashCode += (entry.getKey().ordinal() + 37) * entry.getValue();
+        for (int i = 0; i < agentsMoves.length; i++) {
+            hashCode += (i + 37) * agentsMoves[i];
         }
         return hashCode;
     }
@@ -169,9 +293,9 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
      * @return whether the action will move one or more agents into the ruins on the given board
      */
     public boolean movesAgentsIntoRuins(HeimlichAndCoBoard board) {
-        Map<Agent, Integer> positions = board.getAgentsPositions();
-        for (Map.Entry<Agent, Integer> entry : this.agentsMoves.entrySet()) {
-            if ((positions.get(entry.getKey()) + entry.getValue()) % board.getNumberOfFields() == HeimlichAndCoBoard.getRuinsField()) {
+        for (int remaining = movedAgentsMask; remaining != 0; remaining &= remaining - 1) {
+            int ordinal = Integer.numberOfTrailingZeros(remaining);
+            if ((board.getAgentPosition(ALL_AGENTS[ordinal]) + agentsMoves[ordinal]) % board.getNumberOfFields() == HeimlichAndCoBoard.getRuinsField()) {
                 return true;
             }
         }
@@ -181,9 +305,9 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append("AgentMoveAction: ");
-        for (Agent a : Agent.values()) {
-            if (agentsMoves.containsKey(a)) {
-                stringBuilder.append(a.toString()).append(": ").append(agentsMoves.get(a)).append("; ");
+        for (Agent a : ALL_AGENTS) {
+            if (agentsMoves[a.ordinal()] > 0) {
+                stringBuilder.append(a.toString()).append(": ").append(agentsMoves[a.ordinal()]).append("; ");
             }
         }
         if (isNoMoveAction()) {
@@ -196,26 +320,128 @@ public class HeimlichAndCoAgentMoveAction implements HeimlichAndCoAction {
      * @return whether the action is the No Move Action
      */
     public boolean isNoMoveAction() {
-        return agentsMoves.isEmpty();
+        return movedAgentsMask == 0;
     }
 
     /**
-     * creates a Map with Pairs of entries denoting moves for agents
+     * Converts a Map of moves into an array indexed by the ordinals of the agents.
      *
-     * @param playingAgents Array of agents that are playing
-     * @param agentsMoves   integers denoting the amount the corresponding agent should be moved forward
-     * @return Map denoting moves for agents
+     * @param agentsMoves Map determining the amount of fields agents should be moved (may be null)
+     * @return array with the moves of the agents
      */
-    private static Map<Agent, Integer> agentsMoveHelper(Agent[] playingAgents, int... agentsMoves) {
-        if (playingAgents.length != agentsMoves.length) {
-            throw new IllegalArgumentException("There must be the same amount of agents and numbers given.");
+    private static int[] toMovesArray(Map<Agent, Integer> agentsMoves) {
+        int[] moves = new int[ALL_AGENTS.length];
+        if (agentsMoves != null) {
+            for (Map.Entry<Agent, Integer> entry : agentsMoves.entrySet()) {
+                moves[entry.getKey().ordinal()] = entry.getValue();
+            }
         }
-        EnumMap<Agent, Integer> agentsMovesMap = new EnumMap<>(Agent.class);
-        for (int i = 0; i < agentsMoves.length; i++) {
-            if (agentsMoves[i] > 0) {
-                agentsMovesMap.put(playingAgents[i], agentsMoves[i]);
+        return moves;
+    }
+
+    /**
+     * Holds the precomputed possible actions for the standard sets of agents (the first 5, 6 or 7 agents).
+     * Initialised on first use.
+     */
+    private static final class CompositionTables {
+
+        /**
+         * The largest die result for which the actions are precomputed (13 encodes the 1-3 face of the die).
+         */
+        private static final int MAX_DIE_RESULT = 13;
+
+        /**
+         * Precomputed lists, accessed with the index given by tableIndex (null if not precomputed).
+         */
+        private static final List<List<HeimlichAndCoAgentMoveAction>> LISTS = new ArrayList<>();
+
+        /**
+         * Precomputed sets, with the same indices as LISTS.
+         */
+        private static final List<Set<HeimlichAndCoAction>> SETS = new ArrayList<>();
+
+        /**
+         * Ids of the actions in the precomputed lists, with the same indices as LISTS.
+         */
+        private static final List<int[]> IDS = new ArrayList<>();
+
+        static {
+            Agent[] allAgents = Agent.values();
+            for (int numberOfAgents = 0; numberOfAgents <= allAgents.length; numberOfAgents++) {
+                for (int dieResult = 0; dieResult <= MAX_DIE_RESULT; dieResult++) {
+                    boolean precompute = numberOfAgents >= 5 && (dieResult <= 6 || dieResult == MAX_DIE_RESULT);
+                    for (int withCards = 0; withCards <= 1; withCards++) {
+                        if (precompute) {
+                            Agent[] agents = Arrays.copyOf(allAgents, numberOfAgents);
+                            List<HeimlichAndCoAgentMoveAction> list = calculatePossibleActions(agents, dieResult, withCards == 1);
+                            LISTS.add(Collections.unmodifiableList(list));
+                            SETS.add(Collections.unmodifiableSet(new HashSet<>(list)));
+                            int[] ids = new int[list.size()];
+                            for (int i = 0; i < ids.length; i++) {
+                                ids[i] = list.get(i).getId();
+                            }
+                            IDS.add(ids);
+                        } else {
+                            LISTS.add(null);
+                            SETS.add(null);
+                            IDS.add(null);
+                        }
+                    }
+                }
             }
         }
-        return agentsMovesMap;
+
+        private CompositionTables() {
+        }
+
+        /**
+         * Returns the precomputed set for the given board, or null if there is none.
+         */
+        private static Set<HeimlichAndCoAction> getSet(HeimlichAndCoBoard board, boolean withCards) {
+            if (!isPrecomputed(board)) {
+                return null;
+            }
+            return SETS.get(tableIndex(board.getNumberOfAgents(), board.getLastDieRoll(), withCards));
+        }
+
+        /**
+         * Returns the precomputed list for the given board, or null if there is none.
+         */
+        private static List<HeimlichAndCoAgentMoveAction> getList(HeimlichAndCoBoard board, boolean withCards) {
+            if (!isPrecomputed(board)) {
+                return null;
+            }
+            return LISTS.get(tableIndex(board.getNumberOfAgents(), board.getLastDieRoll(), withCards));
+        }
+
+        /**
+         * Returns the ids of the precomputed list for the given board, or null if there is none.
+         */
+        private static int[] getIds(HeimlichAndCoBoard board, boolean withCards) {
+            if (!isPrecomputed(board)) {
+                return null;
+            }
+            return IDS.get(tableIndex(board.getNumberOfAgents(), board.getLastDieRoll(), withCards));
+        }
+
+        /**
+         * Whether the possible actions for the board are precomputed, i.e. the first n agents are playing and the die
+         * result is one of the precomputed ones.
+         */
+        private static boolean isPrecomputed(HeimlichAndCoBoard board) {
+            int dieResult = board.getLastDieRoll();
+            if (dieResult < 0 || dieResult > MAX_DIE_RESULT) {
+                return false;
+            }
+            return board.getAgentsMask() == (1 << board.getNumberOfAgents()) - 1
+                    && LISTS.get(tableIndex(board.getNumberOfAgents(), dieResult, false)) != null;
+        }
+
+        /**
+         * Calculates the index in the tables for the given keys.
+         */
+        private static int tableIndex(int numberOfAgents, int dieResult, boolean withCards) {
+            return (numberOfAgents * (MAX_DIE_RESULT + 1) + dieResult) * 2 + (withCards ? 1 : 0);
+        }
     }
 }
@@ -15,13 +15,18 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
      */
     private final HeimlichAndCoCard card;
     /**
-     * The agents which are needed for playing the card
+     * The agents which are needed for playing the card (sorted if their order does not matter for the card, so equal
+     * actions have equal arrays)
      */
     private final Agent[] agents;
     /**
      * The number needed for playing the card
      */
     private final int number;
+    /**
+     * Id of this action in the HeimlichAndCoActionUniverse (-1 if none).
+     */
+    private final int id;
 
     /**
      * Creates a new HeimlichAndCoCardAction which is the action of playing the card with the given agents (if needed) and the number (if needed).
@@ -32,17 +37,7 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
      * @param number the number needed for playing the card
      */
     public HeimlichAndCoCardAction(HeimlichAndCoCard card, Agent[] agents, int number) {
-        if (card != null) {
-            this.card = card.deepCopy();
-        } else {
-            this.card = null;
-        }
-        if (agents != null) {
-            this.agents = Arrays.copyOf(agents, agents.length);
-        } else {
-            this.agents = new Agent[]{};
-        }
-        this.number = number;
+        this(card == null ? null : card.deepCopy(), agents, number, HeimlichAndCoActionUniverse.getCardActionId(card, agents, number));
     }
 
     /**
@@ -51,7 +46,25 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
      * @param action action to copy
      */
     public HeimlichAndCoCardAction(HeimlichAndCoCardAction action) {
-        this(action.card, action.agents, action.number);
+        this(action.card == null ? null : action.card.deepCopy(), action.agents, action.number, action.id);
+    }
+
+    /**
+     * Creates a new instance with the given values and id, used by the HeimlichAndCoActionUniverse.
+     * The card is not copied.
+     */
+    HeimlichAndCoCardAction(HeimlichAndCoCard card, Agent[] agents, int number, int id) {
+        this.card = card;
+        if (agents != null) {
+            this.agents = Arrays.copyOf(agents, agents.length);
+            if (card != null && card.agentsOrderInvariant()) {
+                Arrays.sort(this.agents);
+            }
+        } else {
+            this.agents = new Agent[]{};
+        }
+        this.number = number;
+        this.id = id;
     }
 
     /**
@@ -66,11 +79,23 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
         return card.getPossibleActions(board);
     }
 
+    /**
+     * Checks whether this action is one of the possible actions for its card and the given board, i.e. whether it is
+     * contained in getPossibleActions(board, card), without calculating the possible actions.
+     * The skip action is always possible. Whether the card is on the hand of the player is not checked.
+     *
+     * @param board current board
+     * @return whether the action is possible
+     */
+    public boolean isPossible(HeimlichAndCoBoard board) {
+        return card == null || card.isValidAction(board, agents, number);
+    }
+
     /**
      * @return the Action that denotes that the player does not want to or cannot play a card
      */
     public static HeimlichAndCoCardAction getSkipCardAction() {
-        return new HeimlichAndCoCardAction(null, null, 0);
+        return HeimlichAndCoActionUniverse.getSkipCardAction();
     }
 
     /**
@@ -91,6 +116,11 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
 
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null) {
@@ -101,23 +131,20 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
         }
         if (obj.getClass().equals(HeimlichAndCoCardAction.class)) {
             HeimlichAndCoCardAction toComp = (HeimlichAndCoCardAction) obj;
+            if (this.id >= 0 && toComp.id >= 0) {
+                return this.id == toComp.id;
+            }
             if (this.isSkipCardAction() && toComp.isSkipCardAction()) {
                 return true;
             }
-            if (!this.card.equals(toComp.card) || this.number != toComp.number) {
+            if (this.isSkipCardAction() || toComp.isSkipCardAction()) {
                 return false;
             }
-            if (this.card.agentsOrderInvariant()) {
-                if (this.agents.length == toComp.agents.length) {
-                    Arrays.sort(this.agents);
-                    Arrays.sort(toComp.agents);
-                    return Arrays.equals(this.agents, toComp.agents);
-                } else {
-                    return false;
-                }
-            } else {
-                return Arrays.equals(this.agents, toComp.agents);
+            if (!this.card.equals(toComp.card) || this.number != toComp.number) {
+                return false;
             }
+            //the agents of order invariant cards are sorted in the constructor
+            return Arrays.equals(this.agents, toComp.agents);
 
         } else {
             return false;
@@ -133,9 +160,6 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
             return 67;
         }
         hashCode += number * 17;
-        if (card.getCardSpecification().agentsOrderInvariant) {
-            Arrays.sort(agents);
-        }
         for (int i = 0; i < agents.length; i++) {
             hashCode += (agents[i].ordinal() * (i + 10)) * 7;
         }
@@ -173,6 +197,33 @@ public class HeimlichAndCoCardAction implements HeimlichAndCoAction {
         return stringBuilder.toString();
     }
 
+    /**
+     * Returns the card that is played with this action (null for the skip action).
+     *
+     * @return the card of this action
+     */
+    public HeimlichAndCoCard getCard() {
+        return card;
+    }
+
+    /**
+     * Returns the agents the card is played with.
+     *
+     * @return a copy of the agents of this action
+     */
+    public Agent[] getAgents() {
+        return Arrays.copyOf(agents, agents.length);
+    }
+
+    /**
+     * Returns the number the card is played with.
+     *
+     * @return the number of this action
+     */
+    public int getNumber() {
+        return number;
+    }
+
     /**
      * @return whether the Action is the Skip Action
      */
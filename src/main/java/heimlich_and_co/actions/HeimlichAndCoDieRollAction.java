@@ -2,19 +2,25 @@ package heimlich_and_co.actions;
 
 import heimlich_and_co.HeimlichAndCoBoard;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 public class HeimlichAndCoDieRollAction implements HeimlichAndCoAction {
 
     /**
-     * Number in case this is a custom action where the result is predetermined.
+     * Number in case this is a custom action where the result is predetermined, or the result of a random roll which
+     * was already rolled (see HeimlichAndCoActionUniverse.getResolvedDieRoll). 0 for a random roll that was not rolled.
      */
-    int dieRoll;
+    final int dieRoll;
     /**
      * Whether this card is a random roll (in a real game this should always be true).
      */
-    boolean randomRoll;
+    final boolean randomRoll;
+    /**
+     * Id of this action in the HeimlichAndCoActionUniverse (-1 if none).
+     */
+    private final int id;
 
     //this is for a "custom" die roll
 
@@ -25,16 +31,14 @@ public class HeimlichAndCoDieRollAction implements HeimlichAndCoAction {
      * @param dieRoll the wanted result of the roll
      */
     public HeimlichAndCoDieRollAction(int dieRoll) {
-        this.dieRoll = dieRoll;
-        this.randomRoll = false;
+        this(dieRoll, false, HeimlichAndCoActionUniverse.getCustomDieRollId(dieRoll));
     }
 
     /**
      * Creates a new HeimlichAndCoDieRollAction instance that represents a random (real) die roll.
      */
     public HeimlichAndCoDieRollAction() {
-        dieRoll = 0;
-        this.randomRoll = true;
+        this(0, true, HeimlichAndCoActionUniverse.RANDOM_DIE_ROLL_ID);
     }
 
     /**
@@ -43,41 +47,76 @@ public class HeimlichAndCoDieRollAction implements HeimlichAndCoAction {
      * @param action action to copy
      */
     public HeimlichAndCoDieRollAction(HeimlichAndCoDieRollAction action) {
-        this.randomRoll = action.randomRoll;
-        this.dieRoll = action.dieRoll;
+        this(action.dieRoll, action.randomRoll, action.id);
+    }
+
+    /**
+     * Creates a new instance with the given values, used by the HeimlichAndCoActionUniverse.
+     */
+    HeimlichAndCoDieRollAction(int dieRoll, boolean randomRoll, int id) {
+        this.dieRoll = dieRoll;
+        this.randomRoll = randomRoll;
+        this.id = id;
     }
 
     /**
      * Calculates the possible die roll actions depending on whether custom rolls are allowed and the die faces that can be rolled.
+     * The actions are the shared instances of the HeimlichAndCoActionUniverse. If custom rolls are not allowed the
+     * same unmodifiable set is returned on every call, therefore the returned set must not be modified.
      *
      * @param allowCustomRoll whether custom die rolls are allowed
      * @param dieFaces        different faces that can be rolled
      * @return Set of HeimlichAndCoActions that denote the possible actions
      */
     public static Set<HeimlichAndCoAction> getPossibleActions(boolean allowCustomRoll, int[] dieFaces) {
+        if (!allowCustomRoll) {
+            return RandomRollHolder.RANDOM_ROLL_SET;
+        }
         Set<HeimlichAndCoAction> possibleActions = new HashSet<>();
-        if (allowCustomRoll) {
-            for (int face : dieFaces) {
-                possibleActions.add(new HeimlichAndCoDieRollAction(face));
-            }
-            possibleActions.add(getRandomRollAction());
-        } else {
-            possibleActions.add(new HeimlichAndCoDieRollAction());
+        for (int face : dieFaces) {
+            possibleActions.add(HeimlichAndCoActionUniverse.getCustomDieRoll(face));
         }
+        possibleActions.add(getRandomRollAction());
         return possibleActions;
     }
 
+    /**
+     * Checks whether this action is contained in getPossibleActions(allowCustomRoll, board.getDieFaces()), without
+     * calculating the possible actions.
+     * Note: Random rolls with a known result are equal to the random roll and therefore possible.
+     *
+     * @param allowCustomRoll whether custom die rolls are allowed
+     * @param board           current board
+     * @return whether the action is possible
+     */
+    public boolean isPossible(boolean allowCustomRoll, HeimlichAndCoBoard board) {
+        if (randomRoll) {
+            return true;
+        }
+        if (!allowCustomRoll) {
+            return false;
+        }
+        for (int face : board.getDieFaces()) {
+            if (face == dieRoll) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns the action that represents a random die roll.
      *
      * @return the Action that denotes the random roll action.
      */
     public static HeimlichAndCoDieRollAction getRandomRollAction() {
-        return new HeimlichAndCoDieRollAction();
+        return HeimlichAndCoActionUniverse.getRandomDieRoll();
     }
 
     /**
      * Applies this action to the given board. The original board is changed.
+     * Note: A random roll does not change this action (as it may be shared), the result of the roll can be read from the
+     * board afterwards.
      *
      * @param board board on which the action should be taken
      */
@@ -87,7 +126,6 @@ public class HeimlichAndCoDieRollAction implements HeimlichAndCoAction {
             board.setLastDieRoll(dieRoll);
         } else {
             board.rollDie();
-            dieRoll = board.getLastDieRoll();
         }
     }
 
@@ -96,6 +134,25 @@ public class HeimlichAndCoDieRollAction implements HeimlichAndCoAction {
         return new HeimlichAndCoDieRollAction(this);
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the predetermined result of a custom roll, the result of a resolved random roll, or 0
+     */
+    public int getDieRoll() {
+        return dieRoll;
+    }
+
+    /**
+     * @return whether this is a random roll
+     */
+    public boolean isRandomRoll() {
+        return randomRoll;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) {
@@ -103,6 +160,9 @@ public class HeimlichAndCoDieRollAction implements HeimlichAndCoAction {
         }
         if (obj != null && obj.getClass().equals(HeimlichAndCoDieRollAction.class)) {
             HeimlichAndCoDieRollAction toComp = (HeimlichAndCoDieRollAction) obj;
+            if (this.id >= 0 && this.id == toComp.id) {
+                return true;
+            }
             if (this.randomRoll) {
                 return toComp.randomRoll;
             } else {
@@ -133,4 +193,11 @@ public class HeimlichAndCoDieRollAction implements HeimlichAndCoAction {
         }
     }
 
+    /**
+     * Holds the set returned when custom rolls are not allowed. Initialised on first use.
+     */
+    private static final class RandomRollHolder {
+        private static final Set<HeimlichAndCoAction> RANDOM_ROLL_SET =
+                Collections.singleton(HeimlichAndCoActionUniverse.getRandomDieRoll());
+    }
 }
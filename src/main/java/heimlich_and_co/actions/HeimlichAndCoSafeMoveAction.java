@@ -2,12 +2,19 @@ package heimlich_and_co.actions;
 
 import heimlich_and_co.HeimlichAndCoBoard;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class HeimlichAndCoSafeMoveAction implements HeimlichAndCoAction {
 
     private final int newSafeLocation;
+    /**
+     * Id of this action in the HeimlichAndCoActionUniverse (-1 if none).
+     */
+    private final int id;
 
     /**
      * Creates a new HeimlichAndCoSafeMoveAction that will move the safe to the new location.
@@ -15,7 +22,7 @@ public class HeimlichAndCoSafeMoveAction implements HeimlichAndCoAction {
      * @param newSafeLocation new location for the safe
      */
     public HeimlichAndCoSafeMoveAction(int newSafeLocation) {
-        this.newSafeLocation = newSafeLocation;
+        this(newSafeLocation, HeimlichAndCoActionUniverse.getSafeMoveId(newSafeLocation));
     }
 
     /**
@@ -24,19 +31,32 @@ public class HeimlichAndCoSafeMoveAction implements HeimlichAndCoAction {
      * @param action action to copy
      */
     public HeimlichAndCoSafeMoveAction(HeimlichAndCoSafeMoveAction action) {
-        this(action.newSafeLocation);
+        this(action.newSafeLocation, action.id);
+    }
+
+    /**
+     * Creates a new instance with the given values, used by the HeimlichAndCoActionUniverse.
+     */
+    HeimlichAndCoSafeMoveAction(int newSafeLocation, int id) {
+        this.newSafeLocation = newSafeLocation;
+        this.id = id;
     }
 
     /**
      * Calculates the possible Safe Move Actions depending on a board. Will not return the action to keep the safe on
      * the location that it is currently on (meaning that action is not allowed).
+     * The sets for the traditional board are precomputed once and the same (unmodifiable) set of shared instances is
+     * returned on every call, therefore the returned set must not be modified.
      *
      * @param board current board
      * @return Set of possible HeimlichAndCoActions
      */
     public static Set<HeimlichAndCoAction> getPossibleActions(HeimlichAndCoBoard board) {
-        Set<HeimlichAndCoAction> possibleActions = new HashSet<>();
         int currentSafePosition = board.getSafePosition();
+        if (board.getNumberOfFields() == HeimlichAndCoActionUniverse.NUMBER_OF_SAFE_MOVES) {
+            return PossibleActionsHolder.SETS.get(currentSafePosition);
+        }
+        Set<HeimlichAndCoAction> possibleActions = new HashSet<>();
         for (int i = 0; i < board.getNumberOfFields(); i++) {
             if (currentSafePosition != i) {
                 possibleActions.add(new HeimlichAndCoSafeMoveAction(i));
@@ -45,6 +65,38 @@ public class HeimlichAndCoSafeMoveAction implements HeimlichAndCoAction {
         return possibleActions;
     }
 
+    /**
+     * Checks whether this action is contained in getPossibleActions(board), without calculating the possible actions.
+     *
+     * @param board current board
+     * @return whether the action is possible
+     */
+    public boolean isPossible(HeimlichAndCoBoard board) {
+        return newSafeLocation >= 0 && newSafeLocation < board.getNumberOfFields() && newSafeLocation != board.getSafePosition();
+    }
+
+    /**
+     * Writes the ids (see HeimlichAndCoActionUniverse) of the possible actions into the given array, in ascending order.
+     *
+     * @param board  current board
+     * @param out    array the ids are written to
+     * @param offset index of out where the first id is written
+     * @return the number of ids written
+     */
+    public static int getPossibleActionIds(HeimlichAndCoBoard board, int[] out, int offset) {
+        int count = 0;
+        for (int i = 0; i < board.getNumberOfFields(); i++) {
+            if (board.getSafePosition() != i) {
+                int id = HeimlichAndCoActionUniverse.getSafeMoveId(i);
+                if (id < 0) {
+                    throw new IllegalStateException("The possible actions cannot be encoded as ids.");
+                }
+                out[offset + count++] = id;
+            }
+        }
+        return count;
+    }
+
     /**
      * Applies this action to the given board. The original board is changed.
      *
@@ -60,6 +112,18 @@ public class HeimlichAndCoSafeMoveAction implements HeimlichAndCoAction {
         return new HeimlichAndCoSafeMoveAction(this);
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the field the safe is moved to
+     */
+    public int getNewSafeLocation() {
+        return newSafeLocation;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null) {
@@ -84,4 +148,30 @@ public class HeimlichAndCoSafeMoveAction implements HeimlichAndCoAction {
         return "SafeMoveAction:" +
                 "move safe to " + newSafeLocation;
     }
+
+    /**
+     * Holds the possible actions for each position of the safe. Initialised on first use.
+     */
+    private static final class PossibleActionsHolder {
+
+        /**
+         * The possible actions, indexed by the current position of the safe.
+         */
+        private static final List<Set<HeimlichAndCoAction>> SETS = new ArrayList<>();
+
+        static {
+            for (int safePosition = 0; safePosition < HeimlichAndCoActionUniverse.NUMBER_OF_SAFE_MOVES; safePosition++) {
+                Set<HeimlichAndCoAction> actions = new HashSet<>();
+                for (int i = 0; i < HeimlichAndCoActionUniverse.NUMBER_OF_SAFE_MOVES; i++) {
+                    if (i != safePosition) {
+                        actions.add(HeimlichAndCoActionUniverse.getSafeMove(i));
+                    }
+                }
+                SETS.add(Collections.unmodifiableSet(actions));
+            }
+        }
+
+        private PossibleActionsHolder() {
+        }
+    }
 }
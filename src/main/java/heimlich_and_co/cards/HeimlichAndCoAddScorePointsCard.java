@@ -1,11 +1,11 @@
 package heimlich_and_co.cards;
 
 import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
 import heimlich_and_co.actions.HeimlichAndCoCardAction;
 import heimlich_and_co.enums.Agent;
 
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -53,6 +53,11 @@ public class HeimlichAndCoAddScorePointsCard extends HeimlichAndCoCard {
         }
     }
 
+    @Override
+    public int getKind() {
+        return 1;
+    }
+
     /**
      * Calculates all possible actions for a board and this card.
      *
@@ -62,21 +67,26 @@ public class HeimlichAndCoAddScorePointsCard extends HeimlichAndCoCard {
     @Override
     public Set<HeimlichAndCoCardAction> getPossibleActions(HeimlichAndCoBoard board) {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
-        Map<Agent, Integer> scores = board.getScores();
         Agent[] agents = board.getAgents();
         for (int i = 0; i < agents.length - 1; i++) {
-            if (scores.get(agents[i]) >= 40) {
+            if (board.getScore(agents[i]) >= 40) {
                 continue;
             }
             for (int j = i + 1; j < agents.length; j++) {
-                if (scores.get(agents[j]) < 40) {
-                    actions.add(new HeimlichAndCoCardAction(this, new Agent[]{agents[i], agents[j]}, 0));
+                if (board.getScore(agents[j]) < 40) {
+                    actions.add(HeimlichAndCoActionUniverse.getCardAction(this, agents[i], agents[j], 0));
                 }
             }
         }
         return actions;
     }
 
+    @Override
+    public boolean isValidAction(HeimlichAndCoBoard board, Agent[] agents, int number) {
+        return number == 0 && isPairOfPlayingAgents(board, agents)
+                && board.getScore(agents[0]) < 40 && board.getScore(agents[1]) < 40;
+    }
+
     @Override
     public int hashCode() {
         return cardSpecification.hashCode() * 41;
@@ -96,13 +106,13 @@ public class HeimlichAndCoAddScorePointsCard extends HeimlichAndCoCard {
      */
     @Override
     protected void applyCardSpecific(HeimlichAndCoBoard board, Agent[] agents, int number) {
-        Map<Agent, Integer> scores = board.getScores();
         for (Agent a : agents) {
-            if (scores.get(a) <= 37) {
-                scores.replace(a, scores.get(a) + 3);
-            } else if (scores.get(a) < 40) {
-                scores.replace(a, 40); //move agent to field 40 because it was either at 39 or 38
-            } else if (scores.get(a) >= 40) {
+            int score = board.getScore(a);
+            if (score <= 37) {
+                board.setScore(a, score + 3);
+            } else if (score < 40) {
+                board.setScore(a, 40); //move agent to field 40 because it was either at 39 or 38
+            } else {
                 throw new IllegalArgumentException("Agents on fields 40 or more cannot be moved with this card.");
             }
         }
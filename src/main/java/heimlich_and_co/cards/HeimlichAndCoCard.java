@@ -1,14 +1,20 @@
 package heimlich_and_co.cards;
 
 import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
 import heimlich_and_co.actions.HeimlichAndCoCardAction;
 import heimlich_and_co.enums.Agent;
 
-import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Set;
 
 public abstract class HeimlichAndCoCard {
 
+    /**
+     * The number of different kinds of cards, see getKind().
+     */
+    public static final int NUMBER_OF_KINDS = 14;
+
     /**
      * The card specification each HeimlichAndCo card must have determining how many agents, numbers are needed and the
      * type of the card.
@@ -36,6 +42,14 @@ public abstract class HeimlichAndCoCard {
 
     public abstract boolean equals(Object obj);
 
+    /**
+     * Returns a number between 0 and NUMBER_OF_KINDS - 1 which identifies the kind of this card, i.e. the class of the
+     * card together with its type. (0: MoveSafeCard, 1: AddScorePointsCard, 2 + type: MoveAgentsCard)
+     *
+     * @return the kind of this card
+     */
+    public abstract int getKind();
+
     /**
      * Calculates all possible actions for a board and this card.
      *
@@ -44,10 +58,81 @@ public abstract class HeimlichAndCoCard {
      */
     public abstract Set<HeimlichAndCoCardAction> getPossibleActions(HeimlichAndCoBoard board);
 
+    /**
+     * Writes the ids (see HeimlichAndCoActionUniverse) of the possible actions for a board and this card into the given
+     * array. Does not allocate for cards with a standard card specification.
+     *
+     * @param board  current board
+     * @param out    array the ids are written to
+     * @param offset index of out where the first id is written
+     * @return the number of ids written
+     * @throws IllegalStateException if one of the possible actions is not part of the universe (i.e. for cards with a
+     *                               non-standard card specification)
+     */
+    public int getPossibleActionIds(HeimlichAndCoBoard board, int[] out, int offset) {
+        int count = HeimlichAndCoActionUniverse.getPossibleCardActionIds(this, board, out, offset);
+        if (count >= 0) {
+            return count;
+        }
+        count = 0;
+        for (HeimlichAndCoCardAction action : getPossibleActions(board)) {
+            if (action.getId() < 0) {
+                throw new IllegalStateException("The possible actions cannot be encoded as ids.");
+            }
+            out[offset + count++] = action.getId();
+        }
+        return count;
+    }
+
+    /**
+     * Returns an iterator over the possible actions for a board and this card, which calculates the actions only as far
+     * as it is advanced (for cards with a standard card specification). The iterator must not be used after the board
+     * was changed.
+     *
+     * @param board current board
+     * @return iterator over the possible actions
+     */
+    public Iterator<HeimlichAndCoCardAction> getPossibleActionsIterator(HeimlichAndCoBoard board) {
+        Iterator<HeimlichAndCoCardAction> iterator = HeimlichAndCoActionUniverse.getPossibleCardActionsIterator(this, board);
+        if (iterator != null) {
+            return iterator;
+        }
+        return getPossibleActions(board).iterator();
+    }
+
+    /**
+     * Returns the number of possible actions for a board and this card, i.e. the size of getPossibleActions(board).
+     * Does not allocate for cards with a standard card specification.
+     *
+     * @param board current board
+     * @return number of possible actions
+     */
+    public int getNumberOfPossibleActions(HeimlichAndCoBoard board) {
+        int count = HeimlichAndCoActionUniverse.getNumberOfPossibleCardActions(this, board);
+        if (count >= 0) {
+            return count;
+        }
+        return getPossibleActions(board).size();
+    }
+
     public abstract int hashCode();
 
     public abstract String toString();
 
+    /**
+     * Checks whether playing this card with the given agents and number on the given board is possible, i.e. whether
+     * an equal action is contained in getPossibleActions(board).
+     * The implementation of this class creates the possible actions, subclasses check the preconditions directly.
+     *
+     * @param board  current board
+     * @param agents the agents the card is played with (not null)
+     * @param number the number the card is played with
+     * @return whether the action is possible
+     */
+    public boolean isValidAction(HeimlichAndCoBoard board, Agent[] agents, int number) {
+        return getPossibleActions(board).contains(new HeimlichAndCoCardAction(this, agents, number));
+    }
+
     /**
      * Will return true if the card will have the same outcome whether it is played with [Agent1, Agent2] or [Agent2, Agent1]
      * I.e. if the card is order invariant when it comes to the agents.
@@ -71,11 +156,10 @@ public abstract class HeimlichAndCoCard {
             throw new IllegalArgumentException("One of the argument arrays is not valid with the Card Specification");
         }
         //check validity with playing agents and check whether an agent is null
-        Agent[] playingAgents = board.getAgents();
         for (Agent a : agents) {
             if (a == null) {
                 throw new IllegalArgumentException("An agent cannot be null.");
-            } else if (!Arrays.asList(playingAgents).contains(a)) {
+            } else if (!board.isPlaying(a)) {
                 throw new IllegalArgumentException("A non playing agent was given.");
             }
         }
@@ -92,6 +176,28 @@ public abstract class HeimlichAndCoCard {
         return cardSpecification;
     }
 
+    /**
+     * Checks whether the given agents consist of exactly one agent which is playing on the board.
+     *
+     * @param board  current board
+     * @param agents agents in question
+     * @return whether agents is a single playing agent
+     */
+    protected static boolean isSinglePlayingAgent(HeimlichAndCoBoard board, Agent[] agents) {
+        return agents.length == 1 && board.isPlaying(agents[0]);
+    }
+
+    /**
+     * Checks whether the given agents consist of exactly two different agents which are playing on the board.
+     *
+     * @param board  current board
+     * @param agents agents in question
+     * @return whether agents is a pair of different playing agents
+     */
+    protected static boolean isPairOfPlayingAgents(HeimlichAndCoBoard board, Agent[] agents) {
+        return agents.length == 2 && agents[0] != agents[1] && board.isPlaying(agents[0]) && board.isPlaying(agents[1]);
+    }
+
     /**
      * Applies this card.
      * Used to implement the specific impacts of a card.
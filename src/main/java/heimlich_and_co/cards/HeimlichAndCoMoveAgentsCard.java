@@ -1,6 +1,7 @@
 package heimlich_and_co.cards;
 
 import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
 import heimlich_and_co.actions.HeimlichAndCoCardAction;
 import heimlich_and_co.enums.Agent;
 
@@ -56,6 +57,11 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         }
     }
 
+    @Override
+    public int getKind() {
+        return 2 + cardSpecification.type;
+    }
+
     /**
      * Calculates all possible actions for a board and this card.
      * The result of this depends mainly on the specific type of this card. Therefore, this method calls helper methods
@@ -96,6 +102,55 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         }
     }
 
+    /**
+     * Checks the preconditions of the specific type of this card directly, with the same result as checking whether the
+     * possible actions contain the action.
+     *
+     * @param board  current board
+     * @param agents the agents the card is played with (not null)
+     * @param number the number the card is played with
+     * @return whether the action is possible
+     */
+    @Override
+    public boolean isValidAction(HeimlichAndCoBoard board, Agent[] agents, int number) {
+        switch (super.cardSpecification.type) {
+            case 0:
+                return isSinglePlayingAgent(board, agents) && (number == -1 || number == -2);
+            case 1:
+                return isSinglePlayingAgent(board, agents) && (number == -1 || number == 1);
+            case 2:
+            case 3:
+                return number == 0 && isPairOfPlayingAgents(board, agents);
+            case 4:
+                return isSinglePlayingAgent(board, agents) && (number == -1 || number == 1)
+                        && board.getAgentPosition(agents[0]) == board.getSafePosition();
+            case 5:
+                return number == 0 && isSinglePlayingAgent(board, agents) && board.getAgentPosition(agents[0]) != 11;
+            case 6:
+                return number == 0 && agents.length == 0;
+            case 7:
+            case 8:
+                return number == 0 && isPairOfPlayingAgents(board, agents)
+                        && board.getAgentPosition(agents[0]) != board.getAgentPosition(agents[1]);
+            case 9:
+                if (number != 0) {
+                    return false;
+                }
+                if (isSinglePlayingAgent(board, agents)) {
+                    return board.getAgentPosition(agents[0]) == 11;
+                }
+                return isPairOfPlayingAgents(board, agents)
+                        && board.getAgentPosition(agents[0]) == 11 && board.getAgentPosition(agents[1]) == 11;
+            case 10:
+                return isSinglePlayingAgent(board, agents) && number >= 1 && number <= 3;
+            case 11:
+                return number == 0 && isSinglePlayingAgent(board, agents)
+                        && board.getAgentPosition(agents[0]) != board.getSafePosition();
+            default:
+                throw new IllegalStateException(ILLEGAL_TYPE_MESSAGE);
+        }
+    }
+
     @Override
     public int hashCode() {
         return cardSpecification.hashCode() * 47;
@@ -134,7 +189,7 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
 
     private Set<HeimlichAndCoCardAction> getPossibleActionsType6() {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
-        actions.add(new HeimlichAndCoCardAction(this, null, 0));
+        actions.add(HeimlichAndCoActionUniverse.getCardAction(this, null, null, 0));
         return actions;
     }
 
@@ -229,7 +284,7 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
     }
 
     private void applyType4(HeimlichAndCoBoard board, Agent agent, int number) {
-        if (board.getAgentsPositions().get(agent) != board.getSafePosition()) {
+        if (board.getAgentPosition(agent) != board.getSafePosition()) {
             throw new IllegalArgumentException("Agent must be in the same building as the safe");
         }
         if (number == 1 || number == -1) {
@@ -251,21 +306,19 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
     }
 
     private void applyType7(HeimlichAndCoBoard board, Agent[] agents) {
-        Map<Agent, Integer> positions = board.getAgentsPositions();
-        int oldPosition0 = positions.get(agents[0]);
-        int oldPosition1 = positions.get(agents[1]);
+        int oldPosition0 = board.getAgentPosition(agents[0]);
+        int oldPosition1 = board.getAgentPosition(agents[1]);
         board.moveAgentToAbsoluteBuilding(agents[0], oldPosition1);
         board.moveAgentToAbsoluteBuilding(agents[1], oldPosition0);
     }
 
     private void applyType8(HeimlichAndCoBoard board, Agent[] agents) {
-        board.moveAgentToAbsoluteBuilding(agents[0], board.getAgentsPositions().get(agents[1]));
+        board.moveAgentToAbsoluteBuilding(agents[0], board.getAgentPosition(agents[1]));
     }
 
     private void applyType9(HeimlichAndCoBoard board, Agent[] agents) {
-        Map<Agent, Integer> positions = board.getAgentsPositions();
         for (Agent a : agents) {
-            if (positions.get(a) != 11) {
+            if (board.getAgentPosition(a) != 11) {
                 throw new IllegalArgumentException("Agent must be in the ruins before moving it");
             }
         }
@@ -296,8 +349,8 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
         Agent[] agents = board.getAgents();
         for (Agent a : agents) {
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, -1));
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, -2));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, -1));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, -2));
         }
         return actions;
     }
@@ -306,8 +359,8 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
         Agent[] agents = board.getAgents();
         for (Agent a : agents) {
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, -1));
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 1));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, -1));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 1));
         }
         return actions;
     }
@@ -316,9 +369,9 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
         Agent[] playingAgents = board.getAgents();
         for (Agent a : playingAgents) {
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 1));
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 2));
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 3));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 1));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 2));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 3));
         }
         return actions;
     }
@@ -327,8 +380,8 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
         Agent[] playingAgents = board.getAgents();
         for (Agent a : playingAgents) {
-            if (!board.getAgentsPositions().get(a).equals(board.getSafePosition())) {
-                actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 0));
+            if (board.getAgentPosition(a) != board.getSafePosition()) {
+                actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 0));
             }
         }
         return actions;
@@ -338,7 +391,7 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
         List<Agent[]> agentPairs = this.getPairsOfAgents(board.getAgents());
         for (Agent[] pair : agentPairs) {
-            actions.add(new HeimlichAndCoCardAction(this, pair, 0));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, pair[0], pair[1], 0));
         }
         return actions;
     }
@@ -349,21 +402,22 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
 
     private Set<HeimlichAndCoCardAction> getPossibleActionsType4(HeimlichAndCoBoard board) {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
-        Map<Integer, Agent[]> agentsOnFields = board.agentsOnFields();
-        for (Agent a : agentsOnFields.get(board.getSafePosition())) {
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, -1));
-            actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 1));
+        Agent[] allAgents = Agent.values();
+        int agentsOnSafe = board.getAgentsOnFieldMask(board.getSafePosition());
+        for (int remaining = agentsOnSafe; remaining != 0; remaining &= remaining - 1) {
+            Agent a = allAgents[Integer.numberOfTrailingZeros(remaining)];
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, -1));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 1));
         }
         return actions;
     }
 
     private Set<HeimlichAndCoCardAction> getPossibleActionsType5(HeimlichAndCoBoard board) {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
-        Map<Agent, Integer> agentsPositions = board.getAgentsPositions();
         Agent[] agents = board.getAgents();
         for (Agent a : agents) {
-            if (agentsPositions.get(a) != 11) {
-                actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 0));
+            if (board.getAgentPosition(a) != 11) {
+                actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 0));
             }
         }
         return actions;
@@ -373,8 +427,8 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
         List<Agent[]> agentPairs = this.getPairsOfAgents(board.getAgents());
         for (Agent[] pair : agentPairs) {
-            if (!board.getAgentsPositions().get(pair[0]).equals(board.getAgentsPositions().get(pair[1]))) {
-                actions.add(new HeimlichAndCoCardAction(this, pair, 0));
+            if (board.getAgentPosition(pair[0]) != board.getAgentPosition(pair[1])) {
+                actions.add(HeimlichAndCoActionUniverse.getCardAction(this, pair[0], pair[1], 0));
             }
         }
         return actions;
@@ -386,8 +440,8 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         //for this card the order of agents matters, therefore do it differently here
         for (int i = 0; i < playingAgents.length; i++) {
             for (int j = 0; j < playingAgents.length; j++) {
-                if (i != j && !board.getAgentsPositions().get(playingAgents[i]).equals(board.getAgentsPositions().get(playingAgents[j]))) {
-                    actions.add(new HeimlichAndCoCardAction(this, new Agent[]{playingAgents[i], playingAgents[j]}, 0));
+                if (i != j && board.getAgentPosition(playingAgents[i]) != board.getAgentPosition(playingAgents[j])) {
+                    actions.add(HeimlichAndCoActionUniverse.getCardAction(this, playingAgents[i], playingAgents[j], 0));
                 }
             }
         }
@@ -398,14 +452,14 @@ public class HeimlichAndCoMoveAgentsCard extends HeimlichAndCoCard {
         Set<HeimlichAndCoCardAction> actions = new HashSet<>();
         Agent[] playingAgents = board.getAgents();
         for (Agent a : playingAgents) {
-            if (board.getAgentsPositions().get(a).equals(11)) {
-                actions.add(new HeimlichAndCoCardAction(this, new Agent[]{a}, 0));
+            if (board.getAgentPosition(a) == 11) {
+                actions.add(HeimlichAndCoActionUniverse.getCardAction(this, a, null, 0));
             }
         }
         List<Agent[]> agentPairs = getPairsOfAgents(playingAgents);
         for (Agent[] pair : agentPairs) {
-            if (board.getAgentsPositions().get(pair[0]).equals(11) && board.getAgentsPositions().get(pair[1]).equals(11)) {
-                actions.add(new HeimlichAndCoCardAction(this, new Agent[]{pair[0], pair[1]}, 0));
+            if (board.getAgentPosition(pair[0]) == 11 && board.getAgentPosition(pair[1]) == 11) {
+                actions.add(HeimlichAndCoActionUniverse.getCardAction(this, pair[0], pair[1], 0));
             }
         }
         return actions;
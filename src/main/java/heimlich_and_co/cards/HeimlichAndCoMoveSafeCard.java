@@ -1,6 +1,7 @@
 package heimlich_and_co.cards;
 
 import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
 import heimlich_and_co.actions.HeimlichAndCoCardAction;
 import heimlich_and_co.enums.Agent;
 
@@ -54,6 +55,11 @@ public class HeimlichAndCoMoveSafeCard extends HeimlichAndCoCard {
         }
     }
 
+    @Override
+    public int getKind() {
+        return 0;
+    }
+
     /**
      * Calculates all possible actions for a board and this card.
      *
@@ -68,11 +74,16 @@ public class HeimlichAndCoMoveSafeCard extends HeimlichAndCoCard {
             if (board.getSafePosition() == i) {
                 continue;
             }
-            actions.add(new HeimlichAndCoCardAction(this, null, i));
+            actions.add(HeimlichAndCoActionUniverse.getCardAction(this, null, null, i));
         }
         return actions;
     }
 
+    @Override
+    public boolean isValidAction(HeimlichAndCoBoard board, Agent[] agents, int number) {
+        return agents.length == 0 && number >= 0 && number < board.getNumberOfFields() && number != board.getSafePosition();
+    }
+
     @Override
     public int hashCode() {
         return cardSpecification.hashCode() * 53;
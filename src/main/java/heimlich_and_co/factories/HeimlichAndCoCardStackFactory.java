@@ -4,9 +4,15 @@ import heimlich_and_co.cards.*;
 import heimlich_and_co.util.CardStack;
 
 import java.util.LinkedList;
+import java.util.Random;
 
 public class HeimlichAndCoCardStackFactory {
 
+    /**
+     * How many cards of each kind (see HeimlichAndCoCard.getKind()) are in the card stack of the traditional game.
+     */
+    private static final int[] NUMBER_OF_CARDS_PER_KIND = {2, 2, 2, 2, 2, 2, 2, 2, 1, 1, 1, 2, 2, 2};
+
     private HeimlichAndCoCardStackFactory() {
     }
 
@@ -17,54 +23,87 @@ public class HeimlichAndCoCardStackFactory {
      * @return a new CardStack instance filled with cards
      */
     public static CardStack<HeimlichAndCoCard> newInstance() {
-        LinkedList<HeimlichAndCoCard> cards = new LinkedList<>();
+        CardStack<HeimlichAndCoCard> cardStack = newUnshuffledInstance();
+        cardStack.shuffle();
+        return cardStack;
+    }
 
-        //Add Move Safe Cards
-        cards.add(new HeimlichAndCoMoveSafeCard(new HeimlichAndCoCardSpecification(0, 0, true, 0, true)));
-        cards.add(new HeimlichAndCoMoveSafeCard(new HeimlichAndCoCardSpecification(0, 0, true, 0, true)));
+    /**
+     * Creates a new CardStack instance with all cards that are in a card stack in the traditional HeimlichAndCo game.
+     * Also shuffles the stack with the given random number generator.
+     *
+     * @param random random number generator used for shuffling
+     * @return a new CardStack instance filled with cards
+     */
+    public static CardStack<HeimlichAndCoCard> newInstance(Random random) {
+        CardStack<HeimlichAndCoCard> cardStack = newUnshuffledInstance();
+        cardStack.shuffle(random);
+        return cardStack;
+    }
 
-        //Add Score Points Cards
-        cards.add(new HeimlichAndCoAddScorePointsCard(new HeimlichAndCoCardSpecification(2, 2, false, 0, true)));
-        cards.add(new HeimlichAndCoAddScorePointsCard(new HeimlichAndCoCardSpecification(2, 2, false, 0, true)));
+    private static CardStack<HeimlichAndCoCard> newUnshuffledInstance() {
+        LinkedList<HeimlichAndCoCard> cards = new LinkedList<>();
+        for (int kind = 0; kind < HeimlichAndCoCard.NUMBER_OF_KINDS; kind++) {
+            for (int i = 0; i < NUMBER_OF_CARDS_PER_KIND[kind]; i++) {
+                cards.add(newStandardCard(kind));
+            }
+        }
 
-        //Add Move Agents Cards
-        //type 0
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 0, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 0, true)));
-        //type 1
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 1, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 1, true)));
-        //type 2
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 2, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 2, true)));
-        //type 3
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 3, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 3, true)));
-        //type 4
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 4, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 4, true)));
-        //type 5
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, false, 5, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, false, 5, true)));
-        //type 6
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(0, 0, false, 6, true)));
-        //type 7
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 7, true)));
-        //type 8
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 8, false)));
-        //type 9
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 2, false, 9, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 2, false, 9, true)));
-        //type 10
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 10, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 10, true)));
-        //type 11
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, false, 11, true)));
-        cards.add(new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, false, 11, true)));
+        return new CardStack<>(cards);
+    }
 
-        CardStack<HeimlichAndCoCard> cardStack = new CardStack<>(cards);
-        cardStack.shuffle();
-        return cardStack;
+    /**
+     * Returns how many cards of the given kind (see HeimlichAndCoCard.getKind()) are in the card stack of the
+     * traditional game.
+     *
+     * @param kind kind of the card (between 0 and HeimlichAndCoCard.NUMBER_OF_KINDS - 1)
+     * @return the number of cards
+     */
+    public static int getNumberOfCardsOfKind(int kind) {
+        if (kind < 0 || kind >= NUMBER_OF_CARDS_PER_KIND.length) {
+            throw new IllegalArgumentException("Invalid kind of card: " + kind);
+        }
+        return NUMBER_OF_CARDS_PER_KIND[kind];
+    }
+
+    /**
+     * Creates a new card of the given kind (see HeimlichAndCoCard.getKind()) with the card specification the card has
+     * in the traditional HeimlichAndCo game.
+     *
+     * @param kind kind of the card (between 0 and HeimlichAndCoCard.NUMBER_OF_KINDS - 1)
+     * @return a new card
+     */
+    public static HeimlichAndCoCard newStandardCard(int kind) {
+        switch (kind) {
+            case 0:
+                return new HeimlichAndCoMoveSafeCard(new HeimlichAndCoCardSpecification(0, 0, true, 0, true));
+            case 1:
+                return new HeimlichAndCoAddScorePointsCard(new HeimlichAndCoCardSpecification(2, 2, false, 0, true));
+            case 2: //type 0
+            case 3: //type 1
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, kind - 2, true));
+            case 4: //type 2
+            case 5: //type 3
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, kind - 2, true));
+            case 6: //type 4
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 4, true));
+            case 7: //type 5
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, false, 5, true));
+            case 8: //type 6
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(0, 0, false, 6, true));
+            case 9: //type 7
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 7, true));
+            case 10: //type 8
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(2, 2, false, 8, false));
+            case 11: //type 9
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 2, false, 9, true));
+            case 12: //type 10
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, true, 10, true));
+            case 13: //type 11
+                return new HeimlichAndCoMoveAgentsCard(new HeimlichAndCoCardSpecification(1, 1, false, 11, true));
+            default:
+                throw new IllegalArgumentException("Invalid kind of card: " + kind);
+        }
     }
 
     /**
@@ -76,7 +115,19 @@ public class HeimlichAndCoCardStackFactory {
      * @return new CardStack instance
      */
     public static CardStack<HeimlichAndCoCard> newInstance(int size) {
-        CardStack<HeimlichAndCoCard> cardStack = newInstance();
+        return newInstance(size, new Random());
+    }
+
+    /**
+     * Creates a new CardStack instance with the given number of cards of the traditional card stack, shuffled with the
+     * given random number generator.
+     *
+     * @param size   size the new CardStack should have
+     * @param random random number generator used for shuffling
+     * @return new CardStack instance
+     */
+    public static CardStack<HeimlichAndCoCard> newInstance(int size, Random random) {
+        CardStack<HeimlichAndCoCard> cardStack = newInstance(random);
         if (size > cardStack.count()) {
             throw new IllegalArgumentException("Size is too large, cannot create a cardStack with this many cards");
         }
@@ -0,0 +1,472 @@
+package heimlich_and_co.persistence;
+
+import at.ac.tuwien.ifs.sge.game.ActionRecord;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoCodec;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An append-only store of played games in memory-mapped segment files, e.g. for the games of self-play or tournaments.
+ * <p>
+ * Each game is stored as its initial state (encoded with HeimlichAndCoCodec) followed by its action records as
+ * fixed-width entries of 2 bytes (id of the action in the HeimlichAndCoActionUniverse * 8 + player), so a single action
+ * record can be read without reading the records before it. A game is replayed by decoding the initial state and
+ * replaying the records with HeimlichAndCo.replayAction, which reproduces the state of the game after any number of
+ * actions, as long as no player was disqualified during the game (disqualifications are not action records).
+ * <p>
+ * When a game is appended, all of its actions are replayed once (checking that every action is valid and recorded for
+ * the current player), and the Zobrist key of the state after every checksumInterval actions is stored as a checksum.
+ * A GameReplayer can then replay the games without checking the actions, and verify that the replayed states still
+ * match the checksums.
+ * <p>
+ * The games are written into segment files (segment-000000.log, segment-000001.log, ...) of a fixed size in the
+ * directory of the store; a new segment is started when a game does not fit into the current one. Format of a segment:
+ * <pre>
+ * int      magic number (0x48434c47, "HCLG")
+ * int      version of the format (2)
+ * for each game:
+ *   int      size of the entry of the game in bytes (written last, 0 marks the end of the segment)
+ *   int      number of action records
+ *   short    size of the initial state in bytes
+ *   short    checksum interval (0 if there are no checksums)
+ *   bytes    initial state
+ *   short    action record, for each action record
+ *   long     Zobrist key of the state after checksum interval * (i + 1) actions, for each full interval
+ * </pre>
+ * <p>
+ * The index of the offsets of the games is kept in memory and rebuilt by skipping from entry to entry when a store is
+ * opened. As the size of an entry is written after the rest of the entry, a game that was only written partially (e.g.
+ * because the process crashed) is not part of the store and is overwritten by the next game.
+ * <p>
+ * Appending and reading is thread-safe. The segments are written to the files by the operating system; force() waits
+ * until this has happened.
+ */
+public class GameLogStore implements Closeable {
+
+    /**
+     * The default size of a segment (64 MiB).
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    /**
+     * The default number of actions between two checksums (8 bytes per checksum, i.e. a quarter of a byte per action).
+     */
+    public static final int DEFAULT_CHECKSUM_INTERVAL = 32;
+
+    private static final int MAGIC = 0x48434c47;
+    private static final int VERSION = 2;
+    private static final int SEGMENT_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int ENTRY_HEADER_SIZE = 2 * Integer.BYTES + 2 * Short.BYTES;
+    private static final int RECORD_SIZE = Short.BYTES;
+    private static final int BITS_PER_PLAYER = 3;
+    private static final int MAXIMUM_STATE_SIZE = 0xFFFF;
+    private static final int MAXIMUM_CHECKSUM_INTERVAL = 0xFFFF;
+
+    static {
+        if (HeimlichAndCoActionUniverse.size() << BITS_PER_PLAYER > 1 << Short.SIZE) {
+            throw new IllegalStateException("The action records do not fit into 2 bytes.");
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    /**
+     * offsets[game] is the index of the segment of the game (high 32 bits) and the position of the game in the segment
+     * (low 32 bits).
+     */
+    private long[] offsets = new long[1024];
+    private int numberOfGames;
+    /**
+     * Position in the last segment where the next game is written.
+     */
+    private int writePosition;
+    private boolean closed;
+
+    /**
+     * Opens the store in the given directory with the default segment size, and creates the directory if it does not
+     * exist.
+     *
+     * @param directory the directory
+     * @throws IOException if the segments cannot be opened or are corrupted
+     */
+    public GameLogStore(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the store in the given directory, and creates the directory if it does not exist. The segment size must be
+     * the same every time a store is opened.
+     *
+     * @param directory   the directory
+     * @param segmentSize size of the segment files in bytes, limits the size of a single game
+     * @throws IOException if the segments cannot be opened or are corrupted
+     */
+    public GameLogStore(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("The segment size must be at least 1024 bytes.");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        for (int segment = 0; Files.exists(segmentPath(segment)); segment++) {
+            openSegment(segment);
+            readIndex(segment);
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+            writePosition = SEGMENT_HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Appends a game with a checksum every DEFAULT_CHECKSUM_INTERVAL actions.
+     *
+     * @param initialState  the state in which the game started (its action records are not stored)
+     * @param actionRecords the action records of the actions taken from the initial state, e.g.
+     *                      game.getActionRecords().subList(initialState.getActionRecords().size(), ...)
+     * @return the index of the game in the store
+     * @throws IllegalArgumentException if the game does not fit into a segment, the state or an action cannot be
+     *                                  encoded, an action is not valid, or a record has the wrong player
+     * @throws UncheckedIOException     if a new segment cannot be created
+     */
+    public int append(HeimlichAndCo initialState, List<ActionRecord<HeimlichAndCoAction>> actionRecords) {
+        return append(initialState, actionRecords, DEFAULT_CHECKSUM_INTERVAL);
+    }
+
+    /**
+     * Appends a game.
+     *
+     * @param initialState     the state in which the game started (its action records are not stored)
+     * @param actionRecords    the action records of the actions taken from the initial state, e.g.
+     *                         game.getActionRecords().subList(initialState.getActionRecords().size(), ...)
+     * @param checksumInterval number of actions between two checksums, 0 for no checksums (the actions are checked
+     *                         anyway)
+     * @return the index of the game in the store
+     * @throws IllegalArgumentException if the game does not fit into a segment, the state or an action cannot be
+     *                                  encoded, an action is not valid, or a record has the wrong player
+     * @throws UncheckedIOException     if a new segment cannot be created
+     */
+    public int append(HeimlichAndCo initialState, List<ActionRecord<HeimlichAndCoAction>> actionRecords,
+                      int checksumInterval) {
+        if (checksumInterval < 0 || checksumInterval > MAXIMUM_CHECKSUM_INTERVAL) {
+            throw new IllegalArgumentException("Invalid checksum interval: " + checksumInterval);
+        }
+        byte[] state = HeimlichAndCoCodec.encode(initialState, false);
+        if (state.length > MAXIMUM_STATE_SIZE) {
+            throw new IllegalArgumentException("The initial state is too large.");
+        }
+        //iterated instead of indexed, as get(i) of an ActionHistory walks from its end
+        short[] records = new short[actionRecords.size()];
+        int i = 0;
+        for (ActionRecord<HeimlichAndCoAction> record : actionRecords) {
+            if (record.getPlayer() < 0 || record.getPlayer() >= 1 << BITS_PER_PLAYER) {
+                throw new IllegalArgumentException("Invalid player of an action record: " + record.getPlayer());
+            }
+            int id = HeimlichAndCoActionUniverse.encode(record.getAction());
+            records[i++] = (short) (id << BITS_PER_PLAYER | record.getPlayer());
+        }
+        long[] checksums = calculateChecksums(state, actionRecords, checksumInterval);
+        synchronized (this) {
+            return append(state, records, checksumInterval, checksums);
+        }
+    }
+
+    public synchronized int getNumberOfGames() {
+        return numberOfGames;
+    }
+
+    /**
+     * Decodes the initial state of the given game.
+     *
+     * @param game index of the game
+     * @return a new game in the initial state
+     */
+    public HeimlichAndCo getInitialState(int game) {
+        return entry(game).decodeInitialState();
+    }
+
+    /**
+     * @param game index of the game
+     * @return the number of action records of the given game
+     */
+    public int getNumberOfActions(int game) {
+        return entry(game).numberOfActions;
+    }
+
+    /**
+     * Reads a single action record of the given game.
+     *
+     * @param game   index of the game
+     * @param action index of the action record
+     * @return the action record
+     */
+    public ActionRecord<HeimlichAndCoAction> getActionRecord(int game, int action) {
+        Entry entry = entry(game);
+        if (action < 0 || action >= entry.numberOfActions) {
+            throw new IndexOutOfBoundsException("Invalid index of an action record: " + action);
+        }
+        return new ActionRecord<>(entry.getPlayer(action), HeimlichAndCoActionUniverse.get(entry.getActionId(action)));
+    }
+
+    /**
+     * Reads all action records of the given game.
+     *
+     * @param game index of the game
+     * @return the action records
+     */
+    public List<ActionRecord<HeimlichAndCoAction>> getActionRecords(int game) {
+        Entry entry = entry(game);
+        List<ActionRecord<HeimlichAndCoAction>> records = new ArrayList<>(entry.numberOfActions);
+        for (int i = 0; i < entry.numberOfActions; i++) {
+            records.add(new ActionRecord<>(entry.getPlayer(i), HeimlichAndCoActionUniverse.get(entry.getActionId(i))));
+        }
+        return records;
+    }
+
+    /**
+     * Replays the given game to its end.
+     *
+     * @param game index of the game
+     * @return a new game in the state after all actions
+     */
+    public HeimlichAndCo replay(int game) {
+        return replay(game, getNumberOfActions(game));
+    }
+
+    /**
+     * Replays the first actions of the given game, checking every action (see GameReplayer for replaying many games
+     * fast).
+     *
+     * @param game            index of the game
+     * @param numberOfActions number of actions that are replayed
+     * @return a new game in the state after the given number of actions
+     * @throws IllegalArgumentException if a recorded action is not valid (e.g. a player was disqualified)
+     */
+    public HeimlichAndCo replay(int game, int numberOfActions) {
+        Entry entry = entry(game);
+        if (numberOfActions < 0 || numberOfActions > entry.numberOfActions) {
+            throw new IndexOutOfBoundsException("Invalid number of actions: " + numberOfActions);
+        }
+        HeimlichAndCo state = entry.decodeInitialState();
+        for (int i = 0; i < numberOfActions; i++) {
+            state.replayAction(HeimlichAndCoActionUniverse.get(entry.getActionId(i)));
+        }
+        return state;
+    }
+
+    /**
+     * Waits until all appended games are written to the segment files.
+     */
+    public synchronized void force() {
+        checkOpen();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Writes all appended games to the segment files and closes the store. The mapped segments are released by the
+     * garbage collector.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            force();
+            closed = true;
+            segments.clear();
+        }
+    }
+
+    /**
+     * Returns the entry of the given game.
+     */
+    synchronized Entry entry(int game) {
+        checkOpen();
+        if (game < 0 || game >= numberOfGames) {
+            throw new IndexOutOfBoundsException("Invalid index of a game: " + game);
+        }
+        int segment = (int) (offsets[game] >>> Integer.SIZE);
+        return new Entry(segments.get(segment).duplicate(), (int) offsets[game]);
+    }
+
+    /**
+     * Replays the given encoded state with all of the given records, checking every action and its player, and returns
+     * the Zobrist keys after every full interval.
+     */
+    private static long[] calculateChecksums(byte[] state, List<ActionRecord<HeimlichAndCoAction>> actionRecords,
+                                             int checksumInterval) {
+        long[] checksums = new long[checksumInterval == 0 ? 0 : actionRecords.size() / checksumInterval];
+        HeimlichAndCo game = HeimlichAndCoCodec.decode(state);
+        game.setRecordHistory(false);
+        int replayed = 0;
+        for (ActionRecord<HeimlichAndCoAction> record : actionRecords) {
+            if (record.getPlayer() != game.getCurrentPlayer()) {
+                throw new IllegalArgumentException("The player of an action record is not the current player: "
+                        + record.getPlayer());
+            }
+            game.replayAction(record.getAction());
+            replayed++;
+            if (checksumInterval != 0 && replayed % checksumInterval == 0) {
+                checksums[replayed / checksumInterval - 1] = game.getZobristKey();
+            }
+        }
+        return checksums;
+    }
+
+    private int append(byte[] state, short[] records, int checksumInterval, long[] checksums) {
+        checkOpen();
+        long size = ENTRY_HEADER_SIZE + state.length + (long) RECORD_SIZE * records.length
+                + (long) Long.BYTES * checksums.length;
+        if (size > segmentSize - SEGMENT_HEADER_SIZE - Integer.BYTES) {
+            throw new IllegalArgumentException("The game does not fit into a segment.");
+        }
+        //a terminating 0 must always fit after the entry
+        if (writePosition + size + Integer.BYTES > segmentSize) {
+            try {
+                openSegment(segments.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            writePosition = SEGMENT_HEADER_SIZE;
+        }
+        ByteBuffer buffer = segments.get(segments.size() - 1).duplicate();
+        buffer.position(writePosition + Integer.BYTES);
+        buffer.putInt(records.length);
+        buffer.putShort((short) state.length);
+        buffer.putShort((short) checksumInterval);
+        buffer.put(state);
+        for (short record : records) {
+            buffer.putShort(record);
+        }
+        for (long checksum : checksums) {
+            buffer.putLong(checksum);
+        }
+        buffer.putInt(0);
+        buffer.putInt(writePosition, (int) size);
+        addToIndex(segments.size() - 1, writePosition);
+        writePosition += (int) size;
+        return numberOfGames - 1;
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%06d.log", segment));
+    }
+
+    private void openSegment(int segment) throws IOException {
+        Path path = segmentPath(segment);
+        boolean exists = Files.exists(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (exists && channel.size() != segmentSize) {
+                throw new IOException("The segment " + path + " does not have the size " + segmentSize + ".");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            if (exists) {
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+                    throw new IOException("The file " + path + " is not a segment of a supported version.");
+                }
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(Integer.BYTES, VERSION);
+            }
+            segments.add(buffer);
+        }
+    }
+
+    /**
+     * Adds the games of the given segment to the index, and sets the write position to the end of the segment.
+     */
+    private void readIndex(int segment) throws IOException {
+        MappedByteBuffer buffer = segments.get(segment);
+        int position = SEGMENT_HEADER_SIZE;
+        while (position + Integer.BYTES <= segmentSize) {
+            int size = buffer.getInt(position);
+            if (size == 0) {
+                break;
+            }
+            if (size < ENTRY_HEADER_SIZE || size > segmentSize - position) {
+                throw new IOException("Corrupted entry in " + segmentPath(segment) + " at position " + position + ".");
+            }
+            addToIndex(segment, position);
+            position += size;
+        }
+        writePosition = position;
+    }
+
+    private void addToIndex(int segment, int position) {
+        if (numberOfGames == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+        offsets[numberOfGames++] = (long) segment << Integer.SIZE | position;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The store is closed.");
+        }
+    }
+
+    /**
+     * A view of the entry of a game in a segment.
+     */
+    static final class Entry {
+
+        private final ByteBuffer buffer;
+        final int numberOfActions;
+        final int checksumInterval;
+        private final int statePosition;
+        private final int recordsPosition;
+        private final int checksumsPosition;
+
+        private Entry(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.numberOfActions = buffer.getInt(position + Integer.BYTES);
+            int stateSize = buffer.getShort(position + 2 * Integer.BYTES) & 0xFFFF;
+            this.checksumInterval = buffer.getShort(position + 2 * Integer.BYTES + Short.BYTES) & 0xFFFF;
+            this.statePosition = position + ENTRY_HEADER_SIZE;
+            this.recordsPosition = statePosition + stateSize;
+            this.checksumsPosition = recordsPosition + numberOfActions * RECORD_SIZE;
+        }
+
+        HeimlichAndCo decodeInitialState() {
+            buffer.position(statePosition);
+            return HeimlichAndCoCodec.decode(buffer);
+        }
+
+        int getActionId(int action) {
+            return (buffer.getShort(recordsPosition + action * RECORD_SIZE) & 0xFFFF) >>> BITS_PER_PLAYER;
+        }
+
+        int getPlayer(int action) {
+            return buffer.getShort(recordsPosition + action * RECORD_SIZE) & ((1 << BITS_PER_PLAYER) - 1);
+        }
+
+        /**
+         * @return the number of checksums, i.e. of full checksum intervals
+         */
+        int getNumberOfChecksums() {
+            return checksumInterval == 0 ? 0 : numberOfActions / checksumInterval;
+        }
+
+        /**
+         * @return the Zobrist key of the state after checksumInterval * (index + 1) actions
+         */
+        long getChecksum(int index) {
+            return buffer.getLong(checksumsPosition + index * Long.BYTES);
+        }
+    }
+}
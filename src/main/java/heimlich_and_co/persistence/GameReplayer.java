@@ -0,0 +1,116 @@
+package heimlich_and_co.persistence;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+
+/**
+ * Replays the games of a GameLogStore at full speed, e.g. for evaluating all states of the stored games again.
+ * <p>
+ * The actions were checked when the games were appended to the store, therefore they are replayed with
+ * HeimlichAndCo.replayTrustedAction, without checking them again, and without action records and undo information.
+ * Instead, the Zobrist keys of the replayed states are compared to the checksums stored with the games (if enabled),
+ * which detects games that are replayed differently than when they were stored (e.g. because of a corrupted segment or
+ * a change of the rules).
+ */
+public class GameReplayer {
+
+    /**
+     * Receives the states of the replayed games.
+     */
+    public interface Listener {
+
+        /**
+         * Called after each replayed action.
+         *
+         * @param game   index of the game in the store
+         * @param action index of the action in the game
+         * @param state  the state after the action, which is changed by the next action (without action records)
+         */
+        void onAction(int game, int action, HeimlichAndCo state);
+
+        /**
+         * Called after the last action of a game was replayed.
+         *
+         * @param game  index of the game in the store
+         * @param state the final state of the game (without action records)
+         */
+        default void onGameReplayed(int game, HeimlichAndCo state) {
+        }
+    }
+
+    private final GameLogStore store;
+    private boolean verifyChecksums = true;
+
+    /**
+     * Creates a new replayer for the games of the given store.
+     *
+     * @param store the store
+     */
+    public GameReplayer(GameLogStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("The store must not be null.");
+        }
+        this.store = store;
+    }
+
+    /**
+     * Sets whether the replayed states are compared to the checksums of the games (true by default).
+     *
+     * @param verifyChecksums whether the checksums are verified
+     */
+    public void setVerifyChecksums(boolean verifyChecksums) {
+        this.verifyChecksums = verifyChecksums;
+    }
+
+    /**
+     * Replays the given game to its end.
+     *
+     * @param game index of the game
+     * @return a new game in the final state of the given game (without action records)
+     * @throws IllegalStateException if a replayed state does not match its checksum
+     */
+    public HeimlichAndCo replay(int game) {
+        return replay(game, null);
+    }
+
+    /**
+     * Replays the games with the indices from (inclusive) to (exclusive) in order.
+     *
+     * @param from     index of the first game
+     * @param to       index after the last game
+     * @param listener receives the states of the games
+     * @throws IllegalStateException if a replayed state does not match its checksum
+     */
+    public void replay(int from, int to, Listener listener) {
+        if (from < 0 || to > store.getNumberOfGames() || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range of games: " + from + " to " + to);
+        }
+        for (int game = from; game < to; game++) {
+            replay(game, listener);
+        }
+    }
+
+    private HeimlichAndCo replay(int game, Listener listener) {
+        GameLogStore.Entry entry = store.entry(game);
+        HeimlichAndCo state = entry.decodeInitialState();
+        state.setRecordHistory(false);
+        int interval = verifyChecksums ? entry.checksumInterval : 0;
+        for (int action = 0, nextChecksum = interval; action < entry.numberOfActions; action++) {
+            state.replayTrustedAction(HeimlichAndCoActionUniverse.get(entry.getActionId(action)));
+            if (action + 1 == nextChecksum) {
+                if (state.getZobristKey() != entry.getChecksum(action / interval)) {
+                    throw new IllegalStateException("The replay of game " + game + " differs from the stored game after "
+                            + (action + 1) + " actions.");
+                }
+                nextChecksum += interval;
+            }
+            if (listener != null) {
+                listener.onAction(game, action, state);
+            }
+        }
+        if (listener != null) {
+            listener.onGameReplayed(game, state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,395 @@
+package heimlich_and_co.search;
+
+import at.ac.tuwien.ifs.sge.game.ActionRecord;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoAgentMoveAction;
+import heimlich_and_co.actions.HeimlichAndCoDieRollAction;
+import heimlich_and_co.enums.Agent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Keeps track of a probability distribution over the secret assignment of players to agents (see
+ * HeimlichAndCo.getPlayersToAgentsMap()), based on the agent moves the players made.
+ * <p>
+ * The model assumes that a player chooses an agent move with a probability that grows exponentially with the number of
+ * points the move gains for the own agent (i.e. the difference of the points of the fields, see
+ * HeimlichAndCoBoard.getPointsForField), mixed with a small probability of a uniformly random move. Every observed move
+ * multiplies the weight of each agent in the row of the player with the likelihood of the move if the player owned
+ * that agent. The probability of an assignment is proportional to the product of the weights of its entries, so the
+ * normalisation constant is the permanent of the (at most 7x7) weight matrix, which is calculated with a dynamic
+ * program over the subsets of agents. The program works with the logarithms of the weights, as the product of the
+ * weights of an assignment underflows when the evidence of several players points at the same agent. Should the
+ * permanent still not be positive, the weights of the players whose agents are unknown are reset to uniform.
+ * <p>
+ * The tracker is updated incrementally with update(game): only the action records added since the last update are
+ * processed (a copy of the board is kept to know the positions before each move), so every record is processed once.
+ * The dynamic program is not updated per record but rerun on demand (by getProbability and sampleAssignment) after the
+ * weights changed. It takes at most 7 * 7 * 2^7 steps, independent of the number of records, so the work per record
+ * is constant when amortised over the records between two queries.
+ * Assignments can be sampled from the posterior, e.g. to replace the uniform assignment of HeimlichAndCo.determinize.
+ */
+public class AgentBeliefTracker {
+
+    /**
+     * Default of how strongly players are assumed to prefer moves that gain points for their own agent.
+     */
+    public static final double DEFAULT_RATIONALITY = 0.5;
+    /**
+     * Default probability with which players are assumed to choose a uniformly random move.
+     */
+    public static final double DEFAULT_NOISE = 0.1;
+
+    /**
+     * Weights are not decreased below this value (relative to the largest weight in the row), so no assignment is ruled
+     * out by the evidence.
+     */
+    private static final double MIN_WEIGHT = 1e-200;
+    /**
+     * The largest absolute number of points an agent can gain or lose with one move.
+     */
+    private static final int MAX_GAIN = 13;
+
+    private final int numberOfPlayers;
+    /**
+     * The agents of the board, the columns of the weight matrix.
+     */
+    private final Agent[] agents;
+    /**
+     * Column of each agent (indexed by ordinal, -1 for agents which are not playing).
+     */
+    private final int[] columnOfAgent = new int[Agent.values().length];
+    /**
+     * Whether the agent of a player is known (the row of the player then has a single non-zero entry).
+     */
+    private final boolean[] known;
+    private final double[][] weights;
+    /**
+     * Logarithms of the weights, updated with the partial sums.
+     */
+    private final double[][] logWeights;
+    /**
+     * suffix[i][mask]: logarithm of the sum over all assignments of the players i to numberOfPlayers - 1 to distinct
+     * agents which are not in mask, of the product of the weights.
+     */
+    private final double[][] suffix;
+    /**
+     * prefix[i][mask]: logarithm of the sum over all assignments of the players 0 to i - 1 to exactly the agents in
+     * mask, of the product of the weights.
+     */
+    private final double[][] prefix;
+    private final double noise;
+    /**
+     * exp(rationality * gain), indexed by gain + MAX_GAIN.
+     */
+    private final double[] expGain = new double[2 * MAX_GAIN + 1];
+    /**
+     * The board as it was after the last processed action record.
+     */
+    private final HeimlichAndCoBoard board;
+    private final boolean withCards;
+    private int processedRecords;
+    private boolean permanentsValid;
+    private boolean marginalsValid;
+    private final double[][] marginals;
+
+    /**
+     * Creates a new tracker from the point of view of the given player with the default model parameters, and
+     * processes the action records of the game.
+     *
+     * @param game   the game (the agents of all players which are in the playersToAgentsMap are taken as known)
+     * @param player the player who uses the tracker (the agent of the player must be known)
+     */
+    public AgentBeliefTracker(HeimlichAndCo game, int player) {
+        this(game, player, DEFAULT_RATIONALITY, DEFAULT_NOISE);
+    }
+
+    /**
+     * Creates a new tracker from the point of view of the given player, and processes the action records of the game.
+     * The records are replayed from the starting positions of the agents, i.e. the game must have started from a
+     * traditional board.
+     *
+     * @param game        the game (the agents of all players which are in the playersToAgentsMap are taken as known)
+     * @param player      the player who uses the tracker (the agent of the player must be known)
+     * @param rationality how strongly players are assumed to prefer moves that gain points for their own agent (0 means
+     *                    that moves carry no information)
+     * @param noise       probability with which players are assumed to choose a uniformly random move (between 0 and 1)
+     */
+    public AgentBeliefTracker(HeimlichAndCo game, int player, double rationality, double noise) {
+        if (!game.getPlayersToAgentsMap().containsKey(player)) {
+            throw new IllegalArgumentException("The agent of the given player must be known.");
+        }
+        if (rationality < 0 || Double.isNaN(rationality)) {
+            throw new IllegalArgumentException("Rationality must not be negative.");
+        }
+        if (!(noise >= 0 && noise <= 1)) {
+            throw new IllegalArgumentException("Noise must be between 0 and 1.");
+        }
+        this.numberOfPlayers = game.getNumberOfPlayers();
+        this.agents = game.getBoard().getAgents();
+        this.withCards = game.isWithCards();
+        this.noise = noise;
+        for (int gain = -MAX_GAIN; gain <= MAX_GAIN; gain++) {
+            expGain[gain + MAX_GAIN] = Math.exp(rationality * gain);
+        }
+        Arrays.fill(columnOfAgent, -1);
+        for (int column = 0; column < agents.length; column++) {
+            columnOfAgent[agents[column].ordinal()] = column;
+        }
+        this.known = new boolean[numberOfPlayers];
+        this.weights = new double[numberOfPlayers][agents.length];
+        for (int p = 0; p < numberOfPlayers; p++) {
+            Agent agent = game.getPlayersToAgentsMap().get(p);
+            if (agent != null) {
+                known[p] = true;
+                weights[p][columnOfAgent[agent.ordinal()]] = 1;
+            } else {
+                Arrays.fill(weights[p], 1);
+            }
+        }
+        this.logWeights = new double[numberOfPlayers][agents.length];
+        this.suffix = new double[numberOfPlayers + 1][1 << agents.length];
+        this.prefix = new double[numberOfPlayers + 1][1 << agents.length];
+        this.marginals = new double[numberOfPlayers][agents.length];
+        this.board = new HeimlichAndCoBoard(agents);
+        update(game);
+    }
+
+    /**
+     * Processes the action records that were added to the game since the last update.
+     *
+     * @param game the game (must be the same game as before, with more action records)
+     * @throws IllegalArgumentException if the game has fewer action records than were already processed
+     */
+    public void update(HeimlichAndCo game) {
+        List<ActionRecord<HeimlichAndCoAction>> records = game.getActionRecords();
+        if (records.size() < processedRecords) {
+            throw new IllegalArgumentException("The game has fewer action records than were already processed.");
+        }
+        if (records.size() == processedRecords) {
+            return;
+        }
+        for (ActionRecord<HeimlichAndCoAction> record : records.subList(processedRecords, records.size())) {
+            processRecord(record.getPlayer(), record.getAction());
+        }
+        processedRecords = records.size();
+        permanentsValid = false;
+        marginalsValid = false;
+    }
+
+    /**
+     * Returns the probability that the given player owns the given agent.
+     *
+     * @param player the player
+     * @param agent  the agent
+     * @return the probability (0 if the agent is not playing)
+     */
+    public double getProbability(int player, Agent agent) {
+        if (player < 0 || player >= numberOfPlayers) {
+            throw new IllegalArgumentException("Invalid player: " + player);
+        }
+        int column = columnOfAgent[agent.ordinal()];
+        if (column < 0) {
+            return 0;
+        }
+        if (!marginalsValid) {
+            ensurePermanents();
+            calculateMarginals();
+        }
+        return marginals[player][column];
+    }
+
+    /**
+     * Samples an assignment of agents to all players from the posterior distribution and puts it into the given map
+     * (e.g. the playersToAgentsMap of a determinized game). Known assignments are kept.
+     *
+     * @param random             random number generator
+     * @param playersToAgentsMap the map the assignment is put into
+     */
+    public void sampleAssignment(Random random, Map<Integer, Agent> playersToAgentsMap) {
+        ensurePermanents();
+        int used = 0;
+        for (int p = 0; p < numberOfPlayers; p++) {
+            double target = random.nextDouble();
+            int chosen = -1;
+            for (int column = 0; column < agents.length; column++) {
+                if ((used & (1 << column)) == 0 && weights[p][column] > 0) {
+                    chosen = column;
+                    target -= Math.exp(logWeights[p][column] + suffix[p + 1][used | (1 << column)] - suffix[p][used]);
+                    if (target < 0) {
+                        break;
+                    }
+                }
+            }
+            used |= 1 << chosen;
+            playersToAgentsMap.put(p, agents[chosen]);
+        }
+    }
+
+    /**
+     * Updates the weights with an action of a player and applies the action to the board copy.
+     */
+    private void processRecord(int player, HeimlichAndCoAction action) {
+        if (action.getClass().equals(HeimlichAndCoDieRollAction.class)) {
+            int dieRoll = ((HeimlichAndCoDieRollAction) action).getDieRoll();
+            if (dieRoll > 0) { //the result of a random roll which was not recorded is unknown
+                board.setLastDieRoll(dieRoll);
+            }
+            return;
+        }
+        if (action.getClass().equals(HeimlichAndCoAgentMoveAction.class)) {
+            HeimlichAndCoAgentMoveAction move = (HeimlichAndCoAgentMoveAction) action;
+            if (player >= 0 && player < numberOfPlayers && !known[player]) {
+                observeAgentMove(player, move);
+            }
+        }
+        action.applyAction(board);
+    }
+
+    /**
+     * Multiplies the weights of the player with the likelihood of the move for each agent the player could own.
+     */
+    private void observeAgentMove(int player, HeimlichAndCoAgentMoveAction move) {
+        List<HeimlichAndCoAgentMoveAction> possibleMoves = HeimlichAndCoAgentMoveAction.getPossibleActionsList(board, withCards);
+        if (possibleMoves.isEmpty()) {
+            return;
+        }
+        double[] likelihoods = new double[agents.length];
+        double maxLikelihood = 0;
+        for (int column = 0; column < agents.length; column++) {
+            Agent agent = agents[column];
+            double normalisation = 0;
+            for (HeimlichAndCoAgentMoveAction possibleMove : possibleMoves) {
+                normalisation += expGain[gain(agent, possibleMove) + MAX_GAIN];
+            }
+            likelihoods[column] = (1 - noise) * expGain[gain(agent, move) + MAX_GAIN] / normalisation
+                    + noise / possibleMoves.size();
+            maxLikelihood = Math.max(maxLikelihood, likelihoods[column]);
+        }
+        if (!(maxLikelihood > 0 && Double.isFinite(maxLikelihood))) {
+            return; //the likelihoods underflowed for every agent, so the move carries no usable information
+        }
+        //only the ratios of the likelihoods matter, and relative to the largest one the row keeps a positive maximum
+        double max = 0;
+        for (int column = 0; column < agents.length; column++) {
+            weights[player][column] *= likelihoods[column] / maxLikelihood;
+            max = Math.max(max, weights[player][column]);
+        }
+        for (int column = 0; column < agents.length; column++) {
+            weights[player][column] = Math.max(weights[player][column] / max, MIN_WEIGHT);
+        }
+    }
+
+    /**
+     * Returns how many points the field of the agent is worth after the move compared to before.
+     */
+    private int gain(Agent agent, HeimlichAndCoAgentMoveAction move) {
+        int fields = move.getMove(agent);
+        if (fields == 0) {
+            return 0;
+        }
+        int position = board.getAgentPosition(agent);
+        int newPosition = (position + fields) % board.getNumberOfFields();
+        return board.getPointsForField(newPosition) - board.getPointsForField(position);
+    }
+
+    /**
+     * Reruns the dynamic program if the weights changed since it was last run. If the permanent is not positive, the
+     * weights of the players whose agents are unknown are reset to uniform.
+     */
+    private void ensurePermanents() {
+        if (permanentsValid) {
+            return;
+        }
+        calculatePermanents();
+        if (suffix[0][0] == Double.NEGATIVE_INFINITY || Double.isNaN(suffix[0][0])) {
+            for (int p = 0; p < numberOfPlayers; p++) {
+                if (!known[p]) {
+                    Arrays.fill(weights[p], 1);
+                }
+            }
+            calculatePermanents();
+        }
+        permanentsValid = true;
+    }
+
+    /**
+     * Calculates the logarithms of the sums over all partial assignments (prefix and suffix), suffix[0][0] is the
+     * logarithm of the permanent of the weight matrix.
+     */
+    private void calculatePermanents() {
+        int masks = 1 << agents.length;
+        for (int p = 0; p < numberOfPlayers; p++) {
+            for (int column = 0; column < agents.length; column++) {
+                logWeights[p][column] = Math.log(weights[p][column]);
+            }
+        }
+        Arrays.fill(suffix[numberOfPlayers], 0);
+        for (int p = numberOfPlayers - 1; p >= 0; p--) {
+            for (int mask = 0; mask < masks; mask++) {
+                double sum = Double.NEGATIVE_INFINITY;
+                for (int column = 0; column < agents.length; column++) {
+                    if ((mask & (1 << column)) == 0 && weights[p][column] > 0) {
+                        sum = logAdd(sum, logWeights[p][column] + suffix[p + 1][mask | (1 << column)]);
+                    }
+                }
+                suffix[p][mask] = sum;
+            }
+        }
+        for (double[] row : prefix) {
+            Arrays.fill(row, Double.NEGATIVE_INFINITY);
+        }
+        prefix[0][0] = 0;
+        for (int p = 0; p < numberOfPlayers; p++) {
+            for (int mask = 0; mask < masks; mask++) {
+                if (prefix[p][mask] == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                for (int column = 0; column < agents.length; column++) {
+                    if ((mask & (1 << column)) == 0 && weights[p][column] > 0) {
+                        int next = mask | (1 << column);
+                        prefix[p + 1][next] = logAdd(prefix[p + 1][next], prefix[p][mask] + logWeights[p][column]);
+                    }
+                }
+            }
+        }
+        marginalsValid = false;
+    }
+
+    /**
+     * Calculates the probability of each player owning each agent from the partial sums.
+     */
+    private void calculateMarginals() {
+        int masks = 1 << agents.length;
+        for (int p = 0; p < numberOfPlayers; p++) {
+            for (int column = 0; column < agents.length; column++) {
+                double sum = Double.NEGATIVE_INFINITY;
+                if (weights[p][column] > 0) {
+                    for (int mask = 0; mask < masks; mask++) {
+                        if ((mask & (1 << column)) == 0 && prefix[p][mask] != Double.NEGATIVE_INFINITY) {
+                            sum = logAdd(sum, prefix[p][mask] + suffix[p + 1][mask | (1 << column)]);
+                        }
+                    }
+                }
+                marginals[p][column] = Math.exp(sum + logWeights[p][column] - suffix[0][0]);
+            }
+        }
+        marginalsValid = true;
+    }
+
+    /**
+     * Returns log(exp(a) + exp(b)).
+     */
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+}
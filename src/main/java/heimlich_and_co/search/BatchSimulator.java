@@ -0,0 +1,449 @@
+package heimlich_and_co.search;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoAgentMoveAction;
+import heimlich_and_co.enums.Agent;
+import heimlich_and_co.enums.HeimlichAndCoPhase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates many games without cards at once, e.g. for evaluating simple policies over hundreds of thousands of games.
+ * <p>
+ * The state of the games is held as parallel primitive arrays (structure of arrays): one array per agent for the
+ * scores, and one array each for the positions, the safe position, the phase, the last die roll, the current player and
+ * the agents for which scoring was triggered, all indexed by the number of the game. The games are advanced in lockstep,
+ * one turn of every unfinished game after the other: first the die is rolled in all games, then the agents are moved in
+ * all games and finally the points are awarded and the safes are moved. Each of these steps is a tight loop over a few
+ * arrays and does not allocate; games that are over are dropped from the loops.
+ * <p>
+ * The positions of the agents of a game are packed into a long with 8 bits per agent, and so are the agent moves. This
+ * way an agent move is applied to all agents at once with a few arithmetic operations on the long (SWAR) instead of a
+ * loop with unpredictable branches, which would dominate the time of a turn.
+ * <p>
+ * The rules are the same as those of HeimlichAndCo without cards (see HeimlichAndCoBoard and
+ * HeimlichAndCoAgentMoveAction): the agent moves are the precomputed compositions of the die result in the order of
+ * HeimlichAndCoAgentMoveAction.getPossibleActionsList, the safe can be moved to any other field and a game is over as
+ * soon as an agent has at least 42 points after the points were awarded. The choices are made by a Policy.
+ * <p>
+ * An instance must not be used by multiple threads at the same time.
+ */
+public class BatchSimulator {
+
+    /**
+     * Chooses the actions of the players in the games of a BatchSimulator. The state of a game can be read with the
+     * getters of the simulator.
+     */
+    public interface Policy {
+
+        /**
+         * Chooses the agent move of the current player of the given game.
+         *
+         * @param simulator     the simulator
+         * @param game          the number of the game
+         * @param numberOfMoves the number of possible agent moves for the die roll of the game
+         * @return the index of the move (between 0 and numberOfMoves - 1), see getAgentMove
+         */
+        int chooseAgentMove(BatchSimulator simulator, int game, int numberOfMoves);
+
+        /**
+         * Chooses the field the current player of the given game moves the safe to.
+         *
+         * @param simulator the simulator
+         * @param game      the number of the game
+         * @return the field (must not be the current position of the safe)
+         */
+        int chooseSafePosition(BatchSimulator simulator, int game);
+    }
+
+    /**
+     * Chooses uniformly random agent moves and safe positions, with the random number generator of the simulator.
+     * Equivalent to the choices of RandomPlayout for games without cards.
+     */
+    public static final Policy RANDOM_POLICY = new Policy() {
+        @Override
+        public int chooseAgentMove(BatchSimulator simulator, int game, int numberOfMoves) {
+            return simulator.random.nextInt(numberOfMoves);
+        }
+
+        @Override
+        public int chooseSafePosition(BatchSimulator simulator, int game) {
+            int field = simulator.random.nextInt(simulator.numberOfFields - 1);
+            return field >= simulator.safePositions[game] ? field + 1 : field;
+        }
+    };
+
+    private static final int WINNING_SCORE = 42;
+    private static final Agent[] ALL_AGENTS = Agent.values();
+    private static final byte DIE_ROLL_PHASE = (byte) HeimlichAndCoPhase.DIE_ROLL_PHASE.ordinal();
+    private static final byte AGENT_MOVE_PHASE = (byte) HeimlichAndCoPhase.AGENT_MOVE_PHASE.ordinal();
+    private static final byte SAFE_MOVE_PHASE = (byte) HeimlichAndCoPhase.SAFE_MOVE_PHASE.ordinal();
+    private static final HeimlichAndCoPhase[] PHASES = HeimlichAndCoPhase.values();
+    private static final int BITS_PER_AGENT = 8;
+    /**
+     * The lowest bit of the field of each agent in a packed long.
+     */
+    private static final long LOW_BITS = 0x0101010101010101L;
+    /**
+     * The highest bit of the field of each agent in a packed long.
+     */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final int numberOfGames;
+    private final int numberOfPlayers;
+    private final int numberOfAgents;
+    private final int numberOfFields;
+    private final Random random;
+    /**
+     * The board every game starts from.
+     */
+    private final HeimlichAndCoBoard initialBoard;
+    private final int[] dieFaces;
+    /**
+     * The points awarded for each field.
+     */
+    private final int[] pointsForField;
+    /**
+     * The possible agent moves for each die result (indexed by the die result, null for results that cannot be rolled).
+     */
+    private final List<HeimlichAndCoAgentMoveAction>[] agentMoves;
+    /**
+     * The agent moves of agentMoves, packed into 8 bits per agent (indexed by the ordinal of the agent).
+     */
+    private final long[][] packedAgentMoves;
+
+    /**
+     * The positions of the agents in each game, packed into 8 bits per agent (indexed by the ordinal of the agent).
+     */
+    private final long[] positions;
+    /**
+     * scores[agent][game] is the score of the agent with the given ordinal in the given game.
+     */
+    private final int[][] scores;
+    /**
+     * agentsOfPlayers[player][game] is the ordinal of the agent of the given player in the given game.
+     */
+    private final byte[][] agentsOfPlayers;
+    private final byte[] safePositions;
+    /**
+     * The ordinal of the HeimlichAndCoPhase each game is in.
+     */
+    private final byte[] phases;
+    private final byte[] dieRolls;
+    private final byte[] currentPlayers;
+    /**
+     * Bitmask of the agents for which scoring was triggered in each game (the highest of the 8 bits of the agent with
+     * ordinal i, i.e. bit 8 * i + 7).
+     */
+    private final long[] scoringTriggeredMasks;
+    private final int[] numberOfTurns;
+    private final boolean[] gameOver;
+    /**
+     * The numbers of the games that are not over yet (the first numberOfActiveGames entries).
+     */
+    private final int[] activeGames;
+    private int numberOfActiveGames;
+
+    /**
+     * Creates a new simulator with the given number of games, which are all in their initial state (see reset).
+     *
+     * @param numberOfGames   the number of games that are simulated at once
+     * @param numberOfPlayers the number of players of each game
+     * @param random          random number generator for the die rolls, the assignment of the agents and RANDOM_POLICY
+     */
+    public BatchSimulator(int numberOfGames, int numberOfPlayers, Random random) {
+        if (numberOfGames < 1) {
+            throw new IllegalArgumentException("There must be at least one game.");
+        }
+        if (random == null) {
+            throw new IllegalArgumentException("Random must not be null.");
+        }
+        this.initialBoard = new HeimlichAndCo(numberOfPlayers).getBoard(); //checks the number of players
+        this.numberOfGames = numberOfGames;
+        this.numberOfPlayers = numberOfPlayers;
+        this.numberOfAgents = initialBoard.getNumberOfAgents();
+        this.numberOfFields = initialBoard.getNumberOfFields();
+        this.random = random;
+        this.dieFaces = initialBoard.getDieFaces();
+        this.pointsForField = new int[numberOfFields];
+        for (int field = 0; field < numberOfFields; field++) {
+            pointsForField[field] = initialBoard.getPointsForField(field);
+        }
+        int maxDieResult = 0;
+        for (int face : dieFaces) {
+            maxDieResult = Math.max(maxDieResult, face);
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<HeimlichAndCoAgentMoveAction>[] agentMoves = new List[maxDieResult + 1];
+        this.agentMoves = agentMoves;
+        this.packedAgentMoves = new long[maxDieResult + 1][];
+        HeimlichAndCoBoard board = new HeimlichAndCoBoard(initialBoard);
+        for (int face : dieFaces) {
+            board.setLastDieRoll(face);
+            List<HeimlichAndCoAgentMoveAction> moves = HeimlichAndCoAgentMoveAction.getPossibleActionsList(board, false);
+            agentMoves[face] = moves;
+            packedAgentMoves[face] = new long[moves.size()];
+            for (int i = 0; i < moves.size(); i++) {
+                for (int ordinal = 0; ordinal < numberOfAgents; ordinal++) {
+                    packedAgentMoves[face][i] |= (long) moves.get(i).getMove(ALL_AGENTS[ordinal]) << (BITS_PER_AGENT * ordinal);
+                }
+            }
+        }
+
+        this.positions = new long[numberOfGames];
+        this.scores = new int[numberOfAgents][numberOfGames];
+        this.agentsOfPlayers = new byte[numberOfPlayers][numberOfGames];
+        this.safePositions = new byte[numberOfGames];
+        this.phases = new byte[numberOfGames];
+        this.dieRolls = new byte[numberOfGames];
+        this.currentPlayers = new byte[numberOfGames];
+        this.scoringTriggeredMasks = new long[numberOfGames];
+        this.numberOfTurns = new int[numberOfGames];
+        this.gameOver = new boolean[numberOfGames];
+        this.activeGames = new int[numberOfGames];
+        reset();
+    }
+
+    /**
+     * Puts all games into their initial state (the state of a new HeimlichAndCo game without cards) and assigns the
+     * agents to the players of each game at random.
+     */
+    public void reset() {
+        long initialPositions = 0;
+        for (int ordinal = 0; ordinal < numberOfAgents; ordinal++) {
+            initialPositions |= (long) initialBoard.getAgentPosition(ALL_AGENTS[ordinal]) << (BITS_PER_AGENT * ordinal);
+            Arrays.fill(scores[ordinal], initialBoard.getScore(ALL_AGENTS[ordinal]));
+        }
+        Arrays.fill(positions, initialPositions);
+        byte[] shuffledAgents = new byte[numberOfAgents];
+        for (int game = 0; game < numberOfGames; game++) {
+            for (int i = 0; i < numberOfAgents; i++) {
+                shuffledAgents[i] = (byte) i;
+            }
+            for (int i = numberOfAgents - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                byte agent = shuffledAgents[i];
+                shuffledAgents[i] = shuffledAgents[j];
+                shuffledAgents[j] = agent;
+            }
+            for (int player = 0; player < numberOfPlayers; player++) {
+                agentsOfPlayers[player][game] = shuffledAgents[player];
+            }
+            activeGames[game] = game;
+        }
+        Arrays.fill(safePositions, (byte) initialBoard.getSafePosition());
+        Arrays.fill(phases, DIE_ROLL_PHASE);
+        Arrays.fill(dieRolls, (byte) 0);
+        Arrays.fill(currentPlayers, (byte) 0);
+        Arrays.fill(scoringTriggeredMasks, 0L);
+        Arrays.fill(numberOfTurns, 0);
+        Arrays.fill(gameOver, false);
+        numberOfActiveGames = numberOfGames;
+    }
+
+    /**
+     * Plays turns until all games are over or the given number of turns was played.
+     *
+     * @param policy   the policy that chooses the actions of all players
+     * @param maxTurns the maximum number of turns that are played
+     * @return the number of games that are not over yet
+     */
+    public int play(Policy policy, int maxTurns) {
+        for (int turn = 0; turn < maxTurns && numberOfActiveGames > 0; turn++) {
+            playTurn(policy);
+        }
+        return numberOfActiveGames;
+    }
+
+    /**
+     * Plays one turn in every game that is not over yet: rolls the die, lets the current player move the agents, awards
+     * the points and lets the current player move the safe if scoring was triggered.
+     *
+     * @param policy the policy that chooses the actions of all players
+     * @return the number of games that are not over yet
+     * @throws IllegalStateException if the policy chose an invalid action
+     */
+    public int playTurn(Policy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy must not be null.");
+        }
+        int active = numberOfActiveGames;
+        int[] games = activeGames;
+        for (int i = 0; i < active; i++) {
+            int game = games[i];
+            dieRolls[game] = (byte) dieFaces[random.nextInt(dieFaces.length)];
+            phases[game] = AGENT_MOVE_PHASE;
+        }
+        for (int i = 0; i < active; i++) {
+            int game = games[i];
+            long[] moves = packedAgentMoves[dieRolls[game]];
+            int index = policy.chooseAgentMove(this, game, moves.length);
+            if (index < 0 || index >= moves.length) {
+                throw new IllegalStateException("The policy chose an invalid agent move: " + index);
+            }
+            moveAgents(game, moves[index]);
+        }
+        int remaining = 0;
+        for (int i = 0; i < active; i++) {
+            int game = games[i];
+            if (scoringTriggeredMasks[game] != 0) {
+                awardPoints(game);
+                phases[game] = SAFE_MOVE_PHASE;
+                if (gameOver[game]) {
+                    continue; //the finished game is dropped from the active games
+                }
+                int field = policy.chooseSafePosition(this, game);
+                if (field < 0 || field >= numberOfFields || field == safePositions[game]) {
+                    throw new IllegalStateException("The policy chose an invalid safe position: " + field);
+                }
+                safePositions[game] = (byte) field;
+            }
+            finishTurn(game);
+            games[remaining++] = game;
+        }
+        numberOfActiveGames = remaining;
+        return remaining;
+    }
+
+    /**
+     * Returns the agent move with the given index for the die roll of the given game, i.e. the action that corresponds
+     * to the index chosen by Policy.chooseAgentMove.
+     *
+     * @param game  the number of the game
+     * @param index index of the move
+     * @return the agent move
+     */
+    public HeimlichAndCoAgentMoveAction getAgentMove(int game, int index) {
+        return agentMoves[dieRolls[game]].get(index);
+    }
+
+    /**
+     * Returns whether the given player has won the given game, i.e. the game is over and the agent of the player has
+     * the highest score (possibly together with other agents).
+     *
+     * @param game   the number of the game
+     * @param player the player
+     * @return whether the player has won
+     */
+    public boolean isWinner(int game, int player) {
+        if (!gameOver[game]) {
+            return false;
+        }
+        int score = scores[agentsOfPlayers[player][game]][game];
+        for (int ordinal = 0; ordinal < numberOfAgents; ordinal++) {
+            if (scores[ordinal][game] > score) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getNumberOfGames() {
+        return numberOfGames;
+    }
+
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    public int getNumberOfAgents() {
+        return numberOfAgents;
+    }
+
+    /**
+     * @return the number of games that are not over yet
+     */
+    public int getNumberOfActiveGames() {
+        return numberOfActiveGames;
+    }
+
+    public int getPosition(int game, Agent agent) {
+        return (int) (positions[game] >>> (BITS_PER_AGENT * checkOrdinal(agent))) & 0xFF;
+    }
+
+    public int getScore(int game, Agent agent) {
+        return scores[checkOrdinal(agent)][game];
+    }
+
+    public Agent getAgent(int game, int player) {
+        return ALL_AGENTS[agentsOfPlayers[player][game]];
+    }
+
+    public int getSafePosition(int game) {
+        return safePositions[game];
+    }
+
+    public HeimlichAndCoPhase getPhase(int game) {
+        return PHASES[phases[game]];
+    }
+
+    /**
+     * @return the result of the last die roll of the given game (13 encodes the 1-3 face, 0 before the first roll)
+     */
+    public int getDieRoll(int game) {
+        return dieRolls[game];
+    }
+
+    public int getCurrentPlayer(int game) {
+        return currentPlayers[game];
+    }
+
+    /**
+     * @return the number of finished turns of the given game
+     */
+    public int getNumberOfTurns(int game) {
+        return numberOfTurns[game];
+    }
+
+    public boolean isGameOver(int game) {
+        return gameOver[game];
+    }
+
+    /**
+     * Moves the agents of the given game by the given packed move, like HeimlichAndCoBoard.moveAgent: scoring is
+     * triggered for the moved agents that end on the safe and is no longer triggered for the moved agents that were on
+     * the safe.
+     */
+    private void moveAgents(int game, long move) {
+        //a field holds a position (less than 12) or a move (at most 6), so adding 127 never carries into the next field
+        long moved = (move + 0x7F * LOW_BITS) & HIGH_BITS;
+        long after = positions[game] + move;
+        long wrapped = (after + (0x80 - numberOfFields) * LOW_BITS) & HIGH_BITS; //the fields that are at least 12
+        after -= (wrapped >>> 7) * numberOfFields;
+        long onSafe = ~((after ^ (safePositions[game] * LOW_BITS)) + 0x7F * LOW_BITS) & HIGH_BITS;
+        positions[game] = after;
+        scoringTriggeredMasks[game] = (scoringTriggeredMasks[game] & ~moved) | (onSafe & moved);
+    }
+
+    /**
+     * Awards the points of the given game, like HeimlichAndCoBoard.awardPoints, and checks whether the game is over.
+     */
+    private void awardPoints(int game) {
+        boolean over = false;
+        long packed = positions[game];
+        for (int ordinal = 0; ordinal < numberOfAgents; ordinal++, packed >>>= BITS_PER_AGENT) {
+            int score = scores[ordinal][game] + pointsForField[(int) packed & 0xFF];
+            scores[ordinal][game] = score;
+            over |= score >= WINNING_SCORE;
+        }
+        scoringTriggeredMasks[game] = 0;
+        gameOver[game] = over;
+    }
+
+    private void finishTurn(int game) {
+        phases[game] = DIE_ROLL_PHASE;
+        int next = currentPlayers[game] + 1;
+        currentPlayers[game] = (byte) (next == numberOfPlayers ? 0 : next);
+        numberOfTurns[game]++;
+    }
+
+    private int checkOrdinal(Agent agent) {
+        if (agent.ordinal() >= numberOfAgents) {
+            throw new IllegalArgumentException("The given agent is not playing: " + agent);
+        }
+        return agent.ordinal();
+    }
+}
@@ -0,0 +1,352 @@
+package heimlich_and_co.search;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+import heimlich_and_co.enums.HeimlichAndCoPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Depth-limited expectimax search (alpha-beta at decision nodes, expectation at die rolls) for HeimlichAndCo.
+ * <p>
+ * The search is paranoid: the searching player maximizes the value given by the evaluator, all other players minimize
+ * it, which makes the game a two-player zero-sum game and allows pruning. The random die rolls are chance nodes whose
+ * outcomes are the faces of the die (see HeimlichAndCoBoard.getDieFaces(), each face is equally likely). Chance nodes
+ * are pruned with Star1 (using the bounds of the evaluator to cut off once the remaining outcomes cannot bring the
+ * expected value back into the window) or additionally with Star2 (probing one action of each outcome first, which
+ * bounds the values of the outcomes from one side).
+ * <p>
+ * The depth counts the decisions, i.e. die rolls do not count. As the search is done on the state of the given game,
+ * hidden information (the agents of the other players, their cards and the card stack) is taken as it is, so the game
+ * is usually a determinization (see HeimlichAndCo.determinize). The search works on a copy of the game with
+ * applyAction and undoLastAction. An instance must not be used by multiple threads at the same time.
+ */
+public class ExpectimaxSearch {
+
+    /**
+     * Pruning of the chance nodes, see ExpectimaxSearch.
+     */
+    public enum ChancePruning {
+        NONE,
+        STAR1,
+        STAR2
+    }
+
+    /**
+     * How many nodes are searched between checks of the time.
+     */
+    private static final int NODES_PER_TIME_CHECK = 1024;
+
+    private final HeimlichAndCoEvaluator evaluator;
+    private final ChancePruning pruning;
+    private final double minimumValue;
+    private final double maximumValue;
+    /**
+     * Buffers for the ids of the possible actions, one per level of the search.
+     */
+    private final List<int[]> actionIds = new ArrayList<>();
+    private HeimlichAndCo scratch;
+    private int player;
+    private long numberOfNodes;
+    private long deadline;
+    private int completedDepth;
+    private double value;
+
+    /**
+     * Creates a new search with Star2 pruning and the score difference evaluator.
+     */
+    public ExpectimaxSearch() {
+        this(HeimlichAndCoEvaluator.SCORE_DIFFERENCE, ChancePruning.STAR2);
+    }
+
+    /**
+     * Creates a new search.
+     *
+     * @param evaluator evaluator of the leaves (from the point of view of the searching player)
+     * @param pruning   pruning of the chance nodes
+     */
+    public ExpectimaxSearch(HeimlichAndCoEvaluator evaluator, ChancePruning pruning) {
+        if (evaluator == null || pruning == null) {
+            throw new IllegalArgumentException("Evaluator and pruning must not be null.");
+        }
+        if (!(evaluator.getMinimumValue() < evaluator.getMaximumValue())) {
+            throw new IllegalArgumentException("The minimum value of the evaluator must be smaller than the maximum value.");
+        }
+        this.evaluator = evaluator;
+        this.pruning = pruning;
+        this.minimumValue = evaluator.getMinimumValue();
+        this.maximumValue = evaluator.getMaximumValue();
+    }
+
+    /**
+     * Searches the given game to the given depth and returns the best action of the current player.
+     *
+     * @param game  the game (the agent of the current player must be known)
+     * @param depth number of decisions to look ahead (at least 1)
+     * @return the best action (a shared instance of the HeimlichAndCoActionUniverse)
+     * @throws IllegalArgumentException if the game is over or the agent of the current player is unknown
+     */
+    public HeimlichAndCoAction search(HeimlichAndCo game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The depth must be at least 1.");
+        }
+        return search(game, depth, Long.MAX_VALUE);
+    }
+
+    /**
+     * Searches the given game with iterative deepening until the time budget is used up, and returns the best action of
+     * the current player found by the deepest completed search (at least depth 1 is always completed).
+     *
+     * @param game       the game (the agent of the current player must be known)
+     * @param timeBudget the time the search may take
+     * @param timeUnit   unit of the time budget
+     * @return the best action (a shared instance of the HeimlichAndCoActionUniverse)
+     * @throws IllegalArgumentException if the game is over or the agent of the current player is unknown
+     */
+    public HeimlichAndCoAction search(HeimlichAndCo game, long timeBudget, TimeUnit timeUnit) {
+        return search(game, Integer.MAX_VALUE, System.nanoTime() + timeUnit.toNanos(timeBudget));
+    }
+
+    /**
+     * @return the number of nodes visited by the last search
+     */
+    public long getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * @return the depth of the deepest search completed by the last search
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * @return the value of the best action of the last search (of the deepest completed depth)
+     */
+    public double getValue() {
+        return value;
+    }
+
+    private HeimlichAndCoAction search(HeimlichAndCo game, int maxDepth, long deadline) {
+        player = game.getCurrentPlayer();
+        if (game.isGameOver() || !game.getPlayersToAgentsMap().containsKey(player)) {
+            throw new IllegalArgumentException("The game must not be over and the agent of the current player must be known.");
+        }
+        numberOfNodes = 0;
+        completedDepth = 0;
+        if (game.getCurrentPhase() == HeimlichAndCoPhase.DIE_ROLL_PHASE && !game.isAllowCustomDieRolls()) {
+            return HeimlichAndCoActionUniverse.getRandomDieRoll();
+        }
+        int[] rootIds = new int[HeimlichAndCoActionUniverse.size()];
+        int count = game.getPossibleActionIds(rootIds);
+        if (count == 1) {
+            return HeimlichAndCoActionUniverse.get(rootIds[0]);
+        }
+        this.deadline = Long.MAX_VALUE; //depth 1 is always completed
+        int bestId = rootIds[0];
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            prepareScratch(game);
+            double alpha = Double.NEGATIVE_INFINITY;
+            int depthBestId = bestId;
+            try {
+                //search the best action of the previous depth first
+                alpha = searchRootAction(bestId, depth, alpha);
+                for (int i = 0; i < count; i++) {
+                    if (rootIds[i] != bestId) {
+                        double actionValue = searchRootAction(rootIds[i], depth, alpha);
+                        if (actionValue > alpha) {
+                            alpha = actionValue;
+                            depthBestId = rootIds[i];
+                        }
+                    }
+                }
+            } catch (SearchTimeoutException e) {
+                break;
+            }
+            bestId = depthBestId;
+            value = alpha;
+            completedDepth = depth;
+            this.deadline = deadline;
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        return HeimlichAndCoActionUniverse.get(bestId);
+    }
+
+    private double searchRootAction(int actionId, int depth, double alpha) {
+        scratch.applyActionId(actionId);
+        double actionValue = search(depth - 1, 0, alpha, Double.POSITIVE_INFINITY);
+        scratch.undoLastAction();
+        return actionValue;
+    }
+
+    /**
+     * Copies the given game into the scratch game, with custom die rolls allowed so that each face can be applied.
+     */
+    private void prepareScratch(HeimlichAndCo game) {
+        if (scratch == null || scratch.getNumberOfPlayers() != game.getNumberOfPlayers()
+                || scratch.isWithCards() != game.isWithCards()
+                || scratch.getBoard().getAgentsMask() != game.getBoard().getAgentsMask()) {
+            scratch = new HeimlichAndCo(game);
+        } else {
+            scratch.copyStateFrom(game);
+        }
+        scratch.getActionRecords().clear();
+        scratch.setRecordHistory(true);
+        scratch.setAllowCustomDieRolls(true);
+    }
+
+    /**
+     * Returns the value of the scratch game (fail-soft alpha-beta, i.e. the value may lie outside of the window if it
+     * is cut off).
+     *
+     * @param depth number of decisions left
+     * @param level number of actions applied since the root (for the buffers)
+     */
+    private double search(int depth, int level, double alpha, double beta) {
+        numberOfNodes++;
+        if ((numberOfNodes & (NODES_PER_TIME_CHECK - 1)) == 0 && System.nanoTime() >= deadline) {
+            throw new SearchTimeoutException();
+        }
+        if (scratch.isGameOver() || depth == 0) {
+            return evaluator.evaluate(scratch, player);
+        }
+        if (scratch.getCurrentPhase() == HeimlichAndCoPhase.DIE_ROLL_PHASE) {
+            return searchChance(depth, level, alpha, beta);
+        }
+        int[] ids = getActionIds(level);
+        int count = scratch.getPossibleActionIds(ids);
+        boolean maximizing = scratch.getCurrentPlayer() == player;
+        double best = maximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            scratch.applyActionId(ids[i]);
+            double actionValue = search(depth - 1, level + 1, alpha, beta);
+            scratch.undoLastAction();
+            if (maximizing) {
+                best = Math.max(best, actionValue);
+                alpha = Math.max(alpha, actionValue);
+            } else {
+                best = Math.min(best, actionValue);
+                beta = Math.min(beta, actionValue);
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the expected value of the die roll of the scratch game over all faces.
+     */
+    private double searchChance(int depth, int level, double alpha, double beta) {
+        int[] faces = scratch.getBoard().getDieFaces();
+        double probability = 1.0 / faces.length;
+        if (pruning == ChancePruning.NONE) {
+            double sum = 0;
+            for (int face : faces) {
+                sum += probability * searchFace(face, depth, level, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            }
+            return sum;
+        }
+        //bounds of the values of the outcomes
+        double[] lower = new double[faces.length];
+        double[] upper = new double[faces.length];
+        double lowerSum = 0;
+        double upperSum = 0;
+        for (int i = 0; i < faces.length; i++) {
+            lower[i] = minimumValue;
+            upper[i] = maximumValue;
+        }
+        if (pruning == ChancePruning.STAR2) {
+            //the player who decides after the roll is the player whose turn it is
+            boolean maximizing = scratch.getCurrentTurnPlayer() == player;
+            for (int i = 0; i < faces.length; i++) {
+                double probe = probeFace(faces[i], depth, level);
+                if (maximizing) {
+                    lower[i] = probe;
+                } else {
+                    upper[i] = probe;
+                }
+            }
+        }
+        for (int i = 0; i < faces.length; i++) {
+            lowerSum += probability * lower[i];
+            upperSum += probability * upper[i];
+        }
+        if (lowerSum >= beta) {
+            return lowerSum;
+        }
+        if (upperSum <= alpha) {
+            return upperSum;
+        }
+        double sum = 0;
+        for (int i = 0; i < faces.length; i++) {
+            lowerSum -= probability * lower[i];
+            upperSum -= probability * upper[i];
+            //the values of this outcome for which the expected value is certainly outside of the window
+            double outcomeAlpha = (alpha - sum - upperSum) / probability;
+            double outcomeBeta = (beta - sum - lowerSum) / probability;
+            double outcomeValue = searchFace(faces[i], depth, level,
+                    Math.max(outcomeAlpha, lower[i]), Math.min(outcomeBeta, upper[i]));
+            sum += probability * outcomeValue;
+            if (outcomeValue <= outcomeAlpha) {
+                return sum + upperSum;
+            }
+            if (outcomeValue >= outcomeBeta) {
+                return sum + lowerSum;
+            }
+        }
+        return sum;
+    }
+
+    private double searchFace(int face, int depth, int level, double alpha, double beta) {
+        scratch.applyAction(HeimlichAndCoActionUniverse.getCustomDieRoll(face));
+        double faceValue = search(depth, level + 1, alpha, beta);
+        scratch.undoLastAction();
+        return faceValue;
+    }
+
+    /**
+     * Returns the value of the first possible action after rolling the given face, which is a lower bound of the value
+     * of the outcome if the searching player decides after the roll and an upper bound otherwise.
+     */
+    private double probeFace(int face, int depth, int level) {
+        scratch.applyAction(HeimlichAndCoActionUniverse.getCustomDieRoll(face));
+        double probe;
+        if (scratch.isGameOver()) {
+            probe = evaluator.evaluate(scratch, player);
+        } else {
+            int[] ids = getActionIds(level + 1);
+            scratch.getPossibleActionIds(ids);
+            scratch.applyActionId(ids[0]);
+            probe = search(depth - 1, level + 2, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            scratch.undoLastAction();
+        }
+        scratch.undoLastAction();
+        return probe;
+    }
+
+    private int[] getActionIds(int level) {
+        while (actionIds.size() <= level) {
+            actionIds.add(new int[HeimlichAndCoActionUniverse.size()]);
+        }
+        return actionIds.get(level);
+    }
+
+    /**
+     * Thrown to abort a search when the time is up.
+     */
+    private static final class SearchTimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private SearchTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+}
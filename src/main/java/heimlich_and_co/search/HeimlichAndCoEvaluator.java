@@ -0,0 +1,59 @@
+package heimlich_and_co.search;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.enums.Agent;
+
+/**
+ * Evaluates states of HeimlichAndCo from the point of view of a player, e.g. at the leaves of a depth-limited search.
+ * The values must lie between getMinimumValue() and getMaximumValue(), as searches prune with these bounds.
+ */
+@FunctionalInterface
+public interface HeimlichAndCoEvaluator {
+
+    /**
+     * Evaluates the score of the own agent relative to the best other agent, (own score - best other score) / 50
+     * clamped to [-1, 1]. A finished game is evaluated with 1 if the own agent has the highest score alone, -1 if
+     * another agent has a higher score and 0 otherwise.
+     */
+    HeimlichAndCoEvaluator SCORE_DIFFERENCE = (game, player) -> {
+        HeimlichAndCoBoard board = game.getBoard();
+        Agent own = game.getPlayersToAgentsMap().get(player);
+        int bestOther = Integer.MIN_VALUE;
+        Agent[] agents = Agent.values();
+        for (int remaining = board.getAgentsMask(); remaining != 0; remaining &= remaining - 1) {
+            Agent agent = agents[Integer.numberOfTrailingZeros(remaining)];
+            if (agent != own) {
+                bestOther = Math.max(bestOther, board.getScore(agent));
+            }
+        }
+        int difference = board.getScore(own) - bestOther;
+        if (game.isGameOver()) {
+            return Integer.signum(difference);
+        }
+        return Math.max(-1, Math.min(1, difference / 50.0));
+    };
+
+    /**
+     * Returns the value of the given state for the given player.
+     *
+     * @param game   the state (the agent of the player must be known)
+     * @param player the player
+     * @return the value, between getMinimumValue() and getMaximumValue()
+     */
+    double evaluate(HeimlichAndCo game, int player);
+
+    /**
+     * @return the smallest value evaluate can return
+     */
+    default double getMinimumValue() {
+        return -1;
+    }
+
+    /**
+     * @return the largest value evaluate can return
+     */
+    default double getMaximumValue() {
+        return 1;
+    }
+}
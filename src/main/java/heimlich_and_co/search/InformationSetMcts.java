@@ -0,0 +1,581 @@
+package heimlich_and_co.search;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+import heimlich_and_co.enums.Agent;
+import heimlich_and_co.enums.HeimlichAndCoPhase;
+import heimlich_and_co.util.GameRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Information Set Monte Carlo Tree Search (ISMCTS) for HeimlichAndCo.
+ * <p>
+ * Every iteration samples a determinization of the searched game (see HeimlichAndCo.determinize, or
+ * AgentBeliefTracker.sampleAssignment if a tracker is set), descends the tree with the actions possible in that
+ * determinization (UCB with availability counts), expands one action, plays the game to the end with random actions and
+ * backs up the result. Random die rolls are chance nodes, whose children are the results of the roll. In the card play
+ * phase, the player that plays (or skips) a card is the current player, not the player whose turn it is.
+ * <p>
+ * Two variants are supported:
+ * <ul>
+ *     <li>SINGLE_OBSERVER: one tree for all players, i.e. the opponents choose their actions without knowing their own
+ *     agent and cards</li>
+ *     <li>MULTIPLE_OBSERVER: one tree per player, where the trees of the opponents are split by the agent of the
+ *     opponent in the determinization. Each player chooses its actions in its own tree.</li>
+ * </ul>
+ * In games with cards, the hands of the players are hidden information as well. The trees are deliberately not split by
+ * the hands (which change with every card that is drawn or played, so the trees would hardly share any statistics),
+ * i.e. in the MULTIPLE_OBSERVER variant an opponent chooses its card actions as if it did not know its own hand, and the
+ * cards of the determinization only decide which card actions are available. This is an approximation of the
+ * information sets of the opponents.
+ * The result of a game is 1 for the players whose agent has the highest score (shared if there are multiple) and 0 for
+ * all other players.
+ * <p>
+ * The search can use multiple threads, either with one tree per thread whose root statistics are summed up at the end
+ * (ROOT parallelization) or with a tree shared by all threads (TREE parallelization). The statistics of the nodes are
+ * updated lock-free. A node is counted as visited as soon as an iteration descends into it, while the result is only
+ * added at the end of the iteration, i.e. an iteration in progress counts as a loss (virtual loss), which makes the
+ * other threads choose different paths in a shared tree.
+ * <p>
+ * For throughput, each thread does its iterations on a single scratch game which is reused (see
+ * HeimlichAndCo.copyStateFrom) and does not record its history, and actions are handled as ids of the
+ * HeimlichAndCoActionUniverse. Therefore, only games with the traditional cards can be searched. An instance must not
+ * be used by multiple threads at the same time, and an instance using multiple threads should be shut down when it is
+ * not needed anymore.
+ */
+public class InformationSetMcts {
+
+    /**
+     * The variant of the search, see InformationSetMcts.
+     */
+    public enum Variant {
+        SINGLE_OBSERVER,
+        MULTIPLE_OBSERVER
+    }
+
+    /**
+     * How the search is split between multiple threads, see InformationSetMcts.
+     */
+    public enum Parallelization {
+        ROOT,
+        TREE
+    }
+
+    /**
+     * Default exploration constant of the UCB formula.
+     */
+    public static final double DEFAULT_EXPLORATION = 0.7;
+
+    /**
+     * The rewards are stored as multiples of 1 / REWARD_SCALE, which makes shared rewards (1 / number of winners) exact
+     * and allows adding them atomically.
+     */
+    private static final int REWARD_SCALE = 420;
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Variant variant;
+    private final double exploration;
+    private final Worker[] workers;
+    /**
+     * The roots of the trees, indexed by tree and agent ordinal (one array per worker for ROOT parallelization, or a
+     * single array shared by all workers).
+     */
+    private final AtomicReferenceArray<Node>[] roots;
+    private ExecutorService executor;
+    private AgentBeliefTracker beliefTracker;
+    private final AtomicLong numberOfIterations = new AtomicLong();
+    /**
+     * Buffer for the ids of the possible actions of the searched game.
+     */
+    private final int[] actionIds = new int[HeimlichAndCoActionUniverse.size()];
+    /**
+     * Visits of the actions of the searched game, indexed by action id.
+     */
+    private final long[] rootVisits = new long[HeimlichAndCoActionUniverse.size()];
+    private final long[] rootRewards = new long[HeimlichAndCoActionUniverse.size()];
+
+    /**
+     * Creates a new single-threaded, single-observer search with the default exploration constant and a new random
+     * number generator.
+     */
+    public InformationSetMcts() {
+        this(Variant.SINGLE_OBSERVER, DEFAULT_EXPLORATION, new Random());
+    }
+
+    /**
+     * Creates a new single-threaded search.
+     *
+     * @param variant     the variant of the search
+     * @param exploration exploration constant of the UCB formula
+     * @param random      random number generator the random number generator of the search is seeded with
+     */
+    public InformationSetMcts(Variant variant, double exploration, Random random) {
+        this(variant, exploration, random, 1, Parallelization.ROOT);
+    }
+
+    /**
+     * Creates a new search which uses the given number of threads.
+     *
+     * @param variant         the variant of the search
+     * @param exploration     exploration constant of the UCB formula
+     * @param random          random number generator the random number generators of the threads are seeded with
+     * @param threads         number of threads (the calling thread is one of them)
+     * @param parallelization how the search is split between the threads
+     */
+    public InformationSetMcts(Variant variant, double exploration, Random random, int threads,
+                              Parallelization parallelization) {
+        if (variant == null || random == null || parallelization == null) {
+            throw new IllegalArgumentException("Variant, random and parallelization must not be null.");
+        }
+        if (exploration < 0 || Double.isNaN(exploration)) {
+            throw new IllegalArgumentException("The exploration constant must not be negative.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed.");
+        }
+        this.variant = variant;
+        this.exploration = exploration;
+        this.workers = new Worker[threads];
+        int numberOfRoots = parallelization == Parallelization.ROOT ? threads : 1;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        AtomicReferenceArray<Node>[] roots = new AtomicReferenceArray[numberOfRoots];
+        this.roots = roots;
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(new GameRandom(random.nextLong()),
+                    parallelization == Parallelization.ROOT ? i : 0);
+        }
+    }
+
+    /**
+     * Sets the tracker the agents of the opponents are sampled from in each determinization, instead of sampling them
+     * uniformly. The tracker must be up-to-date with the searched game and must not be updated during a search.
+     *
+     * @param beliefTracker the tracker, or null to sample the agents uniformly
+     */
+    public void setBeliefTracker(AgentBeliefTracker beliefTracker) {
+        this.beliefTracker = beliefTracker;
+    }
+
+    /**
+     * Searches the given game for the given amount of time (at least one iteration is done) and returns the action
+     * with the most visits for the current player.
+     *
+     * @param game       the game, usually the copy passed to the agent (the agent of the current player must be known)
+     * @param timeBudget the time the search may take
+     * @param timeUnit   unit of the time budget
+     * @return the best action found (a shared instance of the HeimlichAndCoActionUniverse)
+     * @throws IllegalArgumentException if the game is over or the agent of the current player is unknown
+     */
+    public HeimlichAndCoAction search(HeimlichAndCo game, long timeBudget, TimeUnit timeUnit) {
+        return search(game, Long.MAX_VALUE, System.nanoTime() + timeUnit.toNanos(timeBudget));
+    }
+
+    /**
+     * Searches the given game with the given number of iterations (in total over all threads) and returns the action
+     * with the most visits for the current player.
+     *
+     * @param game       the game, usually the copy passed to the agent (the agent of the current player must be known)
+     * @param iterations number of iterations (at least 1)
+     * @return the best action found (a shared instance of the HeimlichAndCoActionUniverse)
+     * @throws IllegalArgumentException if the game is over or the agent of the current player is unknown
+     */
+    public HeimlichAndCoAction search(HeimlichAndCo game, long iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("At least one iteration must be done.");
+        }
+        return search(game, iterations, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the number of iterations done by the last search (0 if the current player had a single possible action)
+     */
+    public long getNumberOfIterations() {
+        return numberOfIterations.get();
+    }
+
+    /**
+     * @return the number of threads used by the search
+     */
+    public int getNumberOfThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Stops the threads of the search (if any). The instance can still be used afterwards, new threads are created
+     * for the next search.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private HeimlichAndCoAction search(HeimlichAndCo game, long maxIterations, long deadline) {
+        int player = game.getCurrentPlayer();
+        if (game.isGameOver() || !game.getPlayersToAgentsMap().containsKey(player)) {
+            throw new IllegalArgumentException("The game must not be over and the agent of the current player must be known.");
+        }
+        numberOfIterations.set(0);
+        int count = game.getPossibleActionIds(actionIds);
+        if (count == 1) {
+            return HeimlichAndCoActionUniverse.get(actionIds[0]);
+        }
+        int numberOfTrees = variant == Variant.SINGLE_OBSERVER ? 1 : game.getNumberOfPlayers();
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = new AtomicReferenceArray<>(numberOfTrees * Agent.values().length);
+        }
+        for (Worker worker : workers) {
+            worker.prepare(game, player);
+        }
+        runWorkers(maxIterations, deadline);
+
+        int rootIndex = (variant == Variant.SINGLE_OBSERVER ? 0 : player) * Agent.values().length
+                + game.getPlayersToAgentsMap().get(player).ordinal();
+        for (AtomicReferenceArray<Node> treeRoots : roots) {
+            Node root = treeRoots.get(rootIndex);
+            for (Node child : root.children) {
+                rootVisits[child.actionId] += child.visits;
+                rootRewards[child.actionId] += child.totalReward;
+            }
+        }
+        int best = -1;
+        for (int i = 0; i < count; i++) {
+            int id = actionIds[i];
+            if (best < 0 || rootVisits[id] > rootVisits[best]
+                    || (rootVisits[id] == rootVisits[best] && rootRewards[id] > rootRewards[best])) {
+                best = id;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            rootVisits[actionIds[i]] = 0;
+            rootRewards[actionIds[i]] = 0;
+        }
+        return HeimlichAndCoActionUniverse.get(best);
+    }
+
+    /**
+     * Runs the iterations of all workers, the first worker on the calling thread.
+     */
+    private void runWorkers(long maxIterations, long deadline) {
+        if (workers.length == 1) {
+            workers[0].run(maxIterations, deadline);
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(workers.length - 1, runnable -> {
+                Thread thread = new Thread(runnable, "ismcts-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        List<Future<?>> futures = new ArrayList<>(workers.length - 1);
+        for (int i = 1; i < workers.length; i++) {
+            Worker worker = workers[i];
+            futures.add(executor.submit(() -> worker.run(maxIterations, deadline)));
+        }
+        workers[0].run(maxIterations, deadline);
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("The search was interrupted.", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A thread of the search failed.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * The state of one thread of the search: its scratch game, buffers and random number generator.
+     */
+    private final class Worker {
+
+        private final Random random;
+        private final RandomPlayout playout;
+        /**
+         * Index of the roots this worker searches in.
+         */
+        private final int rootsIndex;
+        /**
+         * Buffer for the ids of the possible actions.
+         */
+        private final int[] actionIds = new int[HeimlichAndCoActionUniverse.size()];
+        /**
+         * Buffer for the ids of the possible actions without a child node.
+         */
+        private final int[] untriedActionIds = new int[HeimlichAndCoActionUniverse.size()];
+        /**
+         * The children of the node that is currently selected from, indexed by action id (null otherwise).
+         */
+        private final Node[] childOfAction = new Node[HeimlichAndCoActionUniverse.size()];
+        private HeimlichAndCo game;
+        private int player;
+        private HeimlichAndCo scratch;
+        /**
+         * The current node of each tree during an iteration.
+         */
+        private Node[] currentNodes;
+        private int[] rewards;
+        private boolean expanded;
+
+        private Worker(Random random, int rootsIndex) {
+            this.random = random;
+            this.playout = new RandomPlayout(random);
+            this.rootsIndex = rootsIndex;
+        }
+
+        /**
+         * Creates the scratch game if it does not fit the given game.
+         */
+        private void prepare(HeimlichAndCo game, int player) {
+            this.game = game;
+            this.player = player;
+            if (scratch == null || scratch.getNumberOfPlayers() != game.getNumberOfPlayers()
+                    || scratch.isWithCards() != game.isWithCards()
+                    || scratch.getBoard().getAgentsMask() != game.getBoard().getAgentsMask()) {
+                scratch = new HeimlichAndCo(game);
+                scratch.getActionRecords().clear();
+                scratch.setRecordHistory(false);
+                rewards = new int[game.getNumberOfPlayers()];
+                currentNodes = new Node[variant == Variant.SINGLE_OBSERVER ? 1 : game.getNumberOfPlayers()];
+            }
+        }
+
+        private void run(long maxIterations, long deadline) {
+            do {
+                iterate();
+            } while (numberOfIterations.incrementAndGet() < maxIterations && System.nanoTime() < deadline);
+        }
+
+        /**
+         * Does one iteration: determinization, selection and expansion, playout and backpropagation.
+         */
+        private void iterate() {
+            scratch.copyStateFrom(game);
+            scratch.determinize(player, random);
+            if (beliefTracker != null) {
+                beliefTracker.sampleAssignment(random, scratch.getPlayersToAgentsMap());
+            }
+            AtomicReferenceArray<Node> treeRoots = roots[rootsIndex];
+            for (int tree = 0; tree < currentNodes.length; tree++) {
+                int observer = variant == Variant.SINGLE_OBSERVER ? player : tree;
+                int index = tree * Agent.values().length + scratch.getPlayersToAgentsMap().get(observer).ordinal();
+                Node root = treeRoots.get(index);
+                if (root == null) {
+                    treeRoots.compareAndSet(index, null, new Node(-1, -1, null));
+                    root = treeRoots.get(index);
+                }
+                root.addVisit();
+                currentNodes[tree] = root;
+            }
+
+            expanded = false;
+            while (!expanded && !scratch.isGameOver()) {
+                if (scratch.getCurrentPhase() == HeimlichAndCoPhase.DIE_ROLL_PHASE && !scratch.isAllowCustomDieRolls()) {
+                    scratch.applyActionId(HeimlichAndCoActionUniverse.RANDOM_DIE_ROLL_ID);
+                    int outcome = HeimlichAndCoActionUniverse.encode(
+                            HeimlichAndCoActionUniverse.getResolvedDieRoll(scratch.getBoard().getLastDieRoll()));
+                    descend(outcome, -1, -1, null);
+                    continue;
+                }
+                int mover = scratch.getCurrentPlayer();
+                int moverTree = variant == Variant.SINGLE_OBSERVER ? 0 : mover;
+                Node selected = select(currentNodes[moverTree], mover);
+                scratch.applyActionId(selected.actionId);
+                descend(selected.actionId, mover, moverTree, selected);
+            }
+            while (!scratch.isGameOver()) {
+                playout.applyRandomAction(scratch);
+            }
+
+            calculateRewards();
+            for (Node node : currentNodes) {
+                for (; node != null; node = node.parent) {
+                    if (node.player >= 0) {
+                        node.addReward(rewards[node.player]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Selects the child of the given node with the highest UCB value among the actions possible in the scratch
+         * game, or expands a random possible action without a child. The visit of the selected child is already
+         * counted.
+         */
+        private Node select(Node node, int mover) {
+            int count = scratch.getPossibleActionIds(actionIds);
+            Node[] children = node.children;
+            for (Node child : children) {
+                childOfAction[child.actionId] = child;
+            }
+            int untried = 0;
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                Node child = childOfAction[actionIds[i]];
+                if (child == null) {
+                    untriedActionIds[untried++] = actionIds[i];
+                    continue;
+                }
+                int availability = child.addAvailability();
+                if (untried == 0) {
+                    int visits = child.visits;
+                    double value = (double) child.totalReward / REWARD_SCALE / visits
+                            + exploration * Math.sqrt(Math.log(availability) / visits);
+                    if (value > bestValue) {
+                        bestValue = value;
+                        best = child;
+                    }
+                }
+            }
+            for (Node child : children) {
+                childOfAction[child.actionId] = null;
+            }
+            if (untried > 0) {
+                expanded = true;
+                return node.getOrAddChild(untriedActionIds[random.nextInt(untried)], mover);
+            }
+            best.addVisit();
+            return best;
+        }
+
+        /**
+         * Moves the current node of every tree to the child for the given action (counting the visit), creating the
+         * child if necessary.
+         *
+         * @param selectedTree tree the child was already selected in (-1 if none)
+         * @param selected     the selected child in that tree
+         */
+        private void descend(int actionId, int player, int selectedTree, Node selected) {
+            for (int tree = 0; tree < currentNodes.length; tree++) {
+                currentNodes[tree] = tree == selectedTree ? selected : currentNodes[tree].getOrAddChild(actionId, player);
+            }
+        }
+
+        /**
+         * Calculates the result of the (finished) scratch game for every player.
+         */
+        private void calculateRewards() {
+            HeimlichAndCoBoard board = scratch.getBoard();
+            int maxScore = Integer.MIN_VALUE;
+            for (Agent agent : board.getAgents()) {
+                maxScore = Math.max(maxScore, board.getScore(agent));
+            }
+            int winners = 0;
+            for (int player = 0; player < rewards.length; player++) {
+                boolean winner = board.getScore(scratch.getPlayersToAgentsMap().get(player)) == maxScore
+                        && !scratch.getDisqualifiedPlayers().contains(player);
+                rewards[player] = winner ? 1 : 0;
+                winners += rewards[player];
+            }
+            for (int player = 0; player < rewards.length; player++) {
+                rewards[player] = rewards[player] * REWARD_SCALE / Math.max(winners, 1);
+            }
+        }
+    }
+
+    /**
+     * A node of a search tree, i.e. an information set reached by a sequence of (public) actions. The statistics are
+     * updated atomically and children are added with compare-and-set, so a tree can be shared by multiple threads.
+     */
+    private static final class Node {
+
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> AVAILABILITY =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "availability");
+        private static final AtomicLongFieldUpdater<Node> TOTAL_REWARD =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "totalReward");
+        private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        /**
+         * Id of the action leading to this node (for chance nodes, the id of the resolved die roll).
+         */
+        private final int actionId;
+        /**
+         * The player that chose the action leading to this node (-1 for chance outcomes and roots).
+         */
+        private final int player;
+        private final Node parent;
+        /**
+         * The children, the array is never changed after it was set (copy on write).
+         */
+        private volatile Node[] children = NO_CHILDREN;
+        private volatile int visits;
+        private volatile int availability;
+        /**
+         * The sum of the rewards in multiples of 1 / REWARD_SCALE.
+         */
+        private volatile long totalReward;
+
+        /**
+         * Creates a new node, which is counted as visited once and as available once (it is created when its action
+         * is available, and the exploration term of UCB needs an availability greater than 1 to be positive).
+         */
+        private Node(int actionId, int player, Node parent) {
+            this.actionId = actionId;
+            this.player = player;
+            this.parent = parent;
+            this.visits = 1;
+            this.availability = 1;
+        }
+
+        private void addVisit() {
+            VISITS.incrementAndGet(this);
+        }
+
+        private int addAvailability() {
+            return AVAILABILITY.incrementAndGet(this);
+        }
+
+        private void addReward(int reward) {
+            if (reward != 0) {
+                TOTAL_REWARD.addAndGet(this, reward);
+            }
+        }
+
+        /**
+         * Returns the child for the given action (counting a visit) or adds a new one.
+         */
+        private Node getOrAddChild(int actionId, int player) {
+            Node newChild = null;
+            while (true) {
+                Node[] current = children;
+                for (Node child : current) {
+                    if (child.actionId == actionId) {
+                        child.addVisit();
+                        return child;
+                    }
+                }
+                if (newChild == null) {
+                    newChild = new Node(actionId, player, this);
+                }
+                Node[] newChildren = new Node[current.length + 1];
+                System.arraycopy(current, 0, newChildren, 0, current.length);
+                newChildren[current.length] = newChild;
+                if (CHILDREN.compareAndSet(this, current, newChildren)) {
+                    return newChild;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package heimlich_and_co.search;
+
+import at.ac.tuwien.ifs.sge.agent.AbstractGameAgent;
+import at.ac.tuwien.ifs.sge.agent.GameAgent;
+import at.ac.tuwien.ifs.sge.engine.Logger;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A reference agent for HeimlichAndCo which chooses its actions with InformationSetMcts. The agents of the opponents
+ * are sampled from an AgentBeliefTracker, which is updated with the actions of each game.
+ * <p>
+ * The search uses the time given by the engine (see AbstractGameAgent.setTimers), which can be limited further with a
+ * fixed time budget per action.
+ */
+public class IsmctsAgent extends AbstractGameAgent<HeimlichAndCo, HeimlichAndCoAction>
+        implements GameAgent<HeimlichAndCo, HeimlichAndCoAction> {
+
+    private final InformationSetMcts search;
+    private final long timeBudgetNanos;
+    private final boolean useBeliefs;
+    private AgentBeliefTracker beliefTracker;
+
+    /**
+     * Creates a new single-observer agent which uses the time given by the engine.
+     *
+     * @param log the logger
+     */
+    public IsmctsAgent(Logger log) {
+        this(log, InformationSetMcts.Variant.SINGLE_OBSERVER, 0, TimeUnit.NANOSECONDS, true, 1,
+                InformationSetMcts.Parallelization.ROOT);
+    }
+
+    /**
+     * Creates a new agent.
+     *
+     * @param log             the logger
+     * @param variant         the variant of the search
+     * @param timeBudget      maximum time per action (0 to use the time given by the engine only)
+     * @param timeUnit        unit of the time budget
+     * @param useBeliefs      whether the agents of the opponents are sampled from an AgentBeliefTracker instead of
+     *                        uniformly
+     * @param threads         number of threads of the search
+     * @param parallelization how the search is split between the threads
+     */
+    public IsmctsAgent(Logger log, InformationSetMcts.Variant variant, long timeBudget, TimeUnit timeUnit,
+                       boolean useBeliefs, int threads, InformationSetMcts.Parallelization parallelization) {
+        super(log);
+        if (timeBudget < 0) {
+            throw new IllegalArgumentException("The time budget must not be negative.");
+        }
+        this.search = new InformationSetMcts(variant, InformationSetMcts.DEFAULT_EXPLORATION, new Random(), threads,
+                parallelization);
+        this.timeBudgetNanos = timeUnit.toNanos(timeBudget);
+        this.useBeliefs = useBeliefs;
+    }
+
+    @Override
+    public void setUp(int numberOfPlayers, int playerId) {
+        super.setUp(numberOfPlayers, playerId);
+        beliefTracker = null;
+    }
+
+    @Override
+    public HeimlichAndCoAction computeNextAction(HeimlichAndCo game, long computationTime, TimeUnit timeUnit) {
+        super.setTimers(computationTime, timeUnit);
+        long budget = nanosLeft();
+        if (timeBudgetNanos > 0) {
+            budget = Math.min(budget, timeBudgetNanos);
+        }
+        if (useBeliefs) {
+            if (beliefTracker == null) {
+                beliefTracker = new AgentBeliefTracker(game, game.getCurrentPlayer());
+            } else {
+                beliefTracker.update(game);
+            }
+            search.setBeliefTracker(beliefTracker);
+        }
+        HeimlichAndCoAction action = search.search(game, Math.max(budget, 0), TimeUnit.NANOSECONDS);
+        log.debugf("%d iterations in %d ms", search.getNumberOfIterations(), nanosElapsed() / 1_000_000);
+        return action;
+    }
+
+    @Override
+    public void destroy() {
+        search.shutdown();
+    }
+}
@@ -0,0 +1,235 @@
+package heimlich_and_co.search;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaves of the game tree of HeimlichAndCo to a given depth (perft, as known from chess engines), which
+ * verifies the generation of the possible actions and applyAction/undoLastAction against known numbers and measures
+ * their speed.
+ * <p>
+ * Die rolls branch into the faces of the die (custom die rolls), the random die roll is not counted as an action.
+ * Only leaves at exactly the given depth are counted, i.e. finished games above the given depth do not count. The tree
+ * is walked on a copy of the given game, with applyAction and undoLastAction. As all information of the game is used,
+ * the game should not be a copy with stripped information. Only games with the traditional cards are supported.
+ * <p>
+ * Usage from the command line: Perft depth numberOfPlayers [withCards [threads]]
+ */
+public final class Perft {
+
+    /**
+     * Subtrees with at least this depth are split into parallel tasks.
+     */
+    private static final int MIN_PARALLEL_DEPTH = 3;
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaves of the game tree to the given depth.
+     *
+     * @param game  the game the tree starts from (not changed)
+     * @param depth depth of the leaves
+     * @return the number of leaves
+     */
+    public static long perft(HeimlichAndCo game, int depth) {
+        checkDepth(depth);
+        return count(prepare(game), depth, new int[depth + 1][HeimlichAndCoActionUniverse.size()]);
+    }
+
+    /**
+     * Counts the leaves of the game tree to the given depth, split by the first action.
+     *
+     * @param game  the game the tree starts from (not changed)
+     * @param depth depth of the leaves (at least 1)
+     * @return the number of leaves below each action, in the order the actions are generated
+     */
+    public static Map<HeimlichAndCoAction, Long> divide(HeimlichAndCo game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The depth must be at least 1.");
+        }
+        HeimlichAndCo copy = prepare(game);
+        int[][] buffers = new int[depth + 1][HeimlichAndCoActionUniverse.size()];
+        Map<HeimlichAndCoAction, Long> result = new LinkedHashMap<>();
+        int count = getActionIds(copy, buffers[depth]);
+        for (int i = 0; i < count; i++) {
+            copy.applyActionId(buffers[depth][i]);
+            result.put(HeimlichAndCoActionUniverse.get(buffers[depth][i]), count(copy, depth - 1, buffers));
+            copy.undoLastAction();
+        }
+        return result;
+    }
+
+    /**
+     * Counts the leaves of the game tree to the given depth with fork/join, split by the first action.
+     *
+     * @param game  the game the tree starts from (not changed)
+     * @param depth depth of the leaves (at least 1)
+     * @param pool  the pool the tasks are run in
+     * @return the number of leaves below each action, in the order the actions are generated
+     */
+    public static Map<HeimlichAndCoAction, Long> divideParallel(HeimlichAndCo game, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The depth must be at least 1.");
+        }
+        HeimlichAndCo copy = prepare(game);
+        int[] ids = new int[HeimlichAndCoActionUniverse.size()];
+        int count = getActionIds(copy, ids);
+        List<PerftTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new PerftTask(copy, ids[i], depth - 1));
+        }
+        Map<HeimlichAndCoAction, Long> result = new LinkedHashMap<>();
+        for (PerftTask task : tasks) {
+            pool.execute(task);
+        }
+        for (int i = 0; i < count; i++) {
+            result.put(HeimlichAndCoActionUniverse.get(ids[i]), tasks.get(i).join());
+        }
+        return result;
+    }
+
+    /**
+     * Counts the leaves of the game tree to the given depth with fork/join.
+     *
+     * @param game  the game the tree starts from (not changed)
+     * @param depth depth of the leaves
+     * @param pool  the pool the tasks are run in
+     * @return the number of leaves
+     */
+    public static long perftParallel(HeimlichAndCo game, int depth, ForkJoinPool pool) {
+        checkDepth(depth);
+        if (depth == 0) {
+            return 1;
+        }
+        long leaves = 0;
+        for (long count : divideParallel(game, depth, pool).values()) {
+            leaves += count;
+        }
+        return leaves;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: Perft depth numberOfPlayers [withCards [threads]]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        int numberOfPlayers = Integer.parseInt(args[1]);
+        boolean withCards = args.length > 2 && Boolean.parseBoolean(args[2]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        HeimlichAndCo game = new HeimlichAndCo(withCards ? "1" : "0", numberOfPlayers);
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long leaves;
+            if (threads > 1) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                leaves = perftParallel(game, d, pool);
+                pool.shutdown();
+            } else {
+                leaves = perft(game, d);
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("perft(%d) = %d (%.1f ms, %.0f leaves/s)%n", d, leaves, nanos / 1e6, leaves * 1e9 / nanos);
+        }
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("The depth must not be negative.");
+        }
+    }
+
+    /**
+     * Returns a copy of the given game that can be walked with applyAction and undoLastAction, with custom die rolls.
+     */
+    private static HeimlichAndCo prepare(HeimlichAndCo game) {
+        HeimlichAndCo copy = new HeimlichAndCo(game);
+        copy.getActionRecords().clear();
+        copy.setRecordHistory(true);
+        copy.setAllowCustomDieRolls(true);
+        return copy;
+    }
+
+    /**
+     * Writes the ids of the actions that are branched on to the given array (the possible actions without the random
+     * die roll).
+     */
+    private static int getActionIds(HeimlichAndCo game, int[] ids) {
+        int count = game.getPossibleActionIds(ids);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (ids[i] != HeimlichAndCoActionUniverse.RANDOM_DIE_ROLL_ID) {
+                ids[kept++] = ids[i];
+            }
+        }
+        return kept;
+    }
+
+    private static long count(HeimlichAndCo game, int depth, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] ids = buffers[depth];
+        int count = getActionIds(game, ids);
+        if (depth == 1) {
+            return count;
+        }
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            game.applyActionId(ids[i]);
+            leaves += count(game, depth - 1, buffers);
+            game.undoLastAction();
+        }
+        return leaves;
+    }
+
+    /**
+     * Counts the leaves below an action on its own copy of the parent game, forking a task per action for deep
+     * subtrees. The parent is not changed while its tasks run, so they can copy it at the same time.
+     */
+    private static final class PerftTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final HeimlichAndCo parent;
+        private final int actionId;
+        private final int depth;
+
+        private PerftTask(HeimlichAndCo parent, int actionId, int depth) {
+            this.parent = parent;
+            this.actionId = actionId;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            HeimlichAndCo game = prepare(parent);
+            game.applyActionId(actionId);
+            if (depth < MIN_PARALLEL_DEPTH) {
+                return count(game, depth, new int[depth + 1][HeimlichAndCoActionUniverse.size()]);
+            }
+            int[] ids = new int[HeimlichAndCoActionUniverse.size()];
+            int count = getActionIds(game, ids);
+            List<PerftTask> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                PerftTask task = new PerftTask(game, ids[i], depth - 1);
+                task.fork();
+                tasks.add(task);
+            }
+            long leaves = 0;
+            for (PerftTask task : tasks) {
+                leaves += task.join();
+            }
+            return leaves;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package heimlich_and_co.search;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+import heimlich_and_co.actions.HeimlichAndCoAgentMoveAction;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays games to the end by applying uniformly random possible actions, e.g. for Monte Carlo evaluation of states.
+ * <p>
+ * The playouts are done on a scratch game which is reused for every playout (see HeimlichAndCo.copyStateFrom) and
+ * which does not record its history. The random actions are sampled without creating the set of possible actions:
+ * agent moves are drawn from the precomputed list of compositions of the die result, safe moves are drawn directly and
+ * all other actions are drawn from the ids of the possible actions (see HeimlichAndCo.getPossibleActionIds).
+ * Therefore, a playout does not allocate apart from copying the state at its start.
+ * <p>
+ * An instance must not be used by multiple threads at the same time, use one instance per thread instead.
+ */
+public class RandomPlayout {
+
+    private final Random random;
+    /**
+     * Buffer for the ids of the possible actions.
+     */
+    private final int[] actionIds = new int[HeimlichAndCoActionUniverse.size()];
+    /**
+     * The game the playouts are done on (null until the first playout).
+     */
+    private HeimlichAndCo scratch;
+    /**
+     * The number of actions applied by this instance so far.
+     */
+    private long numberOfSteps;
+
+    /**
+     * Creates a new RandomPlayout instance with a new random number generator.
+     */
+    public RandomPlayout() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a new RandomPlayout instance which uses the given random number generator to choose the actions.
+     * Note: The results of the die rolls are determined by the die of the board and not by this generator.
+     *
+     * @param random random number generator
+     */
+    public RandomPlayout(Random random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Random must not be null.");
+        }
+        this.random = random;
+    }
+
+    /**
+     * Plays a copy of the given game until it is over. The given game is not changed.
+     *
+     * @param game the state the playout starts from
+     * @return the scratch game in its final state, only valid until the next playout of this instance
+     */
+    public HeimlichAndCo playout(HeimlichAndCo game) {
+        return playout(game, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Plays a copy of the given game until it is over or the given number of actions was applied. The given game is not
+     * changed.
+     *
+     * @param game     the state the playout starts from
+     * @param maxSteps maximum number of actions that are applied
+     * @return the scratch game in its final state, only valid until the next playout of this instance
+     */
+    public HeimlichAndCo playout(HeimlichAndCo game, int maxSteps) {
+        if (maxSteps < 0) {
+            throw new IllegalArgumentException("The maximum number of steps must not be negative.");
+        }
+        HeimlichAndCo state = prepareScratch(game);
+        for (int step = 0; step < maxSteps && !state.isGameOver(); step++) {
+            applyRandomAction(state);
+        }
+        return state;
+    }
+
+    /**
+     * Applies a uniformly random possible action to the given game, i.e. changes the given game.
+     *
+     * @param game the game
+     * @return the applied action
+     * @throws IllegalStateException if the game is already over
+     */
+    public HeimlichAndCoAction applyRandomAction(HeimlichAndCo game) {
+        HeimlichAndCoAction action = getRandomAction(game);
+        game.applyAction(action);
+        numberOfSteps++;
+        return action;
+    }
+
+    /**
+     * Returns a uniformly random action of the possible actions of the given game.
+     *
+     * @param game the game
+     * @return the action (a shared instance of the HeimlichAndCoActionUniverse)
+     * @throws IllegalStateException if the game is already over
+     */
+    public HeimlichAndCoAction getRandomAction(HeimlichAndCo game) {
+        if (game.isGameOver()) {
+            throw new IllegalStateException("There are no possible actions if the game is over.");
+        }
+        HeimlichAndCoBoard board = game.getBoard();
+        switch (game.getCurrentPhase()) {
+            case AGENT_MOVE_PHASE:
+                List<HeimlichAndCoAgentMoveAction> agentMoves =
+                        HeimlichAndCoAgentMoveAction.getPossibleActionsList(board, game.isWithCards());
+                return agentMoves.get(random.nextInt(agentMoves.size()));
+            case SAFE_MOVE_PHASE:
+                //every field apart from the current one
+                int field = random.nextInt(board.getNumberOfFields() - 1);
+                if (field >= board.getSafePosition()) {
+                    field++;
+                }
+                return HeimlichAndCoActionUniverse.getSafeMove(field);
+            default:
+                int count = game.getPossibleActionIds(actionIds);
+                return HeimlichAndCoActionUniverse.get(actionIds[random.nextInt(count)]);
+        }
+    }
+
+    /**
+     * @return the number of actions applied by this instance so far
+     */
+    public long getNumberOfSteps() {
+        return numberOfSteps;
+    }
+
+    /**
+     * Copies the given game into the scratch game, creating a new scratch game if there is none or if it does not fit
+     * the given game.
+     *
+     * @param game the game to copy
+     * @return the scratch game
+     */
+    private HeimlichAndCo prepareScratch(HeimlichAndCo game) {
+        if (scratch == null || scratch.getNumberOfPlayers() != game.getNumberOfPlayers()
+                || scratch.isWithCards() != game.isWithCards()
+                || scratch.getBoard().getAgentsMask() != game.getBoard().getAgentsMask()) {
+            scratch = new HeimlichAndCo(game);
+            scratch.getActionRecords().clear();
+            scratch.setRecordHistory(false);
+        } else {
+            scratch.copyStateFrom(game);
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,290 @@
+package heimlich_and_co.search;
+
+import heimlich_and_co.HeimlichAndCo;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded transposition table which stores visit counts and value estimates for game states, keyed on the Zobrist key
+ * of the state (see HeimlichAndCo.getZobristKey()).
+ * <p>
+ * Agent moves commute (moving PERRY 1 then SCHULZ 2 leads to the same state as the reverse order), so a search
+ * reaches the same states over different paths. As the Zobrist key is carried over by the copy constructor, the table
+ * can be used by any search built on Game.doAction (or applyAction) without further bookkeeping.
+ * <p>
+ * The table is lock-free: every entry consists of three longs in an AtomicLongArray, where the first long is the key
+ * XORed with the other two. An entry which was torn by concurrent writes therefore does not verify and is treated as
+ * a miss. Concurrent updates of the same entry may overwrite each other (i.e. lose a visit), which is acceptable for
+ * statistics used by a search.
+ */
+public class TranspositionTable {
+
+    /**
+     * Decides which entry is overwritten when a new entry does not fit into its slot.
+     */
+    public enum ReplacementPolicy {
+        /**
+         * An entry is only replaced by an entry for the same key or an entry with at least the same depth.
+         */
+        DEPTH_PREFERRED,
+        /**
+         * An entry is always replaced by the newest entry.
+         */
+        ALWAYS_REPLACE,
+        /**
+         * Each slot holds two entries, one is replaced depth-preferred and one is always replaced. An entry pushed out
+         * of the depth-preferred tier moves to the always-replace tier.
+         */
+        TWO_TIER
+    }
+
+    /**
+     * The maximum depth that can be stored (the depth is stored in 16 bits, 0 marks an empty entry).
+     */
+    public static final int MAX_DEPTH = 0xFFFE;
+
+    private static final int WORDS_PER_ENTRY = 3;
+    private static final int MAX_ENTRIES = 1 << 28;
+    private static final long DEPTH_MASK = 0xFFFF;
+    private static final int VISITS_SHIFT = 16;
+
+    private final ReplacementPolicy policy;
+    private final int entriesPerSlot;
+    private final int slotMask;
+    private final AtomicLongArray table;
+
+    /**
+     * Creates a new table with room for at least the given number of entries (rounded up to a power of two).
+     *
+     * @param capacity number of entries the table should be able to hold (between 1 and 2^28)
+     * @param policy   the replacement policy
+     */
+    public TranspositionTable(int capacity, ReplacementPolicy policy) {
+        if (capacity < 1 || capacity > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_ENTRIES + ".");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Policy must not be null.");
+        }
+        this.policy = policy;
+        this.entriesPerSlot = policy == ReplacementPolicy.TWO_TIER ? 2 : 1;
+        int entries = Math.max(Integer.highestOneBit(capacity - 1) << 1, entriesPerSlot);
+        this.slotMask = entries / entriesPerSlot - 1;
+        this.table = new AtomicLongArray(entries * WORDS_PER_ENTRY);
+    }
+
+    /**
+     * Returns the entry for the given key.
+     *
+     * @param key Zobrist key of the state
+     * @return the entry or null if there is no (valid) entry for the key
+     */
+    public Entry get(long key) {
+        int first = firstEntry(key);
+        for (int i = first; i < first + entriesPerSlot; i++) {
+            int offset = i * WORDS_PER_ENTRY;
+            long data = table.get(offset + 1);
+            long value = table.get(offset + 2);
+            if (data != 0 && (table.get(offset) ^ data ^ value) == key) {
+                return new Entry(key, (int) (data & DEPTH_MASK) - 1, data >>> VISITS_SHIFT, Double.longBitsToDouble(value));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the entry for the given state.
+     *
+     * @param game the state
+     * @return the entry or null if there is no (valid) entry for the state
+     */
+    public Entry get(HeimlichAndCo game) {
+        return get(game.getZobristKey());
+    }
+
+    /**
+     * Stores an entry for the given key, subject to the replacement policy.
+     *
+     * @param key    Zobrist key of the state
+     * @param depth  depth of the search below the state (between 0 and MAX_DEPTH)
+     * @param visits number of visits of the state (between 0 and 2^48 - 1)
+     * @param value  value estimate of the state
+     * @return whether the entry was stored
+     */
+    public boolean put(long key, int depth, long visits, double value) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + MAX_DEPTH + ".");
+        }
+        if (visits < 0 || visits >>> (Long.SIZE - VISITS_SHIFT) != 0) {
+            throw new IllegalArgumentException("Invalid number of visits: " + visits);
+        }
+        long data = (visits << VISITS_SHIFT) | (depth + 1);
+        long valueBits = Double.doubleToRawLongBits(value);
+        int first = firstEntry(key);
+        switch (policy) {
+            case ALWAYS_REPLACE:
+                write(first, key, data, valueBits);
+                return true;
+            case DEPTH_PREFERRED:
+                if (keyAt(first) == key || depthAt(first) <= depth) {
+                    write(first, key, data, valueBits);
+                    return true;
+                }
+                return false;
+            case TWO_TIER:
+                long storedKey = keyAt(first);
+                if (storedKey == key || depthAt(first) <= depth) {
+                    if (storedKey != key && table.get(first * WORDS_PER_ENTRY + 1) != 0) {
+                        //move the old entry to the always-replace tier
+                        int offset = first * WORDS_PER_ENTRY;
+                        write(first + 1, storedKey, table.get(offset + 1), table.get(offset + 2));
+                    } else if (keyAt(first + 1) == key) {
+                        clear(first + 1);
+                    }
+                    write(first, key, data, valueBits);
+                } else {
+                    write(first + 1, key, data, valueBits);
+                }
+                return true;
+            default:
+                throw new IllegalStateException("Unknown replacement policy.");
+        }
+    }
+
+    /**
+     * Stores an entry for the given state, subject to the replacement policy.
+     *
+     * @param game   the state
+     * @param depth  depth of the search below the state
+     * @param visits number of visits of the state
+     * @param value  value estimate of the state
+     * @return whether the entry was stored
+     */
+    public boolean put(HeimlichAndCo game, int depth, long visits, double value) {
+        return put(game.getZobristKey(), depth, visits, value);
+    }
+
+    /**
+     * Adds a visit with the given result to the entry of the key, i.e. increases the visits by one and updates the
+     * value to the new mean. Creates the entry if there is none (subject to the replacement policy).
+     *
+     * @param key    Zobrist key of the state
+     * @param depth  depth of the search below the state
+     * @param result result of the visit
+     * @return whether the entry was stored
+     */
+    public boolean addVisit(long key, int depth, double result) {
+        Entry entry = get(key);
+        if (entry == null) {
+            return put(key, depth, 1, result);
+        }
+        long visits = entry.getVisits() + 1;
+        double value = entry.getValue() + (result - entry.getValue()) / visits;
+        return put(key, Math.max(depth, entry.getDepth()), visits, value);
+    }
+
+    /**
+     * Adds a visit with the given result to the entry of the given state.
+     *
+     * @param game   the state
+     * @param depth  depth of the search below the state
+     * @param result result of the visit
+     * @return whether the entry was stored
+     */
+    public boolean addVisit(HeimlichAndCo game, int depth, double result) {
+        return addVisit(game.getZobristKey(), depth, result);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns the number of entries the table can hold.
+     */
+    public int getCapacity() {
+        return table.length() / WORDS_PER_ENTRY;
+    }
+
+    public ReplacementPolicy getPolicy() {
+        return policy;
+    }
+
+    private int firstEntry(long key) {
+        return ((int) (key ^ (key >>> 32)) & slotMask) * entriesPerSlot;
+    }
+
+    private long keyAt(int entry) {
+        int offset = entry * WORDS_PER_ENTRY;
+        return table.get(offset) ^ table.get(offset + 1) ^ table.get(offset + 2);
+    }
+
+    /**
+     * Returns the stored depth of an entry (-1 if the entry is empty).
+     */
+    private int depthAt(int entry) {
+        return (int) (table.get(entry * WORDS_PER_ENTRY + 1) & DEPTH_MASK) - 1;
+    }
+
+    private void write(int entry, long key, long data, long value) {
+        int offset = entry * WORDS_PER_ENTRY;
+        table.set(offset + 1, data);
+        table.set(offset + 2, value);
+        table.set(offset, key ^ data ^ value);
+    }
+
+    private void clear(int entry) {
+        int offset = entry * WORDS_PER_ENTRY;
+        table.set(offset + 1, 0);
+        table.set(offset + 2, 0);
+        table.set(offset, 0);
+    }
+
+    /**
+     * An immutable snapshot of an entry of the table.
+     */
+    public static final class Entry {
+        private final long key;
+        private final int depth;
+        private final long visits;
+        private final double value;
+
+        private Entry(long key, int depth, long visits, double value) {
+            this.key = key;
+            this.depth = depth;
+            this.visits = visits;
+            this.value = value;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getVisits() {
+            return visits;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "key=" + key +
+                    ", depth=" + depth +
+                    ", visits=" + visits +
+                    ", value=" + value +
+                    '}';
+        }
+    }
+}
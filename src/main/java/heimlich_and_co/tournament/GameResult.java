@@ -0,0 +1,111 @@
+package heimlich_and_co.tournament;
+
+import java.util.Arrays;
+
+/**
+ * The result of a single game of a Tournament. All values are indexed by the seat (i.e. the player) in the game.
+ */
+public final class GameResult {
+
+    private final int index;
+    private final int[] contestants;
+    private final int[] scores;
+    private final double[] winShares;
+    private final boolean[] disqualified;
+    private final boolean aborted;
+    private final int numberOfActions;
+    private final long durationNanos;
+
+    GameResult(int index, int[] contestants, int[] scores, double[] winShares, boolean[] disqualified, boolean aborted,
+               int numberOfActions, long durationNanos) {
+        this.index = index;
+        this.contestants = contestants;
+        this.scores = scores;
+        this.winShares = winShares;
+        this.disqualified = disqualified;
+        this.aborted = aborted;
+        this.numberOfActions = numberOfActions;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * @return the index of the game in the tournament
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getNumberOfPlayers() {
+        return contestants.length;
+    }
+
+    /**
+     * @param seat the seat
+     * @return the index of the contestant that played the given seat
+     */
+    public int getContestant(int seat) {
+        return contestants[seat];
+    }
+
+    /**
+     * @param seat the seat
+     * @return the score of the agent of the given seat at the end of the game
+     */
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * Returns the share of the win of the given seat: 1 / number of winners if the agent of the seat has the highest
+     * score and the seat was not disqualified, 0 otherwise. The shares of a game add up to 0 (an agent that belongs to
+     * no player won) or 1.
+     *
+     * @param seat the seat
+     * @return the share of the win
+     */
+    public double getWinShare(int seat) {
+        return winShares[seat];
+    }
+
+    /**
+     * @param seat the seat
+     * @return whether the agent of the seat was disqualified, because it failed to return a valid action in time
+     */
+    public boolean isDisqualified(int seat) {
+        return disqualified[seat];
+    }
+
+    /**
+     * Returns whether the game was aborted, because an agent failed when it could not be disqualified (there must be at
+     * least two players left). The remaining players share the win of an aborted game.
+     *
+     * @return whether the game was aborted
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public int getNumberOfActions() {
+        return numberOfActions;
+    }
+
+    /**
+     * @return the wall-clock time the game took, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "GameResult{" +
+                "index=" + index +
+                ", contestants=" + Arrays.toString(contestants) +
+                ", scores=" + Arrays.toString(scores) +
+                ", winShares=" + Arrays.toString(winShares) +
+                ", disqualified=" + Arrays.toString(disqualified) +
+                ", aborted=" + aborted +
+                ", numberOfActions=" + numberOfActions +
+                '}';
+    }
+}
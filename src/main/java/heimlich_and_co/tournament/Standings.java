@@ -0,0 +1,196 @@
+package heimlich_and_co.tournament;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The aggregated results of the games of a Tournament, per contestant and number of players. Thread-safe, i.e. the
+ * standings can be read while the games are played and recorded by other threads.
+ * <p>
+ * The win rate of a contestant is the sum of its win shares divided by the number of seats it played. The confidence
+ * interval is the Wilson score interval, which treats the seats as independent trials. This is only an approximation
+ * if a contestant plays several seats of a game, as the outcomes of those seats are not independent.
+ */
+public final class Standings {
+
+    /**
+     * The z-value of the confidence intervals (95 %).
+     */
+    public static final double Z = 1.959963984540054;
+
+    private static final int MAXIMUM_NUMBER_OF_PLAYERS = 7;
+
+    private final List<String> names;
+    /**
+     * seats[contestant][numberOfPlayers] is the number of seats the contestant played in games with the given number
+     * of players.
+     */
+    private final long[][] seats;
+    private final double[][] winShares;
+    private final long[][] disqualifications;
+    private long numberOfGames;
+    private long numberOfAbortedGames;
+
+    Standings(List<String> names) {
+        this.names = List.copyOf(names);
+        this.seats = new long[names.size()][MAXIMUM_NUMBER_OF_PLAYERS + 1];
+        this.winShares = new double[names.size()][MAXIMUM_NUMBER_OF_PLAYERS + 1];
+        this.disqualifications = new long[names.size()][MAXIMUM_NUMBER_OF_PLAYERS + 1];
+    }
+
+    /**
+     * Adds the result of a game.
+     *
+     * @param result the result
+     */
+    synchronized void record(GameResult result) {
+        int numberOfPlayers = result.getNumberOfPlayers();
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            int contestant = result.getContestant(seat);
+            seats[contestant][numberOfPlayers]++;
+            winShares[contestant][numberOfPlayers] += result.getWinShare(seat);
+            if (result.isDisqualified(seat)) {
+                disqualifications[contestant][numberOfPlayers]++;
+            }
+        }
+        numberOfGames++;
+        if (result.isAborted()) {
+            numberOfAbortedGames++;
+        }
+    }
+
+    public int getNumberOfContestants() {
+        return names.size();
+    }
+
+    public String getName(int contestant) {
+        return names.get(contestant);
+    }
+
+    public synchronized long getNumberOfGames() {
+        return numberOfGames;
+    }
+
+    public synchronized long getNumberOfAbortedGames() {
+        return numberOfAbortedGames;
+    }
+
+    /**
+     * Returns the win rate of the given contestant in games with the given number of players.
+     *
+     * @param contestant      index of the contestant
+     * @param numberOfPlayers the number of players
+     * @return the win rate
+     */
+    public synchronized WinRate getWinRate(int contestant, int numberOfPlayers) {
+        checkNumberOfPlayers(numberOfPlayers);
+        return new WinRate(seats[contestant][numberOfPlayers], winShares[contestant][numberOfPlayers],
+                disqualifications[contestant][numberOfPlayers]);
+    }
+
+    /**
+     * Returns the win rate of the given contestant over the games with any number of players.
+     *
+     * @param contestant index of the contestant
+     * @return the win rate
+     */
+    public synchronized WinRate getWinRate(int contestant) {
+        long totalSeats = 0;
+        double totalWinShares = 0;
+        long totalDisqualifications = 0;
+        for (int numberOfPlayers = 0; numberOfPlayers <= MAXIMUM_NUMBER_OF_PLAYERS; numberOfPlayers++) {
+            totalSeats += seats[contestant][numberOfPlayers];
+            totalWinShares += winShares[contestant][numberOfPlayers];
+            totalDisqualifications += disqualifications[contestant][numberOfPlayers];
+        }
+        return new WinRate(totalSeats, totalWinShares, totalDisqualifications);
+    }
+
+    /**
+     * @return a table of the win rates of all contestants for each number of players that was played
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%d games (%d aborted)%n", numberOfGames, numberOfAbortedGames));
+        for (int numberOfPlayers = 0; numberOfPlayers <= MAXIMUM_NUMBER_OF_PLAYERS; numberOfPlayers++) {
+            for (int contestant = 0; contestant < names.size(); contestant++) {
+                if (seats[contestant][numberOfPlayers] > 0) {
+                    builder.append(String.format(Locale.ROOT, "%d players  %-20s %s%n", numberOfPlayers,
+                            names.get(contestant), getWinRate(contestant, numberOfPlayers)));
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void checkNumberOfPlayers(int numberOfPlayers) {
+        if (numberOfPlayers < 0 || numberOfPlayers > MAXIMUM_NUMBER_OF_PLAYERS) {
+            throw new IllegalArgumentException("Invalid number of players: " + numberOfPlayers);
+        }
+    }
+
+    /**
+     * A win rate with its confidence interval.
+     */
+    public static final class WinRate {
+
+        private final long seats;
+        private final double winShares;
+        private final long disqualifications;
+
+        private WinRate(long seats, double winShares, long disqualifications) {
+            this.seats = seats;
+            this.winShares = winShares;
+            this.disqualifications = disqualifications;
+        }
+
+        public long getSeats() {
+            return seats;
+        }
+
+        public double getWinShares() {
+            return winShares;
+        }
+
+        public long getDisqualifications() {
+            return disqualifications;
+        }
+
+        /**
+         * @return the win rate (0 if no seat was played)
+         */
+        public double getWinRate() {
+            return seats == 0 ? 0 : winShares / seats;
+        }
+
+        /**
+         * @return the lower bound of the Wilson score interval of the win rate (0 if no seat was played)
+         */
+        public double getLowerBound() {
+            return seats == 0 ? 0 : center() - halfWidth();
+        }
+
+        /**
+         * @return the upper bound of the Wilson score interval of the win rate (1 if no seat was played)
+         */
+        public double getUpperBound() {
+            return seats == 0 ? 1 : center() + halfWidth();
+        }
+
+        private double center() {
+            return (getWinRate() + Z * Z / (2 * seats)) / (1 + Z * Z / seats);
+        }
+
+        private double halfWidth() {
+            double rate = getWinRate();
+            return Z * Math.sqrt(rate * (1 - rate) / seats + Z * Z / (4.0 * seats * seats)) / (1 + Z * Z / seats);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.3f [%.3f, %.3f] (%d seats, %d disqualified)", getWinRate(),
+                    getLowerBound(), getUpperBound(), seats, disqualifications);
+        }
+    }
+}
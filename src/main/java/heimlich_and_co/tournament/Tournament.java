@@ -0,0 +1,372 @@
+package heimlich_and_co.tournament;
+
+import at.ac.tuwien.ifs.sge.agent.GameAgent;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.enums.Agent;
+import heimlich_and_co.util.GameRandom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games of HeimlichAndCo between agents (contestants) in parallel, e.g. for evaluating agents against each
+ * other over all numbers of players and seats.
+ * <p>
+ * The games are independent tasks that are split with fork/join and played by the threads of a ForkJoinPool, so idle
+ * threads steal games from busy ones. Each game gets new agents from the factories of the contestants, which are set up,
+ * asked for their actions with the stripped view of the game of their player (like the SGE engine does) and torn down
+ * and destroyed at the end of the game. The result of every game is recorded in the Standings, which can be read while
+ * the tournament is running, and passed to a listener as soon as the game is over.
+ * <p>
+ * Game i is played with the number of players playerCounts[i % playerCounts.length], and the contestants take the seats
+ * in turn: seat s is played by contestant (i / playerCounts.length + s) % numberOfContestants. Therefore, every
+ * contestant plays every seat equally often if the number of games per number of players is a multiple of the number
+ * of contestants. Each game is created with its own seed derived from the seed of the tournament, i.e. the die rolls,
+ * the cards and the agents of the players of a game do not depend on the scheduling (the agents may still be
+ * nondeterministic).
+ * <p>
+ * An agent that throws an exception or error (in setUp or when computing an action), returns an invalid action or
+ * exceeds the timeout is disqualified at its next turn, or the game is aborted if it cannot be disqualified (see
+ * GameResult). Therefore, a broken contestant only loses its games and does not abort the tournament. Errors of the
+ * virtual machine (e.g. OutOfMemoryError, but not StackOverflowError) are not blamed on the agent and abort the
+ * tournament.
+ */
+public class Tournament {
+
+    /**
+     * A participant of a tournament: a name and a factory for its agents.
+     */
+    public static final class Contestant {
+
+        private final String name;
+        private final Supplier<? extends GameAgent<HeimlichAndCo, HeimlichAndCoAction>> agentFactory;
+
+        /**
+         * Creates a new contestant.
+         *
+         * @param name         the name
+         * @param agentFactory creates a new agent for every seat of every game (called by the threads of the pool)
+         */
+        public Contestant(String name, Supplier<? extends GameAgent<HeimlichAndCo, HeimlichAndCoAction>> agentFactory) {
+            if (name == null || agentFactory == null) {
+                throw new IllegalArgumentException("Name and agent factory must not be null.");
+            }
+            this.name = name;
+            this.agentFactory = agentFactory;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final List<Contestant> contestants;
+    private final int[] playerCounts;
+    private final int numberOfGames;
+    private final Standings standings;
+    private boolean withCards = true;
+    private long computationTimeNanos = TimeUnit.SECONDS.toNanos(1);
+    private long timeoutNanos = 2 * computationTimeNanos;
+    private long seed;
+
+    /**
+     * Creates a new tournament.
+     *
+     * @param contestants         the contestants (at least one)
+     * @param playerCounts        the numbers of players the games are played with
+     * @param gamesPerPlayerCount the number of games played with each number of players
+     */
+    public Tournament(List<Contestant> contestants, int[] playerCounts, int gamesPerPlayerCount) {
+        if (contestants == null || contestants.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one contestant.");
+        }
+        if (playerCounts == null || playerCounts.length == 0) {
+            throw new IllegalArgumentException("There must be at least one number of players.");
+        }
+        for (int numberOfPlayers : playerCounts) {
+            new HeimlichAndCo(numberOfPlayers); //checks the number of players
+        }
+        if (gamesPerPlayerCount < 1) {
+            throw new IllegalArgumentException("At least one game must be played per number of players.");
+        }
+        this.contestants = List.copyOf(contestants);
+        this.playerCounts = Arrays.copyOf(playerCounts, playerCounts.length);
+        this.numberOfGames = Math.multiplyExact(gamesPerPlayerCount, playerCounts.length);
+        List<String> names = new ArrayList<>();
+        for (Contestant contestant : contestants) {
+            names.add(contestant.getName());
+        }
+        this.standings = new Standings(names);
+        this.seed = new GameRandom().nextLong();
+    }
+
+    public void setWithCards(boolean withCards) {
+        this.withCards = withCards;
+    }
+
+    /**
+     * Sets the computation time that is passed to the agents for each action, and sets the timeout to twice this time.
+     *
+     * @param computationTime the computation time
+     * @param timeUnit        the unit of the computation time
+     */
+    public void setComputationTime(long computationTime, TimeUnit timeUnit) {
+        if (computationTime <= 0) {
+            throw new IllegalArgumentException("The computation time must be positive.");
+        }
+        this.computationTimeNanos = timeUnit.toNanos(computationTime);
+        this.timeoutNanos = 2 * computationTimeNanos;
+    }
+
+    /**
+     * Sets the time after which an agent is disqualified. The agents are not interrupted, the time is checked after
+     * they returned their action.
+     *
+     * @param timeout  the timeout
+     * @param timeUnit the unit of the timeout
+     */
+    public void setTimeout(long timeout, TimeUnit timeUnit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("The timeout must be positive.");
+        }
+        this.timeoutNanos = timeUnit.toNanos(timeout);
+    }
+
+    /**
+     * Sets the seed the seeds of the games are derived from (random by default).
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getNumberOfGames() {
+        return numberOfGames;
+    }
+
+    /**
+     * @return the standings, which are updated while the tournament is running
+     */
+    public Standings getStandings() {
+        return standings;
+    }
+
+    /**
+     * Plays all games in the given pool and waits until they are over.
+     *
+     * @param pool     the pool the games are played in
+     * @param listener called with the result of each game as soon as it is over, by the thread that played the game
+     *                 (i.e. it must be thread-safe), can be null
+     * @return the standings
+     */
+    public Standings run(ForkJoinPool pool, Consumer<GameResult> listener) {
+        return start(pool, listener).join();
+    }
+
+    /**
+     * Starts playing all games in the given pool and returns immediately.
+     *
+     * @param pool     the pool the games are played in
+     * @param listener called with the result of each game as soon as it is over, by the thread that played the game
+     *                 (i.e. it must be thread-safe), can be null
+     * @return the task which completes with the standings when all games are over
+     */
+    public ForkJoinTask<Standings> start(ForkJoinPool pool, Consumer<GameResult> listener) {
+        GamesTask task = new GamesTask(0, numberOfGames, listener);
+        return pool.submit(ForkJoinTask.adapt(() -> {
+            task.invoke();
+            return standings;
+        }));
+    }
+
+    /**
+     * Plays the game with the given index in the current thread. The result is not recorded in the standings.
+     *
+     * @param index index of the game
+     * @return the result
+     */
+    public GameResult playGame(int index) {
+        if (index < 0 || index >= numberOfGames) {
+            throw new IllegalArgumentException("Invalid index of a game: " + index);
+        }
+        int numberOfPlayers = playerCounts[index % playerCounts.length];
+        int round = index / playerCounts.length;
+        int[] seating = new int[numberOfPlayers];
+        for (int seat = 0; seat < numberOfPlayers; seat++) {
+            seating[seat] = (round + seat) % contestants.size();
+        }
+        long start = System.nanoTime();
+        HeimlichAndCo game = new HeimlichAndCo(withCards ? "1" : "0", numberOfPlayers,
+                new GameRandom(seed + index).nextLong());
+        //the game is played in place and never walked back, the action records are kept for the views of the agents
+        game.setUndoEnabled(false);
+        List<GameAgent<HeimlichAndCo, HeimlichAndCoAction>> agents = new ArrayList<>(numberOfPlayers);
+        boolean[] failedSetUp = new boolean[numberOfPlayers];
+        boolean[] disqualified = new boolean[numberOfPlayers];
+        boolean aborted = false;
+        int numberOfActions = 0;
+        try {
+            for (int seat = 0; seat < numberOfPlayers; seat++) {
+                agents.add(null);
+                try {
+                    GameAgent<HeimlichAndCo, HeimlichAndCoAction> agent =
+                            contestants.get(seating[seat]).agentFactory.get();
+                    agents.set(seat, agent);
+                    agent.setUp(numberOfPlayers, seat);
+                } catch (Throwable e) {
+                    rethrowIfFatal(e);
+                    failedSetUp[seat] = true;
+                }
+            }
+            while (!game.isGameOver()) {
+                int player = game.getCurrentPlayer();
+                HeimlichAndCoAction action =
+                        failedSetUp[player] ? null : computeAction(agents.get(player), game, player);
+                if (action != null) {
+                    game.applyAction(action);
+                    numberOfActions++;
+                } else if (game.getNumberOfPlayers() - game.getDisqualifiedPlayers().size() > 2) {
+                    disqualified[player] = true;
+                    game = game.disqualifyCurrentPlayer();
+                    game.setUndoEnabled(false);
+                } else {
+                    disqualified[player] = true;
+                    aborted = true;
+                    break;
+                }
+            }
+        } finally {
+            for (GameAgent<HeimlichAndCo, HeimlichAndCoAction> agent : agents) {
+                tearDown(agent);
+            }
+        }
+        return new GameResult(index, seating, getScores(game), getWinShares(game, disqualified, aborted), disqualified,
+                aborted, numberOfActions, System.nanoTime() - start);
+    }
+
+    /**
+     * Asks the given agent for its action.
+     *
+     * @return the action, or null if the agent failed (exception or error, invalid action or timeout)
+     */
+    private HeimlichAndCoAction computeAction(GameAgent<HeimlichAndCo, HeimlichAndCoAction> agent, HeimlichAndCo game,
+                                              int player) {
+        long start = System.nanoTime();
+        HeimlichAndCoAction action;
+        try {
+            action = agent.computeNextAction((HeimlichAndCo) game.getGame(player), computationTimeNanos,
+                    TimeUnit.NANOSECONDS);
+        } catch (Throwable e) {
+            rethrowIfFatal(e);
+            return null;
+        }
+        if (System.nanoTime() - start > timeoutNanos || action == null || !game.isValidAction(action)) {
+            return null;
+        }
+        return action;
+    }
+
+    /**
+     * Tears down and destroys the given agent (if it was created), ignoring its failures so that the other agents of
+     * the game are still torn down.
+     */
+    private static void tearDown(GameAgent<HeimlichAndCo, HeimlichAndCoAction> agent) {
+        if (agent == null) {
+            return;
+        }
+        try {
+            agent.tearDown();
+            agent.destroy();
+        } catch (Throwable e) {
+            rethrowIfFatal(e);
+            //the game is over anyway
+        }
+    }
+
+    /**
+     * Rethrows errors of the virtual machine (e.g. OutOfMemoryError) instead of blaming the agent for them, as the
+     * tournament cannot continue reliably after them. A StackOverflowError is the fault of the agent.
+     */
+    private static void rethrowIfFatal(Throwable e) {
+        if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError)) {
+            throw (VirtualMachineError) e;
+        }
+    }
+
+    private static int[] getScores(HeimlichAndCo game) {
+        int[] scores = new int[game.getNumberOfPlayers()];
+        for (int player = 0; player < scores.length; player++) {
+            scores[player] = game.getBoard().getScore(game.getPlayersToAgentsMap().get(player));
+        }
+        return scores;
+    }
+
+    /**
+     * Calculates the share of the win of every player, like the rewards of InformationSetMcts: the players whose agent
+     * has the highest score share the win, unless they are disqualified. In an aborted game the players that are not
+     * disqualified share the win.
+     */
+    private static double[] getWinShares(HeimlichAndCo game, boolean[] disqualified, boolean aborted) {
+        HeimlichAndCoBoard board = game.getBoard();
+        int maxScore = Integer.MIN_VALUE;
+        for (Agent agent : board.getAgents()) {
+            maxScore = Math.max(maxScore, board.getScore(agent));
+        }
+        double[] winShares = new double[game.getNumberOfPlayers()];
+        int winners = 0;
+        for (int player = 0; player < winShares.length; player++) {
+            boolean winner = !disqualified[player]
+                    && (aborted || board.getScore(game.getPlayersToAgentsMap().get(player)) == maxScore);
+            if (winner) {
+                winShares[player] = 1;
+                winners++;
+            }
+        }
+        for (int player = 0; player < winShares.length; player++) {
+            winShares[player] /= Math.max(winners, 1);
+        }
+        return winShares;
+    }
+
+    /**
+     * Plays the games with the indices from (inclusive) to (exclusive), by splitting the range in halves.
+     */
+    private final class GamesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final Consumer<GameResult> listener;
+
+        private GamesTask(int from, int to, Consumer<GameResult> listener) {
+            this.from = from;
+            this.to = to;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                GameResult result = playGame(from);
+                standings.record(result);
+                if (listener != null) {
+                    listener.accept(result);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GamesTask(from, middle, listener), new GamesTask(middle, to, listener));
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package heimlich_and_co.util;
+
+import at.ac.tuwien.ifs.sge.game.ActionRecord;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The action records of a game, stored as a chain of immutable nodes where each node points to the record before it.
+ * <p>
+ * Copying a history is O(1), as the copy shares all nodes with the original: appending to or removing from one of them
+ * only moves its own pointer to the last node and never changes a node, i.e. the other history is not affected.
+ * This relies on the actions being immutable (which they are, see HeimlichAndCoActionUniverse).
+ * <p>
+ * Records can only be appended (add) and removed from the end (removeLast, clear), the other modifying operations of
+ * List are not supported. get(index) walks back from the last record and is therefore cheap for recent records only;
+ * iterating takes a snapshot of the records, i.e. the history can be changed while iterating.
+ */
+public class ActionHistory extends AbstractList<ActionRecord<HeimlichAndCoAction>> {
+
+    private Node last;
+
+    /**
+     * Creates a new empty history.
+     */
+    public ActionHistory() {
+        last = null;
+    }
+
+    /**
+     * Creates a new history with the given records. If the given list is an ActionHistory, the records are shared
+     * (O(1)), otherwise they are appended one by one.
+     *
+     * @param records the records of the new history
+     */
+    public ActionHistory(List<ActionRecord<HeimlichAndCoAction>> records) {
+        if (records instanceof ActionHistory) {
+            last = ((ActionHistory) records).last;
+        } else {
+            for (ActionRecord<HeimlichAndCoAction> record : records) {
+                add(record);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return last == null ? 0 : last.size;
+    }
+
+    @Override
+    public ActionRecord<HeimlichAndCoAction> get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node node = last;
+        for (int i = node.size - 1; i > index; i--) {
+            node = node.previous;
+        }
+        return node.record;
+    }
+
+    /**
+     * Appends the given record.
+     *
+     * @param record record to append
+     * @return true
+     */
+    @Override
+    public boolean add(ActionRecord<HeimlichAndCoAction> record) {
+        if (record == null) {
+            throw new IllegalArgumentException("Record must not be null.");
+        }
+        last = new Node(record, last);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Only supported for the last index, see removeLast.
+     */
+    @Override
+    public ActionRecord<HeimlichAndCoAction> remove(int index) {
+        if (index != size() - 1) {
+            throw new UnsupportedOperationException("Only the last record can be removed.");
+        }
+        return removeLast();
+    }
+
+    /**
+     * @return the last record
+     * @throws NoSuchElementException if the history is empty
+     */
+    public ActionRecord<HeimlichAndCoAction> getLast() {
+        if (last == null) {
+            throw new NoSuchElementException("The history is empty.");
+        }
+        return last.record;
+    }
+
+    /**
+     * Removes the last record.
+     *
+     * @return the removed record
+     * @throws NoSuchElementException if the history is empty
+     */
+    public ActionRecord<HeimlichAndCoAction> removeLast() {
+        ActionRecord<HeimlichAndCoAction> record = getLast();
+        last = last.previous;
+        modCount++;
+        return record;
+    }
+
+    @Override
+    public void clear() {
+        last = null;
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] records = new Object[size()];
+        for (Node node = last; node != null; node = node.previous) {
+            records[node.size - 1] = node.record;
+        }
+        return records;
+    }
+
+    @Override
+    public Iterator<ActionRecord<HeimlichAndCoAction>> iterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<ActionRecord<HeimlichAndCoAction>> listIterator(int index) {
+        @SuppressWarnings("unchecked")
+        List<ActionRecord<HeimlichAndCoAction>> snapshot = (List<ActionRecord<HeimlichAndCoAction>>) (List<?>) Arrays.asList(toArray());
+        return Collections.unmodifiableList(snapshot).listIterator(index);
+    }
+
+    private static final class Node {
+
+        private final ActionRecord<HeimlichAndCoAction> record;
+        private final Node previous;
+        /**
+         * The number of records up to and including this one.
+         */
+        private final int size;
+
+        private Node(ActionRecord<HeimlichAndCoAction> record, Node previous) {
+            this.record = record;
+            this.previous = previous;
+            this.size = previous == null ? 1 : previous.size + 1;
+        }
+    }
+}
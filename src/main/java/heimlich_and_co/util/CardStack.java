@@ -3,6 +3,7 @@ package heimlich_and_co.util;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class CardStack<T> {
 
@@ -43,6 +44,16 @@ public class CardStack<T> {
         return returnCard;
     }
 
+    /**
+     * Puts a card back on top of the stack, i.e. it will be the next card that is drawn.
+     * Used to reverse drawing a card.
+     *
+     * @param card card to put on top
+     */
+    public void putCardOnTop(T card) {
+        cards.add(0, card);
+    }
+
     /**
      * Shuffles this stack.
      */
@@ -50,6 +61,15 @@ public class CardStack<T> {
         Collections.shuffle(cards);
     }
 
+    /**
+     * Shuffles this stack with the given random number generator.
+     *
+     * @param random random number generator
+     */
+    public void shuffle(Random random) {
+        Collections.shuffle(cards, random);
+    }
+
     public List<T> getCards() {
         return cards;
     }
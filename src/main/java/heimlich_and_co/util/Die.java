@@ -1,27 +1,38 @@
 package heimlich_and_co.util;
 
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A class that provides methods to roll a die, specifically for Heimlich and Co
  * <p>
  * the top face 1-3 is encoded as 13
+ * <p>
+ * The die is shared by copies of a board, therefore it does not hold a random number generator: rolls either use the
+ * given generator (usually the one of the game, see HeimlichAndCoBoard.setRandom) or the one of the current thread, so
+ * that searches on copies of a board in multiple threads do not contend for one generator.
  */
 public class Die {
     private final int[] faces = {13, 2, 3, 4, 5, 6};
-    private final Random random;
 
     /**
      * Creates a new Die instance.
      */
     public Die() {
-        this.random = new Random();
     }
 
     /**
      * @return the resulting number (or encoded number) of a simulated roll
      */
     public int roll() {
+        return roll(ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param random random number generator used for the roll
+     * @return the resulting number (or encoded number) of a simulated roll
+     */
+    public int roll(Random random) {
         return faces[random.nextInt(faces.length)];
     }
 
@@ -0,0 +1,143 @@
+package heimlich_and_co.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A fast, seedable and splittable random number generator (SplitMix64, the algorithm of java.util.SplittableRandom).
+ * <p>
+ * It extends Random, so it can be passed to everything that takes a Random (e.g. Collections.shuffle or
+ * HeimlichAndCo.determinize), but unlike Random it keeps its state in plain fields: it is not thread-safe, and
+ * therefore does not pay for the synchronization either. Use split() to derive an independent generator, e.g. one per
+ * thread or one per copy of a game; unlike the other methods, split() is thread-safe and does not change the numbers
+ * produced by this generator. A generator created with a seed produces the same numbers in every run (given the same
+ * sequence of splits).
+ */
+public class GameRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    /**
+     * Source of the seeds of the generators that are created without a seed.
+     */
+    private static final AtomicLong SEEDER = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+    private static final AtomicLongFieldUpdater<GameRandom> SPLITS =
+            AtomicLongFieldUpdater.newUpdater(GameRandom.class, "splits");
+
+    private long state;
+    private long gamma;
+    /**
+     * Number of generators split off this one, so that every split returns a different generator.
+     */
+    private volatile long splits;
+
+    /**
+     * Creates a new generator with a seed that is different for every generator created without a seed.
+     */
+    public GameRandom() {
+        this(mix64(SEEDER.getAndAdd(2 * GOLDEN_GAMMA)));
+    }
+
+    /**
+     * Creates a new generator with the given seed.
+     *
+     * @param seed the seed
+     */
+    public GameRandom(long seed) {
+        super(seed); //calls setSeed
+    }
+
+    private GameRandom(long state, long gamma) {
+        super(0);
+        this.state = state;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Returns a new generator whose numbers are independent of the numbers of this generator. Does not change the
+     * numbers produced by this generator, and can be called by multiple threads at the same time (as long as no thread
+     * draws numbers from this generator meanwhile). Every call returns a different generator.
+     *
+     * @return the new generator
+     */
+    public GameRandom split() {
+        long key = mix64(state ^ mix64(gamma + SPLITS.getAndIncrement(this) * GOLDEN_GAMMA));
+        return new GameRandom(key, mixGamma(key + GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns a new generator in the same state as this one, i.e. it produces the same numbers.
+     *
+     * @return the copy
+     */
+    public GameRandom copy() {
+        return new GameRandom(state, gamma);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = seed;
+        gamma = GOLDEN_GAMMA;
+        splits = 0;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (Long.SIZE - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> Integer.SIZE);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("The bound must be positive.");
+        }
+        //multiply-shift with rejection of the biased results (Lemire)
+        long product = (nextLong() >>> Integer.SIZE) * bound;
+        if ((product & 0xFFFFFFFFL) < bound) {
+            long threshold = (1L << Integer.SIZE) % bound;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (nextLong() >>> Integer.SIZE) * bound;
+            }
+        }
+        return (int) (product >>> Integer.SIZE);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    private long nextSeed() {
+        return state += gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        z = (z ^ (z >>> 33)) | 1L; //the gamma must be odd
+        int transitions = Long.bitCount(z ^ (z >>> 1));
+        return transitions < 24 ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+    }
+}
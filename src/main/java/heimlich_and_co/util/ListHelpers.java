@@ -6,6 +6,11 @@ import heimlich_and_co.actions.HeimlichAndCoAction;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * @deprecated No longer used by the game: the actions are immutable and the action records are shared between copies
+ * of a game (see ActionHistory), so they do not need to be deep-copied. Kept for compatibility.
+ */
+@Deprecated
 public class ListHelpers {
 
     private ListHelpers() {
@@ -16,7 +21,9 @@ public class ListHelpers {
      *
      * @param list list to be copied
      * @return LinkedList deep copy of the list
+     * @deprecated copy the list instead, e.g. new ArrayList<>(list), as the actions are immutable
      */
+    @Deprecated
     public static LinkedList<ActionRecord<HeimlichAndCoAction>> deepCopyActionRecordList(List<ActionRecord<HeimlichAndCoAction>> list) {
         LinkedList<ActionRecord<HeimlichAndCoAction>> newList = new LinkedList<>();
         for (ActionRecord<HeimlichAndCoAction> actionRecord : list) {
@@ -0,0 +1,173 @@
+package heimlich_and_co.util;
+
+/**
+ * Provides the random keys used for Zobrist hashing of game states.
+ * The keys are derived from a fixed seed, therefore they (and the resulting hashes) are the same in every run, which
+ * allows to compare hashes that were stored by another process.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x4865696D6C696368L;
+    private static final int NUMBER_OF_AGENTS = 7;
+    private static final int NUMBER_OF_FIELDS = 12;
+    private static final int NUMBER_OF_PHASES = 4;
+    private static final int MAX_DIE_ROLL = 13;
+
+    //tags which separate the keys of the different components of a state
+    private static final long TAG_POSITION = 1;
+    private static final long TAG_SCORE = 2;
+    private static final long TAG_TRIGGERED = 3;
+    private static final long TAG_SAFE = 4;
+    private static final long TAG_DIE = 5;
+    private static final long TAG_PHASE = 6;
+    private static final long TAG_CURRENT_PLAYER = 7;
+    private static final long TAG_TURN_PLAYER = 8;
+    private static final long TAG_SKIPPED = 9;
+    private static final long TAG_CARD = 10;
+
+    private static final long[] POSITION_KEYS = new long[NUMBER_OF_AGENTS * NUMBER_OF_FIELDS];
+    private static final long[] TRIGGERED_KEYS = new long[NUMBER_OF_AGENTS];
+    private static final long[] SAFE_KEYS = new long[NUMBER_OF_FIELDS];
+    private static final long[] DIE_KEYS = new long[MAX_DIE_ROLL + 1];
+    private static final long[] PHASE_KEYS = new long[NUMBER_OF_PHASES];
+    private static final long[] CURRENT_PLAYER_KEYS = new long[NUMBER_OF_AGENTS];
+    private static final long[] TURN_PLAYER_KEYS = new long[NUMBER_OF_AGENTS];
+
+    static {
+        for (int agent = 0; agent < NUMBER_OF_AGENTS; agent++) {
+            for (int field = 0; field < NUMBER_OF_FIELDS; field++) {
+                POSITION_KEYS[agent * NUMBER_OF_FIELDS + field] = key(TAG_POSITION, agent, field);
+            }
+            TRIGGERED_KEYS[agent] = key(TAG_TRIGGERED, agent, 0);
+            CURRENT_PLAYER_KEYS[agent] = key(TAG_CURRENT_PLAYER, agent, 0);
+            TURN_PLAYER_KEYS[agent] = key(TAG_TURN_PLAYER, agent, 0);
+        }
+        for (int field = 0; field < NUMBER_OF_FIELDS; field++) {
+            SAFE_KEYS[field] = key(TAG_SAFE, field, 0);
+        }
+        for (int dieRoll = 0; dieRoll <= MAX_DIE_ROLL; dieRoll++) {
+            DIE_KEYS[dieRoll] = key(TAG_DIE, dieRoll, 0);
+        }
+        for (int phase = 0; phase < NUMBER_OF_PHASES; phase++) {
+            PHASE_KEYS[phase] = key(TAG_PHASE, phase, 0);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Key for an agent standing on a field.
+     *
+     * @param agent ordinal of the agent
+     * @param field field the agent is on
+     */
+    public static long position(int agent, int field) {
+        return POSITION_KEYS[agent * NUMBER_OF_FIELDS + field];
+    }
+
+    /**
+     * Key for an agent having a certain score.
+     *
+     * @param agent ordinal of the agent
+     * @param score score of the agent (any value)
+     */
+    public static long score(int agent, int score) {
+        return key(TAG_SCORE, agent, score);
+    }
+
+    /**
+     * Key for scoring being triggered for an agent.
+     *
+     * @param agent ordinal of the agent
+     */
+    public static long scoringTriggered(int agent) {
+        return TRIGGERED_KEYS[agent];
+    }
+
+    /**
+     * Key for the safe being on a field.
+     *
+     * @param field field of the safe
+     */
+    public static long safe(int field) {
+        return SAFE_KEYS[field];
+    }
+
+    /**
+     * Key for the result of the last die roll.
+     *
+     * @param dieRoll the last die roll (any value)
+     */
+    public static long dieRoll(int dieRoll) {
+        if (dieRoll >= 0 && dieRoll <= MAX_DIE_ROLL) {
+            return DIE_KEYS[dieRoll];
+        }
+        return key(TAG_DIE, dieRoll, 0);
+    }
+
+    /**
+     * Key for the phase of the game.
+     *
+     * @param phase ordinal of the phase
+     */
+    public static long phase(int phase) {
+        return PHASE_KEYS[phase];
+    }
+
+    /**
+     * Key for the current player.
+     *
+     * @param player the current player
+     */
+    public static long currentPlayer(int player) {
+        return CURRENT_PLAYER_KEYS[player];
+    }
+
+    /**
+     * Key for the player whose turn it is.
+     *
+     * @param player the current turn player
+     */
+    public static long currentTurnPlayer(int player) {
+        return TURN_PLAYER_KEYS[player];
+    }
+
+    /**
+     * Key for the number of players that skipped in a row during the card phase.
+     *
+     * @param count the number of players that skipped
+     */
+    public static long playersSkipped(int count) {
+        return key(TAG_SKIPPED, count, 0);
+    }
+
+    /**
+     * Key for a card on the hand of a player. As a hand can contain multiple cards of the same kind, the key also
+     * depends on how many cards of the same kind are on the hand already, i.e. the n-th card of a kind has a different
+     * key than the first one.
+     *
+     * @param player     the player holding the card
+     * @param kind       the kind of the card
+     * @param occurrence how many cards of the same kind are on the hand besides this one
+     */
+    public static long card(int player, int kind, int occurrence) {
+        return key(TAG_CARD, player * 64L + kind, occurrence);
+    }
+
+    /**
+     * Derives a pseudo random key from the given values (using the finalizer of SplitMix64).
+     */
+    private static long key(long tag, long a, long b) {
+        long z = SEED + tag * 0x9E3779B97F4A7C15L;
+        z = mix(z ^ (a * 0xBF58476D1CE4E5B9L));
+        z = mix(z ^ (b * 0x94D049BB133111EBL));
+        return z;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,68 @@
+package UnitTests;
+
+import at.ac.tuwien.ifs.sge.game.ActionRecord;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.util.ActionHistory;
+import heimlich_and_co.util.GameRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ActionHistoryTests {
+
+    private static ActionRecord<HeimlichAndCoAction> record(int player, int face) {
+        return new ActionRecord<>(player, HeimlichAndCoActionUniverse.getCustomDieRoll(face));
+    }
+
+    @Test
+    void givenHistory_AddingAndRemoving_BehavesLikeList() {
+        ActionHistory history = new ActionHistory();
+        List<ActionRecord<HeimlichAndCoAction>> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            history.add(record(i % 3, i % 6 + 1));
+            expected.add(record(i % 3, i % 6 + 1));
+        }
+        Assertions.assertEquals(expected, history);
+        Assertions.assertEquals(expected.get(4), history.get(4));
+        Assertions.assertEquals(expected.subList(3, 7), history.subList(3, 7));
+        Assertions.assertEquals(expected.remove(9), history.removeLast());
+        Assertions.assertEquals(expected.get(8), history.getLast());
+        Assertions.assertEquals(expected, history);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> history.remove(0));
+        history.clear();
+        Assertions.assertTrue(history.isEmpty());
+    }
+
+    @Test
+    void givenCopy_ChangingEither_OtherUnchanged() {
+        ActionHistory history = new ActionHistory();
+        history.add(record(0, 1));
+        history.add(record(1, 2));
+        ActionHistory copy = new ActionHistory(history);
+        copy.removeLast();
+        copy.add(record(1, 3));
+        history.add(record(0, 4));
+        Assertions.assertEquals(List.of(record(0, 1), record(1, 2), record(0, 4)), history);
+        Assertions.assertEquals(List.of(record(0, 1), record(1, 3)), copy);
+    }
+
+    @Test
+    void givenPlayedGame_CopyingAndPlayingOn_RecordsOfOriginalUnchanged() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 3, 5);
+        RandomPlayout playout = new RandomPlayout(new GameRandom(5));
+        for (int i = 0; i < 20; i++) {
+            game.applyAction(playout.getRandomAction(game));
+        }
+        List<ActionRecord<HeimlichAndCoAction>> records = new ArrayList<>(game.getActionRecords());
+        HeimlichAndCo copy = new HeimlichAndCo(game);
+        copy.applyAction(playout.getRandomAction(copy));
+        Assertions.assertEquals(records, game.getActionRecords());
+        Assertions.assertEquals(records, copy.getActionRecords().subList(0, records.size()));
+        Assertions.assertEquals(records.size() + 1, copy.getActionRecords().size());
+    }
+}
@@ -0,0 +1,120 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoAgentMoveAction;
+import heimlich_and_co.enums.Agent;
+import heimlich_and_co.search.AgentBeliefTracker;
+import heimlich_and_co.search.RandomPlayout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+class AgentBeliefTrackerTests {
+
+    //region probability tests
+
+    @Test
+    void givenPlayedGame_GettingProbabilities_RowsSumToOneAndOwnAgentIsCertain() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 5);
+        RandomPlayout playout = new RandomPlayout(new Random(1));
+        HeimlichAndCo view = (HeimlichAndCo) game.getGame(0);
+        AgentBeliefTracker tracker = new AgentBeliefTracker(view, 0);
+        for (int i = 0; i < 60 && !game.isGameOver(); i++) {
+            playout.applyRandomAction(game);
+        }
+        tracker.update((HeimlichAndCo) game.getGame(0));
+        for (int player = 0; player < 5; player++) {
+            double sum = 0;
+            for (Agent agent : Agent.values()) {
+                sum += tracker.getProbability(player, agent);
+            }
+            Assertions.assertEquals(1, sum, 1e-9);
+        }
+        Assertions.assertEquals(1, tracker.getProbability(0, view.getPlayersToAgentsMap().get(0)), 1e-9);
+    }
+
+    @Test
+    void givenNoActions_GettingProbabilities_UniformOverOtherAgents() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 3);
+        HeimlichAndCo view = (HeimlichAndCo) game.getGame(1);
+        AgentBeliefTracker tracker = new AgentBeliefTracker(view, 1);
+        Agent own = view.getPlayersToAgentsMap().get(1);
+        for (Agent agent : game.getBoard().getAgents()) {
+            if (agent != own) {
+                Assertions.assertEquals(1.0 / (game.getBoard().getAgents().length - 1), tracker.getProbability(0, agent), 1e-9);
+            }
+        }
+        Assertions.assertEquals(0, tracker.getProbability(0, own));
+    }
+
+    @Test
+    void givenAllPlayersFavouringSameAgent_GettingProbabilities_NoUnderflow() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 7, 3);
+        RandomPlayout playout = new RandomPlayout(new Random(3));
+        Agent favourite = game.getBoard().getAgents()[0];
+        for (int i = 0; i < 200 && !game.isGameOver(); i++) {
+            HeimlichAndCoAction best = null;
+            int bestPoints = Integer.MIN_VALUE;
+            for (HeimlichAndCoAction action : game.getPossibleActions()) {
+                if (action instanceof HeimlichAndCoAgentMoveAction) {
+                    HeimlichAndCoBoard board = game.getBoard();
+                    int position = (board.getAgentPosition(favourite)
+                            + ((HeimlichAndCoAgentMoveAction) action).getMove(favourite)) % board.getNumberOfFields();
+                    if (board.getPointsForField(position) > bestPoints) {
+                        best = action;
+                        bestPoints = board.getPointsForField(position);
+                    }
+                }
+            }
+            if (best != null) {
+                game.applyAction(best);
+            } else {
+                playout.applyRandomAction(game);
+            }
+        }
+        AgentBeliefTracker tracker = new AgentBeliefTracker((HeimlichAndCo) game.getGame(0), 0, 50, 0);
+        for (int player = 0; player < 7; player++) {
+            double sum = 0;
+            for (Agent agent : Agent.values()) {
+                double probability = tracker.getProbability(player, agent);
+                Assertions.assertTrue(probability >= 0 && probability <= 1 + 1e-9);
+                sum += probability;
+            }
+            Assertions.assertEquals(1, sum, 1e-9);
+        }
+        Map<Integer, Agent> assignment = new HashMap<>();
+        tracker.sampleAssignment(new Random(3), assignment);
+        Assertions.assertEquals(7, new HashSet<>(assignment.values()).size());
+    }
+
+    //endregion
+
+    //region sampling tests
+
+    @Test
+    void givenPlayedGame_SamplingAssignment_AgentsAreDistinctAndOwnAgentIsKept() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 6, 2);
+        Random random = new Random(2);
+        RandomPlayout playout = new RandomPlayout(random);
+        for (int i = 0; i < 40 && !game.isGameOver(); i++) {
+            playout.applyRandomAction(game);
+        }
+        HeimlichAndCo view = (HeimlichAndCo) game.getGame(2);
+        AgentBeliefTracker tracker = new AgentBeliefTracker(view, 2);
+        for (int i = 0; i < 100; i++) {
+            Map<Integer, Agent> assignment = new HashMap<>();
+            tracker.sampleAssignment(random, assignment);
+            Assertions.assertEquals(6, assignment.size());
+            Assertions.assertEquals(6, new HashSet<>(assignment.values()).size());
+            Assertions.assertEquals(view.getPlayersToAgentsMap().get(2), assignment.get(2));
+        }
+    }
+
+    //endregion
+}
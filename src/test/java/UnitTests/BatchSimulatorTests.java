@@ -0,0 +1,102 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+import heimlich_and_co.enums.Agent;
+import heimlich_and_co.search.BatchSimulator;
+import heimlich_and_co.util.GameRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class BatchSimulatorTests {
+
+    /**
+     * Chooses random actions and applies the same actions to a HeimlichAndCo game per simulated game.
+     */
+    private static final class MirroringPolicy implements BatchSimulator.Policy {
+
+        private final HeimlichAndCo[] games;
+        private final Random random = new GameRandom(3);
+
+        private MirroringPolicy(HeimlichAndCo[] games) {
+            this.games = games;
+        }
+
+        @Override
+        public int chooseAgentMove(BatchSimulator simulator, int game, int numberOfMoves) {
+            games[game].applyAction(HeimlichAndCoActionUniverse.getCustomDieRoll(simulator.getDieRoll(game)));
+            int index = random.nextInt(numberOfMoves);
+            Assertions.assertEquals(numberOfMoves, games[game].getPossibleActions().size());
+            games[game].applyAction(simulator.getAgentMove(game, index));
+            return index;
+        }
+
+        @Override
+        public int chooseSafePosition(BatchSimulator simulator, int game) {
+            int field = BatchSimulator.RANDOM_POLICY.chooseSafePosition(simulator, game);
+            games[game].applyAction(HeimlichAndCoActionUniverse.getSafeMove(field));
+            return field;
+        }
+    }
+
+    @Test
+    void givenSimulator_PlayingSameActionsOnGames_SameStates() {
+        for (int numberOfPlayers = 2; numberOfPlayers <= 7; numberOfPlayers++) {
+            BatchSimulator simulator = new BatchSimulator(8, numberOfPlayers, new GameRandom(numberOfPlayers));
+            HeimlichAndCo[] games = new HeimlichAndCo[simulator.getNumberOfGames()];
+            for (int i = 0; i < games.length; i++) {
+                games[i] = new HeimlichAndCo(numberOfPlayers);
+                games[i].setAllowCustomDieRolls(true);
+            }
+            Assertions.assertEquals(0, simulator.play(new MirroringPolicy(games), Integer.MAX_VALUE));
+            for (int i = 0; i < games.length; i++) {
+                Assertions.assertTrue(games[i].isGameOver());
+                Assertions.assertTrue(simulator.isGameOver(i));
+                Assertions.assertEquals(games[i].getBoard().getSafePosition(), simulator.getSafePosition(i));
+                Assertions.assertEquals(games[i].getCurrentPlayer(), simulator.getCurrentPlayer(i));
+                Assertions.assertEquals(games[i].getCurrentPhase(), simulator.getPhase(i));
+                for (Agent agent : games[i].getBoard().getAgents()) {
+                    Assertions.assertEquals(games[i].getBoard().getScore(agent), simulator.getScore(i, agent));
+                    Assertions.assertEquals(games[i].getBoard().getAgentPosition(agent), simulator.getPosition(i, agent));
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenRandomPolicy_Playing_AllGamesOverWithWinner() {
+        BatchSimulator simulator = new BatchSimulator(1000, 3, new GameRandom(1));
+        Assertions.assertEquals(1000, simulator.getNumberOfActiveGames());
+        Assertions.assertEquals(0, simulator.play(BatchSimulator.RANDOM_POLICY, Integer.MAX_VALUE));
+        for (int game = 0; game < simulator.getNumberOfGames(); game++) {
+            Assertions.assertTrue(simulator.isGameOver(game));
+            int maxScore = Integer.MIN_VALUE;
+            for (int ordinal = 0; ordinal < simulator.getNumberOfAgents(); ordinal++) {
+                maxScore = Math.max(maxScore, simulator.getScore(game, Agent.values()[ordinal]));
+            }
+            Assertions.assertTrue(maxScore >= 42);
+        }
+        simulator.reset();
+        Assertions.assertEquals(1000, simulator.getNumberOfActiveGames());
+        Assertions.assertFalse(simulator.isGameOver(0));
+    }
+
+    @Test
+    void givenInvalidPolicy_Playing_ThrowsIllegalStateException() {
+        BatchSimulator simulator = new BatchSimulator(1, 2, new GameRandom(1));
+        BatchSimulator.Policy policy = new BatchSimulator.Policy() {
+            @Override
+            public int chooseAgentMove(BatchSimulator simulator, int game, int numberOfMoves) {
+                return numberOfMoves;
+            }
+
+            @Override
+            public int chooseSafePosition(BatchSimulator simulator, int game) {
+                return simulator.getSafePosition(game);
+            }
+        };
+        Assertions.assertThrows(IllegalStateException.class, () -> simulator.playTurn(policy));
+    }
+}
@@ -0,0 +1,55 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.search.ExpectimaxSearch;
+import heimlich_and_co.search.HeimlichAndCoEvaluator;
+import heimlich_and_co.search.RandomPlayout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+class ExpectimaxSearchTests {
+
+    //region search tests
+
+    @Test
+    void givenRandomStates_SearchingWithAllPrunings_SameValueAndGameUnchanged() {
+        RandomPlayout playout = new RandomPlayout(new Random(1));
+        for (int i = 0; i < 10; i++) {
+            HeimlichAndCo game = new HeimlichAndCo(i % 2 == 0 ? "0" : "1", 3);
+            HeimlichAndCo state = new HeimlichAndCo(playout.playout(game, 10 + 5 * i));
+            if (state.isGameOver()) {
+                continue;
+            }
+            long key = state.getZobristKey();
+            Double expected = null;
+            for (ExpectimaxSearch.ChancePruning pruning : ExpectimaxSearch.ChancePruning.values()) {
+                ExpectimaxSearch search = new ExpectimaxSearch(HeimlichAndCoEvaluator.SCORE_DIFFERENCE, pruning);
+                HeimlichAndCoAction action = search.search(state, 2);
+                Assertions.assertTrue(state.getPossibleActions().contains(action));
+                if (search.getCompletedDepth() == 2) {
+                    if (expected == null) {
+                        expected = search.getValue();
+                    }
+                    Assertions.assertEquals(expected, search.getValue(), 1e-9);
+                }
+            }
+            Assertions.assertEquals(key, state.getZobristKey());
+        }
+    }
+
+    @Test
+    void givenTimeBudget_Searching_CompletesAtLeastDepthOne() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        HeimlichAndCo state = new HeimlichAndCo(new RandomPlayout(new Random(2)).playout(game, 1));
+        ExpectimaxSearch search = new ExpectimaxSearch();
+        HeimlichAndCoAction action = search.search(state, 0, TimeUnit.MILLISECONDS);
+        Assertions.assertTrue(state.getPossibleActions().contains(action));
+        Assertions.assertTrue(search.getCompletedDepth() >= 1);
+    }
+
+    //endregion
+}
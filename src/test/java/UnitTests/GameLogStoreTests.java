@@ -0,0 +1,112 @@
+package UnitTests;
+
+import at.ac.tuwien.ifs.sge.game.ActionRecord;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
+import heimlich_and_co.persistence.GameLogStore;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.util.GameRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class GameLogStoreTests {
+
+    @TempDir
+    Path directory;
+
+    private static HeimlichAndCo playRandomly(HeimlichAndCo initialState, long seed) {
+        HeimlichAndCo game = new HeimlichAndCo(initialState);
+        RandomPlayout playout = new RandomPlayout(new GameRandom(seed));
+        while (!game.isGameOver()) {
+            playout.applyRandomAction(game);
+        }
+        return game;
+    }
+
+    @Test
+    void givenAppendedGames_Replaying_SameFinalStates() throws IOException {
+        List<HeimlichAndCo> games = new ArrayList<>();
+        try (GameLogStore store = new GameLogStore(directory, 4096)) {
+            for (int i = 0; i < 20; i++) {
+                HeimlichAndCo initialState = new HeimlichAndCo(i % 2 == 0 ? "1" : "0", 2 + i % 6, i);
+                HeimlichAndCo game = playRandomly(initialState, i);
+                Assertions.assertEquals(i, store.append(initialState, game.getActionRecords()));
+                games.add(game);
+            }
+        }
+        try (GameLogStore store = new GameLogStore(directory, 4096)) {
+            Assertions.assertEquals(games.size(), store.getNumberOfGames());
+            for (int i = 0; i < games.size(); i++) {
+                HeimlichAndCo replayed = store.replay(i);
+                Assertions.assertEquals(games.get(i).getZobristKey(), replayed.getZobristKey());
+                Assertions.assertEquals(games.get(i).getActionRecords(), replayed.getActionRecords());
+                Assertions.assertEquals(games.get(i).getActionRecords(), store.getActionRecords(i));
+            }
+        }
+        try (Stream<Path> segments = Files.list(directory)) {
+            Assertions.assertTrue(segments.count() > 1);
+        }
+    }
+
+    @Test
+    void givenStoredGame_ReplayingPrefix_SameStateAsAfterThoseActions() throws IOException {
+        try (GameLogStore store = new GameLogStore(directory)) {
+            HeimlichAndCo initialState = new HeimlichAndCo("1", 4, 3);
+            List<ActionRecord<HeimlichAndCoAction>> records = playRandomly(initialState, 3).getActionRecords();
+            int index = store.append(initialState, records);
+            HeimlichAndCo game = new HeimlichAndCo(initialState);
+            for (int action = 0; action < records.size(); action++) {
+                Assertions.assertEquals(records.get(action), store.getActionRecord(index, action));
+                game.replayAction(records.get(action).getAction());
+            }
+            Assertions.assertEquals(game.getZobristKey(), store.replay(index, records.size()).getZobristKey());
+            HeimlichAndCo prefix = store.replay(index, 10);
+            Assertions.assertEquals(records.subList(0, 10), prefix.getActionRecords());
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> store.replay(index, records.size() + 1));
+        }
+    }
+
+    @Test
+    void givenInvalidActionAfterLastChecksum_Appending_ThrowsException() throws IOException {
+        HeimlichAndCo initialState = new HeimlichAndCo("1", 3, 5);
+        List<ActionRecord<HeimlichAndCoAction>> records =
+                new ArrayList<>(playRandomly(initialState, 5).getActionRecords().subList(0, 10));
+        HeimlichAndCo game = new HeimlichAndCo(initialState);
+        for (ActionRecord<HeimlichAndCoAction> record : records) {
+            game.replayAction(record.getAction());
+        }
+        int id = 0;
+        while (game.isValidAction(HeimlichAndCoActionUniverse.get(id))) {
+            id++;
+        }
+        records.add(new ActionRecord<>(game.getCurrentPlayer(), HeimlichAndCoActionUniverse.get(id)));
+        try (GameLogStore store = new GameLogStore(directory)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> store.append(initialState, records, 4));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> store.append(initialState, records, 0));
+            Assertions.assertEquals(0, store.getNumberOfGames());
+            Assertions.assertEquals(0, store.append(initialState, records.subList(0, 10), 4));
+        }
+    }
+
+    @Test
+    void givenRecordWithWrongPlayer_Appending_ThrowsException() throws IOException {
+        HeimlichAndCo initialState = new HeimlichAndCo("1", 4, 6);
+        List<ActionRecord<HeimlichAndCoAction>> records =
+                new ArrayList<>(playRandomly(initialState, 6).getActionRecords().subList(0, 10));
+        ActionRecord<HeimlichAndCoAction> last = records.get(9);
+        records.set(9, new ActionRecord<>((last.getPlayer() + 1) % 4, last.getAction()));
+        try (GameLogStore store = new GameLogStore(directory)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> store.append(initialState, records, 4));
+            Assertions.assertEquals(0, store.getNumberOfGames());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.persistence.GameLogStore;
+import heimlich_and_co.persistence.GameReplayer;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.util.GameRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class GameReplayerTests {
+
+    @TempDir
+    Path directory;
+
+    private static void appendRandomGames(GameLogStore store, int numberOfGames) {
+        for (int i = 0; i < numberOfGames; i++) {
+            HeimlichAndCo initialState = new HeimlichAndCo(i % 2 == 0 ? "1" : "0", 2 + i % 6, i);
+            HeimlichAndCo game = new HeimlichAndCo(initialState);
+            RandomPlayout playout = new RandomPlayout(new GameRandom(i));
+            while (!game.isGameOver()) {
+                playout.applyRandomAction(game);
+            }
+            store.append(initialState, game.getActionRecords(), 8);
+        }
+    }
+
+    @Test
+    void givenStoredGames_ReplayingTrusted_SameStatesAsCheckedReplay() throws IOException {
+        try (GameLogStore store = new GameLogStore(directory, 1 << 16)) {
+            appendRandomGames(store, 10);
+            GameReplayer replayer = new GameReplayer(store);
+            int[] numberOfActions = new int[store.getNumberOfGames()];
+            long[] finalKeys = new long[store.getNumberOfGames()];
+            replayer.replay(0, store.getNumberOfGames(), new GameReplayer.Listener() {
+                @Override
+                public void onAction(int game, int action, HeimlichAndCo state) {
+                    Assertions.assertEquals(numberOfActions[game]++, action);
+                }
+
+                @Override
+                public void onGameReplayed(int game, HeimlichAndCo state) {
+                    finalKeys[game] = state.getZobristKey();
+                }
+            });
+            for (int game = 0; game < store.getNumberOfGames(); game++) {
+                Assertions.assertEquals(store.getNumberOfActions(game), numberOfActions[game]);
+                Assertions.assertEquals(store.replay(game).getZobristKey(), finalKeys[game]);
+                Assertions.assertTrue(store.replay(game).isGameOver());
+            }
+        }
+    }
+
+    @Test
+    void givenCorruptedChecksum_Replaying_ThrowsException() throws IOException {
+        try (GameLogStore store = new GameLogStore(directory, 1 << 16)) {
+            appendRandomGames(store, 1);
+        }
+        //the entry of the first game starts after the header of the segment, its last checksum is at its end
+        try (FileChannel channel = FileChannel.open(directory.resolve("segment-000000.log"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer size = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(size, 8);
+            ByteBuffer checksum = ByteBuffer.allocate(Long.BYTES);
+            channel.read(checksum, 8 + size.getInt(0) - Long.BYTES);
+            checksum.putLong(0, ~checksum.getLong(0));
+            checksum.rewind();
+            channel.write(checksum, 8 + size.getInt(0) - Long.BYTES);
+        }
+        try (GameLogStore store = new GameLogStore(directory, 1 << 16)) {
+            GameReplayer replayer = new GameReplayer(store);
+            Assertions.assertThrows(IllegalStateException.class, () -> replayer.replay(0));
+            replayer.setVerifyChecksums(false);
+            Assertions.assertEquals(store.replay(0).getZobristKey(), replayer.replay(0).getZobristKey());
+        }
+    }
+}
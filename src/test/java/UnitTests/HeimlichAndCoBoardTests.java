@@ -5,6 +5,7 @@ import heimlich_and_co.HeimlichAndCoBoard;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import java.util.Map;
+import java.util.Random;
 
 class HeimlichAndCoBoardTests {
 
@@ -110,6 +111,87 @@ class HeimlichAndCoBoardTests {
 
     //endregion
 
+    //region Views tests
 
+    @Test
+    void given_Board_MovingAgents_Then_PositionsViewReflectsMoves() {
+        HeimlichAndCoBoard board = new HeimlichAndCoBoard(7);
+        Map<Agent, Integer> positions = board.getAgentsPositions();
+        board.moveAgent(Agent.PERRY, 11);
+        board.moveAgent(Agent.LARSSON, 3);
+        board.moveAgent(Agent.LARSSON, -5);
+
+        Assertions.assertEquals(11, positions.get(Agent.PERRY));
+        Assertions.assertEquals(10, positions.get(Agent.LARSSON));
+        Assertions.assertEquals(10, board.getAgentPosition(Agent.LARSSON));
+        Assertions.assertEquals(7, positions.size());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> positions.put(Agent.PERRY, 1));
+    }
+
+    @Test
+    void given_BoardWithFiveAgents_WritingScoresView_Then_ScoresChangedOnlyForPlayingAgents() {
+        HeimlichAndCoBoard board = new HeimlichAndCoBoard(5);
+        Map<Agent, Integer> scores = board.getScores();
+        scores.replace(Agent.DOYLE, 12);
+
+        Assertions.assertEquals(12, board.getScore(Agent.DOYLE));
+        Assertions.assertFalse(scores.containsKey(Agent.LARSSON));
+        Assertions.assertNull(scores.get(Agent.LARSSON));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> scores.put(Agent.LARSSON, 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.moveAgent(Agent.LARSSON, 1));
+    }
+
+    //endregion
+
+    //region Occupancy tests
+
+    private static void assertOccupancyMatchesPositions(HeimlichAndCoBoard board) {
+        for (int field = 0; field < board.getNumberOfFields(); field++) {
+            int expected = 0;
+            for (Agent a : board.getAgents()) {
+                if (board.getAgentPosition(a) == field) {
+                    expected |= 1 << a.ordinal();
+                }
+            }
+            Assertions.assertEquals(expected, board.getAgentsOnFieldMask(field));
+            Assertions.assertEquals(Integer.bitCount(expected), board.getNumberOfAgentsOnField(field));
+            Assertions.assertEquals(Integer.bitCount(expected), board.agentsOnFields().get(field).length);
+        }
+    }
+
+    @Test
+    void given_Board_MovingAgentsRandomly_Then_OccupancyMatchesPositions() {
+        Random random = new Random(42);
+        HeimlichAndCoBoard board = new HeimlichAndCoBoard(6);
+        assertOccupancyMatchesPositions(board);
+        Agent[] agents = board.getAgents();
+        for (int i = 0; i < 200; i++) {
+            Agent agent = agents[random.nextInt(agents.length)];
+            if (random.nextBoolean()) {
+                board.moveAgent(agent, random.nextInt(23) - 11);
+            } else {
+                board.moveAgentToAbsoluteBuilding(agent, random.nextInt(board.getNumberOfFields()));
+            }
+            assertOccupancyMatchesPositions(board);
+        }
+        HeimlichAndCoBoard copy = new HeimlichAndCoBoard(board);
+        assertOccupancyMatchesPositions(copy);
+        copy.moveAgent(agents[0], 1);
+        board.copyStateFrom(copy);
+        assertOccupancyMatchesPositions(board);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.getAgentsOnFieldMask(12));
+    }
+
+    @Test
+    void given_BoardWithGivenPositions_Then_OccupancyMatchesPositions() {
+        Map<Agent, Integer> positions = Map.of(Agent.PERRY, 11, Agent.LARSSON, 3, Agent.DOYLE, 3, Agent.BUCCI, 0,
+                Agent.MIRKOV, 8);
+        HeimlichAndCoBoard board = new HeimlichAndCoBoard(positions, null);
+        assertOccupancyMatchesPositions(board);
+        Assertions.assertEquals(2, board.getNumberOfAgentsOnField(3));
+        Assertions.assertEquals(1 << Agent.PERRY.ordinal(), board.getAgentsOnFieldMask(11));
+    }
+
+    //endregion
 
 }
@@ -0,0 +1,89 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoCodec;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.util.GameRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+class HeimlichAndCoCodecTests {
+
+    private static HeimlichAndCo playRandomly(String board, int numberOfPlayers, long seed, int numberOfActions) {
+        HeimlichAndCo game = new HeimlichAndCo(board, numberOfPlayers, seed);
+        RandomPlayout playout = new RandomPlayout(new GameRandom(seed));
+        for (int i = 0; i < numberOfActions && !game.isGameOver(); i++) {
+            game.applyAction(playout.getRandomAction(game));
+        }
+        return game;
+    }
+
+    private static void assertSameState(HeimlichAndCo expected, HeimlichAndCo actual) {
+        Assertions.assertEquals(expected.getZobristKey(), actual.getZobristKey());
+        Assertions.assertEquals(expected.getCurrentPlayer(), actual.getCurrentPlayer());
+        Assertions.assertEquals(expected.getCurrentPhase(), actual.getCurrentPhase());
+        Assertions.assertEquals(expected.getPlayersToAgentsMap(), actual.getPlayersToAgentsMap());
+        Assertions.assertEquals(expected.getDisqualifiedPlayers(), actual.getDisqualifiedPlayers());
+        Assertions.assertEquals(expected.getCards(), actual.getCards());
+        if (expected.isWithCards()) {
+            Assertions.assertEquals(expected.getCardStack().getCards(), actual.getCardStack().getCards());
+        }
+        Assertions.assertEquals(expected.getPossibleActions(), actual.getPossibleActions());
+        Assertions.assertEquals(expected.isGameOver(), actual.isGameOver());
+        for (int player = 0; player < expected.getNumberOfPlayers(); player++) {
+            Assertions.assertEquals(expected.getNumberOfHiddenCards(player), actual.getNumberOfHiddenCards(player));
+        }
+    }
+
+    @Test
+    void givenRandomStates_EncodingAndDecoding_SameState() {
+        for (int numberOfPlayers = 2; numberOfPlayers <= 7; numberOfPlayers++) {
+            for (int seed = 0; seed < 20; seed++) {
+                for (String board : new String[]{"0", "1"}) {
+                    HeimlichAndCo game = playRandomly(board, numberOfPlayers, seed, seed * 7);
+                    HeimlichAndCo decoded = HeimlichAndCoCodec.decode(HeimlichAndCoCodec.encode(game, true));
+                    assertSameState(game, decoded);
+                    Assertions.assertEquals(game.getActionRecords(), decoded.getActionRecords());
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenMidGameState_Encoding_SmallerThan100Bytes() {
+        for (int numberOfPlayers = 2; numberOfPlayers <= 7; numberOfPlayers++) {
+            HeimlichAndCo game = playRandomly("1", numberOfPlayers, numberOfPlayers, 60);
+            Assertions.assertTrue(HeimlichAndCoCodec.encode(game, false).length < 100);
+        }
+    }
+
+    @Test
+    void givenSeveralStatesInOneBuffer_Decoding_ReadsThemInOrder() {
+        HeimlichAndCo first = playRandomly("1", 4, 1, 30);
+        HeimlichAndCo second = (HeimlichAndCo) playRandomly("0", 3, 2, 30).getGame(1);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        HeimlichAndCoCodec.encode(first, false, buffer);
+        HeimlichAndCoCodec.encode(second, true, buffer);
+        buffer.flip();
+        assertSameState(first, HeimlichAndCoCodec.decode(buffer));
+        assertSameState(second, HeimlichAndCoCodec.decode(buffer));
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void givenStrippedGame_EncodingAndDecoding_StaysStripped() {
+        HeimlichAndCo stripped = (HeimlichAndCo) playRandomly("1", 5, 3, 40).getGame(2);
+        HeimlichAndCo decoded = HeimlichAndCoCodec.decode(HeimlichAndCoCodec.encode(stripped, false));
+        assertSameState(stripped, decoded);
+        Assertions.assertEquals(1, decoded.getPlayersToAgentsMap().size());
+    }
+
+    @Test
+    void givenUnknownVersion_Decoding_ThrowsException() {
+        byte[] bytes = HeimlichAndCoCodec.encode(new HeimlichAndCo("1", 3, 0), false);
+        bytes[0] = HeimlichAndCoCodec.VERSION + 1;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HeimlichAndCoCodec.decode(bytes));
+    }
+}
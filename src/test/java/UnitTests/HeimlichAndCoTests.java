@@ -1,21 +1,33 @@
 package UnitTests;
 
 import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.HeimlichAndCoBoard;
 import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.actions.HeimlichAndCoActionUniverse;
 import heimlich_and_co.actions.HeimlichAndCoAgentMoveAction;
 import heimlich_and_co.actions.HeimlichAndCoCardAction;
 import heimlich_and_co.actions.HeimlichAndCoDieRollAction;
+import heimlich_and_co.actions.HeimlichAndCoSafeMoveAction;
 import heimlich_and_co.enums.Agent;
 import heimlich_and_co.enums.HeimlichAndCoPhase;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.util.GameRandom;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 class HeimlichAndCoTests {
 
@@ -378,5 +390,353 @@ class HeimlichAndCoTests {
 
     //endregion
 
+    //region undo tests
+
+    @Test
+    void givenGameWithCards_ApplyingAndUndoingActions_RestoresOriginalState() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        HeimlichAndCo original = new HeimlichAndCo(game);
+        int numberOfActions = 0;
+        while (!game.isGameOver() && numberOfActions < 200) {
+            game.applyAction(game.getPossibleActions().iterator().next());
+            numberOfActions++;
+        }
+        for (int i = 0; i < numberOfActions; i++) {
+            game.undoLastAction();
+        }
+
+        Assertions.assertFalse(game.canUndo());
+        Assertions.assertTrue(game.getActionRecords().isEmpty());
+        Assertions.assertEquals(original.getCurrentPhase(), game.getCurrentPhase());
+        Assertions.assertEquals(original.getCurrentPlayer(), game.getCurrentPlayer());
+        Assertions.assertEquals(original.getCurrentTurnPlayer(), game.getCurrentTurnPlayer());
+        Assertions.assertEquals(original.getBoard().getAgentsPositions(), game.getBoard().getAgentsPositions());
+        Assertions.assertEquals(original.getBoard().getScores(), game.getBoard().getScores());
+        Assertions.assertEquals(original.getBoard().getSafePosition(), game.getBoard().getSafePosition());
+        Assertions.assertEquals(original.getCards(), game.getCards());
+        Assertions.assertEquals(original.getCardStack().getCards(), game.getCardStack().getCards());
+    }
+
+    @Test
+    void givenNewGame_UndoingAction_ThrowsIllegalStateException() {
+        HeimlichAndCo game = new HeimlichAndCo(3);
+        Assertions.assertThrows(IllegalStateException.class, game::undoLastAction);
+    }
+
+    @Test
+    void givenGame_DoingAction_CopyRecordsActionButCannotUndoIt() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        HeimlichAndCo next = game.doAction(game.getPossibleActions().iterator().next());
+        Assertions.assertEquals(1, next.getActionRecords().size());
+        Assertions.assertFalse(next.canUndo());
+        Assertions.assertTrue(game.getActionRecords().isEmpty());
+    }
+
+    @Test
+    void givenUndoDisabled_ApplyingActions_RecordsActionsWithoutUndo() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        game.setUndoEnabled(false);
+        for (int i = 0; i < 20; i++) {
+            game.applyAction(game.getPossibleActions().iterator().next());
+        }
+        Assertions.assertEquals(20, game.getActionRecords().size());
+        Assertions.assertFalse(game.canUndo());
+    }
+
+    //endregion
+
+    //region copy state tests
+
+    @Test
+    void givenGameWithCards_CopyingStateIntoOtherGame_SameStateAsCopy() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        HeimlichAndCo other = new HeimlichAndCo("1", 4);
+        for (int i = 0; i < 30 && !game.isGameOver(); i++) {
+            game.applyAction(game.getPossibleActions().iterator().next());
+        }
+        other.copyStateFrom(game);
+        Assertions.assertEquals(game.getZobristKey(), other.getZobristKey());
+        Assertions.assertEquals(game.getCurrentPhase(), other.getCurrentPhase());
+        Assertions.assertEquals(game.getPlayersToAgentsMap(), other.getPlayersToAgentsMap());
+        Assertions.assertEquals(game.getCards(), other.getCards());
+        Assertions.assertEquals(game.getCardStack().getCards(), other.getCardStack().getCards());
+        Assertions.assertEquals(game.getPossibleActions(), other.getPossibleActions());
+        Assertions.assertFalse(other.canUndo());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HeimlichAndCo("0", 4).copyStateFrom(game));
+    }
+
+    //endregion
+
+    //region determinization tests
+
+    @Test
+    void givenStrippedCopy_Determinizing_HiddenInformationFilledInConsistently() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        for (int i = 0; i < 40 && !game.isGameOver(); i++) {
+            game.applyAction(game.getPossibleActions().iterator().next());
+        }
+        HeimlichAndCo copy = (HeimlichAndCo) game.getGame(1);
+        Assertions.assertEquals(game.getCards().get(0).size(), copy.getNumberOfHiddenCards(0));
+
+        copy.determinize(1, new Random(1));
+        Assertions.assertEquals(4, copy.getPlayersToAgentsMap().size());
+        Assertions.assertEquals(4, new HashSet<>(copy.getPlayersToAgentsMap().values()).size());
+        Assertions.assertEquals(game.getPlayersToAgentsMap().get(1), copy.getPlayersToAgentsMap().get(1));
+        Assertions.assertEquals(game.getCards().get(1), copy.getCards().get(1));
+        for (int player = 0; player < 4; player++) {
+            Assertions.assertEquals(game.getCards().get(player).size(), copy.getCards().get(player).size());
+            Assertions.assertEquals(0, copy.getNumberOfHiddenCards(player));
+        }
+        Assertions.assertEquals(game.getCardStack().count(), copy.getCardStack().count());
+        Assertions.assertEquals(game.getBoard().getZobristKey(), copy.getBoard().getZobristKey());
+    }
+
+    @Test
+    void givenStrippedCopy_DeterminizingForPlayerWithUnknownAgent_ThrowsIllegalArgumentException() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 3);
+        HeimlichAndCo copy = (HeimlichAndCo) game.getGame(1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> copy.determinize(2, new Random()));
+    }
+
+    //endregion
+
+    //region zobrist tests
+
+    @Test
+    void givenGameWithCards_ApplyingActions_ZobristKeyEqualsKeyOfCopy() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        int numberOfActions = 0;
+        while (!game.isGameOver() && numberOfActions < 200) {
+            game.applyAction(game.getPossibleActions().iterator().next());
+            numberOfActions++;
+            Assertions.assertEquals(game.getBoard().calculateZobristKey(), game.getBoard().getZobristKey());
+            Assertions.assertEquals(new HeimlichAndCo(game).getZobristKey(), game.getZobristKey());
+        }
+    }
+
+    @Test
+    void givenGame_ApplyingAndUndoingAction_ZobristKeyRestored() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        long key = game.getZobristKey();
+        game.applyAction(game.getPossibleActions().iterator().next());
+        Assertions.assertNotEquals(key, game.getZobristKey());
+        game.undoLastAction();
+        Assertions.assertEquals(key, game.getZobristKey());
+    }
+
+    //endregion
+
+    //region action universe tests
+
+    /**
+     * Enumerates the moves of the agents like the original nested loops of getPossibleActions: every distribution of
+     * the die result (1, 2 or 3 for 13) among the agents, plus moving no agents for 13 with cards.
+     */
+    private static Set<List<Integer>> enumerateAgentMoves(int numberOfAgents, int dieResult, boolean withCards) {
+        Set<List<Integer>> moves = new HashSet<>();
+        int[] amounts = dieResult == 13 ? new int[]{1, 2, 3} : new int[]{dieResult};
+        if (dieResult == 13 && withCards) {
+            moves.add(new ArrayList<>(Collections.nCopies(numberOfAgents, 0)));
+        }
+        for (int amount : amounts) {
+            int combinations = (int) Math.pow(amount + 1, numberOfAgents);
+            for (int combination = 0; combination < combinations; combination++) {
+                List<Integer> move = new ArrayList<>();
+                int sum = 0;
+                for (int agent = 0, rest = combination; agent < numberOfAgents; agent++, rest /= amount + 1) {
+                    move.add(rest % (amount + 1));
+                    sum += rest % (amount + 1);
+                }
+                if (sum == amount) {
+                    moves.add(move);
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static List<Integer> getMoves(HeimlichAndCoAgentMoveAction action, Agent[] agents) {
+        List<Integer> moves = new ArrayList<>();
+        for (Agent agent : agents) {
+            moves.add(action.getMove(agent));
+        }
+        return moves;
+    }
+
+    @Test
+    void givenEveryDieResultAndAgentCount_GettingPossibleAgentMoves_SameAsBruteForceAndUnmodifiable() {
+        for (int numberOfAgents = 5; numberOfAgents <= 7; numberOfAgents++) {
+            for (int dieResult : new int[]{0, 1, 2, 3, 4, 5, 6, 13}) {
+                for (boolean withCards : new boolean[]{false, true}) {
+                    HeimlichAndCoBoard board = new HeimlichAndCoBoard(numberOfAgents);
+                    board.setLastDieRoll(dieResult);
+                    Set<List<Integer>> expected = enumerateAgentMoves(numberOfAgents, dieResult, withCards);
+                    List<HeimlichAndCoAgentMoveAction> list =
+                            HeimlichAndCoAgentMoveAction.getPossibleActionsList(board, withCards);
+                    Set<HeimlichAndCoAction> set = HeimlichAndCoAgentMoveAction.getPossibleActions(board, withCards);
+                    Set<List<Integer>> actual = new HashSet<>();
+                    for (HeimlichAndCoAgentMoveAction action : list) {
+                        actual.add(getMoves(action, board.getAgents()));
+                    }
+                    Assertions.assertEquals(expected, actual);
+                    Assertions.assertEquals(expected.size(), list.size());
+                    Assertions.assertEquals(new HashSet<>(list), set);
+                    Assertions.assertSame(set, HeimlichAndCoAgentMoveAction.getPossibleActions(board, withCards));
+                    Assertions.assertThrows(UnsupportedOperationException.class,
+                            () -> set.add(HeimlichAndCoAgentMoveAction.getNoMoveAction()));
+                    Assertions.assertThrows(UnsupportedOperationException.class, set::clear);
+                    Assertions.assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenNonStandardAgents_GettingPossibleAgentMoves_SameAsBruteForce() {
+        Agent[] agents = Arrays.copyOfRange(Agent.values(), 1, 6);
+        for (int dieResult : new int[]{1, 3, 6, 13}) {
+            HeimlichAndCoBoard board = new HeimlichAndCoBoard(agents);
+            board.setLastDieRoll(dieResult);
+            Set<List<Integer>> actual = new HashSet<>();
+            for (HeimlichAndCoAction action : HeimlichAndCoAgentMoveAction.getPossibleActions(board, true)) {
+                actual.add(getMoves((HeimlichAndCoAgentMoveAction) action, agents));
+            }
+            Assertions.assertEquals(enumerateAgentMoves(5, dieResult, true), actual);
+        }
+    }
+
+    @Test
+    void givenGameWithCards_GettingPossibleActions_AllActionsAreSharedInstancesOfUniverse() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        int numberOfActions = 0;
+        while (!game.isGameOver() && numberOfActions < 200) {
+            for (HeimlichAndCoAction action : game.getPossibleActions()) {
+                Assertions.assertTrue(action.getId() >= 0);
+                Assertions.assertSame(action, HeimlichAndCoActionUniverse.get(action.getId()));
+            }
+            game.applyAction(game.getPossibleActions().iterator().next());
+            numberOfActions++;
+        }
+    }
+
+    @Test
+    void givenCardActionWithAgentsInReverseOrder_ComparingWithSharedAction_EqualAndSharedActionUnchanged() {
+        HeimlichAndCoCardAction shared = HeimlichAndCoActionUniverse.getCardAction(
+                HeimlichAndCoActionUniverse.getStandardCard(4), Agent.PERRY, Agent.LARSSON, 0);
+        Agent[] agents = shared.getAgents();
+        HeimlichAndCoCardAction reversed = new HeimlichAndCoCardAction(HeimlichAndCoActionUniverse.getStandardCard(4),
+                new Agent[]{Agent.LARSSON, Agent.PERRY}, 0);
+        Assertions.assertEquals(shared, reversed);
+        Assertions.assertEquals(shared.hashCode(), reversed.hashCode());
+        Assertions.assertArrayEquals(agents, shared.getAgents());
+        Assertions.assertArrayEquals(agents, reversed.getAgents());
+    }
+
+    @Test
+    void givenNewlyCreatedActions_GettingId_IdOfEqualActionInUniverse() {
+        Map<Agent, Integer> moves = new EnumMap<>(Agent.class);
+        moves.put(Agent.values()[0], 2);
+        moves.put(Agent.values()[3], 1);
+        HeimlichAndCoAction action = new HeimlichAndCoAgentMoveAction(moves);
+        Assertions.assertEquals(action, HeimlichAndCoActionUniverse.get(action.getId()));
+        action = new HeimlichAndCoSafeMoveAction(4);
+        Assertions.assertEquals(action, HeimlichAndCoActionUniverse.get(action.getId()));
+        Assertions.assertEquals(HeimlichAndCoActionUniverse.SKIP_CARD_ACTION_ID, HeimlichAndCoCardAction.getSkipCardAction().getId());
+    }
+
+    @Test
+    void givenGameWithCards_GettingPossibleActionIds_IdsOfPossibleActions() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 5);
+        int[] ids = new int[HeimlichAndCoActionUniverse.size()];
+        int numberOfActions = 0;
+        while (!game.isGameOver() && numberOfActions < 200) {
+            int count = game.getPossibleActionIds(ids);
+            Set<HeimlichAndCoAction> actions = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                actions.add(HeimlichAndCoActionUniverse.decode(ids[i]));
+            }
+            Assertions.assertEquals(count, actions.size());
+            Assertions.assertEquals(game.getPossibleActions(), actions);
+            game.applyActionId(ids[0]);
+            numberOfActions++;
+        }
+    }
+
+    @Test
+    void givenGameWithCards_IteratingPossibleActions_SameActionsAsPossibleActions() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 6);
+        int numberOfActions = 0;
+        while (!game.isGameOver() && numberOfActions < 200) {
+            List<HeimlichAndCoAction> actions = new ArrayList<>();
+            game.getPossibleActionsIterator().forEachRemaining(actions::add);
+            Assertions.assertEquals(game.getPossibleActions(), new HashSet<>(actions));
+            Assertions.assertEquals(actions.size(), game.getNumberOfPossibleActions());
+            game.applyAction(actions.get(actions.size() / 2));
+            numberOfActions++;
+        }
+    }
+
+    @Test
+    void givenGameWithCards_CheckingValidityOfAllActions_SameAsContainedInPossibleActions() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        int numberOfActions = 0;
+        while (!game.isGameOver() && numberOfActions < 200) {
+            Set<HeimlichAndCoAction> possibleActions = game.getPossibleActions();
+            for (int id = 0; id < HeimlichAndCoActionUniverse.size(); id++) {
+                HeimlichAndCoAction action = HeimlichAndCoActionUniverse.get(id);
+                Assertions.assertEquals(possibleActions.contains(action), game.isValidAction(action));
+            }
+            game.applyAction(possibleActions.iterator().next());
+            numberOfActions++;
+        }
+    }
+
+    //endregion
+
+    //region random tests
+
+    @Test
+    void givenGamesWithSameSeed_PlayingWithSameRandomActions_GamesAreIdentical() {
+        HeimlichAndCo first = new HeimlichAndCo("1", 5, 42);
+        HeimlichAndCo second = new HeimlichAndCo("1", 5, 42);
+        Assertions.assertEquals(first.getPlayersToAgentsMap(), second.getPlayersToAgentsMap());
+        Assertions.assertEquals(first.getCards(), second.getCards());
+        Assertions.assertEquals(first.getCardStack().getCards(), second.getCardStack().getCards());
+        RandomPlayout firstPlayout = new RandomPlayout(new GameRandom(1));
+        RandomPlayout secondPlayout = new RandomPlayout(new GameRandom(1));
+        while (!first.isGameOver()) {
+            first.applyAction(firstPlayout.getRandomAction(first));
+            second.applyAction(secondPlayout.getRandomAction(second));
+        }
+        Assertions.assertEquals(first.getZobristKey(), second.getZobristKey());
+        Assertions.assertTrue(second.isGameOver());
+    }
+
+    @Test
+    void givenSeededGame_Copying_CopyIsSplitAndStrippedCopyIsUnrelated() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 3, 7);
+        HeimlichAndCo copy = new HeimlichAndCo(game);
+        Assertions.assertNotSame(game.getRandom(), copy.getRandom());
+        Assertions.assertSame(copy.getRandom(), copy.getBoard().getRandom());
+        Assertions.assertEquals(new HeimlichAndCo(new HeimlichAndCo("0", 3, 7)).getRandom().nextLong(),
+                copy.getRandom().nextLong());
+        HeimlichAndCo stripped = (HeimlichAndCo) game.getGame(0);
+        Assertions.assertNotEquals(new HeimlichAndCo(new HeimlichAndCo("0", 3, 7)).getRandom().nextLong(),
+                stripped.getRandom().nextLong());
+    }
+
+    @Test
+    void givenSeededGame_CopyingTwice_GeneratorOfGameUnchangedAndCopiesDiffer() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 3, 7);
+        HeimlichAndCo first = new HeimlichAndCo(game);
+        HeimlichAndCo second = new HeimlichAndCo(game);
+        Assertions.assertNotEquals(first.getRandom().nextLong(), second.getRandom().nextLong());
+        GameRandom uncopied = new HeimlichAndCo("0", 3, 7).getRandom();
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(uncopied.nextLong(), game.getRandom().nextLong());
+        }
+    }
+
+    //endregion
 
 }
@@ -0,0 +1,77 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.enums.HeimlichAndCoPhase;
+import heimlich_and_co.search.InformationSetMcts;
+import heimlich_and_co.search.RandomPlayout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class InformationSetMctsTests {
+
+    //region search tests
+
+    @Test
+    void givenGameWithCards_SearchingWithBothVariants_ReturnsPossibleActions() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        RandomPlayout playout = new RandomPlayout(new Random(1));
+        InformationSetMcts singleObserver = new InformationSetMcts(InformationSetMcts.Variant.SINGLE_OBSERVER,
+                InformationSetMcts.DEFAULT_EXPLORATION, new Random(2));
+        InformationSetMcts multipleObserver = new InformationSetMcts(InformationSetMcts.Variant.MULTIPLE_OBSERVER,
+                InformationSetMcts.DEFAULT_EXPLORATION, new Random(3));
+        for (int i = 0; i < 60 && !game.isGameOver(); i++) {
+            HeimlichAndCo view = (HeimlichAndCo) game.getGame(game.getCurrentPlayer());
+            HeimlichAndCoAction single = singleObserver.search(view, 50);
+            HeimlichAndCoAction multiple = multipleObserver.search(view, 50);
+            Assertions.assertTrue(game.getPossibleActions().contains(single));
+            Assertions.assertTrue(game.getPossibleActions().contains(multiple));
+            playout.applyRandomAction(game);
+        }
+    }
+
+    @Test
+    void givenDieRollPhase_Searching_ReturnsRollWithoutIterations() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 3);
+        Assertions.assertEquals(HeimlichAndCoPhase.DIE_ROLL_PHASE, game.getCurrentPhase());
+        InformationSetMcts search = new InformationSetMcts();
+        HeimlichAndCoAction action = search.search((HeimlichAndCo) game.getGame(0), 100);
+        Assertions.assertTrue(game.getPossibleActions().contains(action));
+        Assertions.assertEquals(0, search.getNumberOfIterations());
+    }
+
+    @Test
+    void givenUnknownAgentOfCurrentPlayer_Searching_ThrowsIllegalArgumentException() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 3);
+        InformationSetMcts search = new InformationSetMcts();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> search.search((HeimlichAndCo) game.getGame(1), 10));
+    }
+
+    //endregion
+
+    //region parallel search tests
+
+    @Test
+    void givenMultipleThreads_SearchingWithBothParallelizations_ReturnsPossibleActionsWithAllIterations() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 5);
+        RandomPlayout playout = new RandomPlayout(new Random(4));
+        for (InformationSetMcts.Parallelization parallelization : InformationSetMcts.Parallelization.values()) {
+            InformationSetMcts search = new InformationSetMcts(InformationSetMcts.Variant.MULTIPLE_OBSERVER,
+                    InformationSetMcts.DEFAULT_EXPLORATION, new Random(5), 4, parallelization);
+            for (int i = 0; i < 20 && !game.isGameOver(); i++) {
+                HeimlichAndCo view = (HeimlichAndCo) game.getGame(game.getCurrentPlayer());
+                HeimlichAndCoAction action = search.search(view, 200);
+                Assertions.assertTrue(game.getPossibleActions().contains(action));
+                if (search.getNumberOfIterations() > 0) {
+                    Assertions.assertTrue(search.getNumberOfIterations() >= 200);
+                }
+                playout.applyRandomAction(game);
+            }
+            search.shutdown();
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,47 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.search.Perft;
+import heimlich_and_co.search.RandomPlayout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class PerftTests {
+
+    //region perft tests
+
+    @Test
+    void givenNewGameWithoutCards_Perft_KnownNumbersOfLeaves() {
+        HeimlichAndCo twoPlayers = new HeimlichAndCo("0", 2);
+        Assertions.assertEquals(1, Perft.perft(twoPlayers, 0));
+        Assertions.assertEquals(6, Perft.perft(twoPlayers, 1));
+        Assertions.assertEquals(511, Perft.perft(twoPlayers, 2));
+        Assertions.assertEquals(3066, Perft.perft(twoPlayers, 3));
+        Assertions.assertEquals(261121, Perft.perft(twoPlayers, 4));
+        HeimlichAndCo threePlayers = new HeimlichAndCo("0", 3);
+        Assertions.assertEquals(1000, Perft.perft(threePlayers, 2));
+        Assertions.assertEquals(1000000, Perft.perft(threePlayers, 4));
+    }
+
+    @Test
+    void givenGameWithCards_DividingAndPerftInParallel_SameNumberOfLeavesAsPerft() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        HeimlichAndCo state = new HeimlichAndCo(new RandomPlayout(new Random(1)).playout(game, 3));
+        long key = state.getZobristKey();
+        long leaves = Perft.perft(state, 4);
+        Map<HeimlichAndCoAction, Long> divided = Perft.divide(state, 4);
+        Assertions.assertEquals(leaves, divided.values().stream().mapToLong(Long::longValue).sum());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Assertions.assertEquals(divided, Perft.divideParallel(state, 4, pool));
+        Assertions.assertEquals(leaves, Perft.perftParallel(state, 4, pool));
+        pool.shutdown();
+        Assertions.assertEquals(key, state.getZobristKey());
+    }
+
+    //endregion
+}
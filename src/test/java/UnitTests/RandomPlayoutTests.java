@@ -0,0 +1,50 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.search.RandomPlayout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class RandomPlayoutTests {
+
+    //region playout tests
+
+    @Test
+    void givenNewGame_Playout_GameIsOverAndOriginalUnchanged() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 4);
+        long key = game.getZobristKey();
+        RandomPlayout playout = new RandomPlayout(new Random(1));
+        HeimlichAndCo result = playout.playout(game);
+        Assertions.assertTrue(result.isGameOver());
+        Assertions.assertFalse(game.isGameOver());
+        Assertions.assertEquals(key, game.getZobristKey());
+        Assertions.assertTrue(game.getActionRecords().isEmpty());
+    }
+
+    @Test
+    void givenPlayoutWithMaxSteps_Playout_AppliesAtMostMaxSteps() {
+        HeimlichAndCo game = new HeimlichAndCo("0", 3);
+        RandomPlayout playout = new RandomPlayout(new Random(2));
+        playout.playout(game, 10);
+        Assertions.assertEquals(10, playout.getNumberOfSteps());
+        HeimlichAndCo result = playout.playout(game, 0);
+        Assertions.assertEquals(game.getZobristKey(), result.getZobristKey());
+    }
+
+    @Test
+    void givenGameWithCards_GettingRandomAction_ActionIsPossible() {
+        HeimlichAndCo game = new HeimlichAndCo("1", 5);
+        RandomPlayout playout = new RandomPlayout(new Random(3));
+        while (!game.isGameOver()) {
+            HeimlichAndCoAction action = playout.getRandomAction(game);
+            Assertions.assertTrue(game.getPossibleActions().contains(action));
+            game.applyAction(action);
+        }
+        Assertions.assertThrows(IllegalStateException.class, () -> playout.getRandomAction(game));
+    }
+
+    //endregion
+}
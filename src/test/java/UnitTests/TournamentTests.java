@@ -0,0 +1,133 @@
+package UnitTests;
+
+import at.ac.tuwien.ifs.sge.agent.GameAgent;
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.actions.HeimlichAndCoAction;
+import heimlich_and_co.search.RandomPlayout;
+import heimlich_and_co.tournament.GameResult;
+import heimlich_and_co.tournament.Standings;
+import heimlich_and_co.tournament.Tournament;
+import heimlich_and_co.util.GameRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+class TournamentTests {
+
+    private static GameAgent<HeimlichAndCo, HeimlichAndCoAction> newRandomAgent() {
+        RandomPlayout playout = new RandomPlayout(new GameRandom(1));
+        return (game, computationTime, timeUnit) -> playout.getRandomAction(game);
+    }
+
+    @Test
+    void givenTournament_Running_AllGamesPlayedAndRecorded() {
+        Tournament tournament = new Tournament(List.of(
+                new Tournament.Contestant("first", TournamentTests::newRandomAgent),
+                new Tournament.Contestant("second", TournamentTests::newRandomAgent)),
+                new int[]{2, 3, 4, 5, 6, 7}, 4);
+        tournament.setSeed(42);
+        Queue<GameResult> results = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Standings standings = tournament.run(pool, results::add);
+        pool.shutdown();
+
+        Assertions.assertEquals(24, results.size());
+        Assertions.assertEquals(24, standings.getNumberOfGames());
+        long seats = 0;
+        for (GameResult result : results) {
+            double winShares = 0;
+            for (int seat = 0; seat < result.getNumberOfPlayers(); seat++) {
+                Assertions.assertEquals((result.getIndex() / 6 + seat) % 2, result.getContestant(seat));
+                Assertions.assertFalse(result.isDisqualified(seat));
+                winShares += result.getWinShare(seat);
+            }
+            Assertions.assertTrue(winShares == 0 || Math.abs(winShares - 1) < 1e-9);
+            seats += result.getNumberOfPlayers();
+        }
+        Standings.WinRate first = standings.getWinRate(0);
+        Assertions.assertEquals(seats, first.getSeats() + standings.getWinRate(1).getSeats());
+        Assertions.assertEquals(4, standings.getWinRate(0, 2).getSeats());
+        Assertions.assertTrue(first.getLowerBound() <= first.getWinRate() && first.getWinRate() <= first.getUpperBound());
+        Assertions.assertTrue(first.getLowerBound() >= 0 && first.getUpperBound() <= 1);
+    }
+
+    @Test
+    void givenSameSeed_PlayingGame_SameResult() {
+        Tournament tournament = new Tournament(List.of(
+                new Tournament.Contestant("random", TournamentTests::newRandomAgent)), new int[]{3}, 2);
+        tournament.setSeed(7);
+        GameResult first = tournament.playGame(1);
+        GameResult second = tournament.playGame(1);
+        Assertions.assertEquals(first.getNumberOfActions(), second.getNumberOfActions());
+        for (int seat = 0; seat < 3; seat++) {
+            Assertions.assertEquals(first.getScore(seat), second.getScore(seat));
+        }
+    }
+
+    @Test
+    void givenFailingAgent_PlayingGame_AgentDisqualifiedOrGameAborted() {
+        Tournament tournament = new Tournament(List.of(
+                new Tournament.Contestant("failing", () -> (game, computationTime, timeUnit) -> null),
+                new Tournament.Contestant("random", TournamentTests::newRandomAgent)), new int[]{2, 3}, 2);
+        GameResult twoPlayers = tournament.playGame(0);
+        Assertions.assertTrue(twoPlayers.isAborted());
+        Assertions.assertTrue(twoPlayers.isDisqualified(0));
+        Assertions.assertEquals(0, twoPlayers.getWinShare(0));
+        Assertions.assertEquals(1, twoPlayers.getWinShare(1));
+
+        GameResult threePlayers = tournament.playGame(1); //failing, random, failing
+        Assertions.assertTrue(threePlayers.isDisqualified(0));
+        Assertions.assertTrue(threePlayers.isDisqualified(2));
+        Assertions.assertTrue(threePlayers.isAborted());
+        Assertions.assertEquals(1, threePlayers.getWinShare(1));
+    }
+
+    @Test
+    void givenAgentsThrowingInSetUpAndComputation_Running_OnlyTheirGamesLost() {
+        GameAgent<HeimlichAndCo, HeimlichAndCoAction> failingSetUp = new GameAgent<>() {
+            @Override
+            public void setUp(int numberOfPlayers, int playerId) {
+                throw new IllegalStateException("set up failed");
+            }
+
+            @Override
+            public HeimlichAndCoAction computeNextAction(HeimlichAndCo game, long computationTime, TimeUnit timeUnit) {
+                throw new AssertionError("must not be asked for an action");
+            }
+        };
+        Tournament tournament = new Tournament(List.of(
+                new Tournament.Contestant("failing set up", () -> failingSetUp),
+                new Tournament.Contestant("error", () -> (game, computationTime, timeUnit) -> {
+                    throw new StackOverflowError();
+                }),
+                new Tournament.Contestant("random", TournamentTests::newRandomAgent)), new int[]{3}, 3);
+        Queue<GameResult> results = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        tournament.run(pool, results::add);
+        pool.shutdown();
+
+        Assertions.assertEquals(3, results.size());
+        for (GameResult result : results) {
+            for (int seat = 0; seat < 3; seat++) {
+                boolean random = result.getContestant(seat) == 2;
+                Assertions.assertEquals(!random, result.isDisqualified(seat));
+                Assertions.assertEquals(random ? 1 : 0, result.getWinShare(seat));
+            }
+        }
+    }
+
+    @Test
+    void givenAgentThrowingOutOfMemoryError_PlayingGame_ErrorIsRethrown() {
+        Tournament tournament = new Tournament(List.of(
+                new Tournament.Contestant("out of memory", () -> (game, computationTime, timeUnit) -> {
+                    throw new OutOfMemoryError();
+                }),
+                new Tournament.Contestant("random", TournamentTests::newRandomAgent)), new int[]{3}, 1);
+        Assertions.assertThrows(OutOfMemoryError.class, () -> tournament.playGame(0));
+    }
+}
@@ -0,0 +1,63 @@
+package UnitTests;
+
+import heimlich_and_co.HeimlichAndCo;
+import heimlich_and_co.search.TranspositionTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTests {
+
+    @Test
+    void given_EmptyTable_Getting_Then_Null() {
+        TranspositionTable table = new TranspositionTable(16, TranspositionTable.ReplacementPolicy.TWO_TIER);
+        Assertions.assertNull(table.get(0L));
+        Assertions.assertNull(table.get(42L));
+    }
+
+    @Test
+    void given_Table_AddingVisits_Then_VisitsAndMeanStored() {
+        TranspositionTable table = new TranspositionTable(16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        HeimlichAndCo game = new HeimlichAndCo(3);
+        table.addVisit(game, 2, 1.0);
+        table.addVisit(game, 2, 0.0);
+        TranspositionTable.Entry entry = table.get(new HeimlichAndCo(game));
+        Assertions.assertNotNull(entry);
+        Assertions.assertEquals(2, entry.getVisits());
+        Assertions.assertEquals(0.5, entry.getValue(), 1e-9);
+    }
+
+    @Test
+    void given_DepthPreferredTable_StoringShallowerEntryInSameSlot_Then_DeeperEntryKept() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        Assertions.assertTrue(table.put(1L, 5, 1, 1.0));
+        Assertions.assertFalse(table.put(2L, 3, 1, 1.0));
+        Assertions.assertNotNull(table.get(1L));
+        Assertions.assertNull(table.get(2L));
+    }
+
+    @Test
+    void given_AlwaysReplaceTable_StoringShallowerEntryInSameSlot_Then_NewEntryKept() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS_REPLACE);
+        table.put(1L, 5, 1, 1.0);
+        table.put(2L, 3, 1, 1.0);
+        Assertions.assertNull(table.get(1L));
+        Assertions.assertNotNull(table.get(2L));
+    }
+
+    @Test
+    void given_TwoTierTable_StoringEntriesInSameSlot_Then_DeepestAndNewestKept() {
+        TranspositionTable table = new TranspositionTable(2, TranspositionTable.ReplacementPolicy.TWO_TIER);
+        table.put(1L, 5, 1, 1.0);
+        table.put(2L, 3, 1, 1.0);
+        table.put(3L, 4, 1, 1.0);
+        Assertions.assertNotNull(table.get(1L));
+        Assertions.assertNull(table.get(2L));
+        Assertions.assertNotNull(table.get(3L));
+    }
+
+    @Test
+    void given_Nothing_CreatingTableWithInvalidCapacity_Then_IllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0, TranspositionTable.ReplacementPolicy.TWO_TIER));
+    }
+
+}